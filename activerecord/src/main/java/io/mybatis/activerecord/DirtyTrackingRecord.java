@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.activerecord;
+
+import io.mybatis.common.util.Assert;
+import io.mybatis.mapper.fn.Fn;
+import io.mybatis.provider.EntityColumn;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static io.mybatis.common.core.Code.UPDATE_FAILURE;
+
+/**
+ * 支持记录字段变化的 {@link EntityRecord}，通过 {@link #update()} 更新时只更新发生变化的字段，没有变化时不访问数据库
+ * <p>
+ * 实现类需要提供一个快照字段（使用 transient 修饰，不会作为表字段），例如：
+ * <pre>
+ * private transient EntitySnapshot snapshot = new EntitySnapshot();
+ *
+ * public EntitySnapshot snapshot() {
+ *   return snapshot;
+ * }
+ * </pre>
+ * 通过当前接口的查询方法（findById 等）查询的实体，以及 save、update 之后的实体会自动记录快照，
+ * 其他方式得到的实体可以调用 {@link #markClean()} 记录快照。没有快照时 {@link #update()} 仍然更新所有字段
+ *
+ * @param <T> 实体类类型
+ * @param <I> 主键类型
+ * @author liuzh
+ */
+public interface DirtyTrackingRecord<T, I extends Serializable> extends EntityRecord<T, I> {
+
+  /**
+   * 字段值快照
+   *
+   * @return 快照
+   */
+  EntitySnapshot snapshot();
+
+  /**
+   * 将当前字段值记录为快照，之后的修改才会被认为是变化
+   */
+  default void markClean() {
+    List<EntityColumn> columns = baseMapper().entityTable().updateColumns().stream()
+        .filter(column -> !column.id()).collect(Collectors.toList());
+    snapshot().capture(this, columns);
+  }
+
+  /**
+   * 是否有需要更新的字段，没有快照时认为所有字段都需要更新
+   *
+   * @return true 有变化
+   */
+  default boolean isDirty() {
+    return !snapshot().isCaptured() || !snapshot().changedColumns(this).isEmpty();
+  }
+
+  /**
+   * 和快照相比发生变化的字段
+   *
+   * @return 字段名集合，没有快照时返回空集合
+   */
+  default List<String> dirtyFields() {
+    return snapshot().changedColumns(this).stream().map(EntityColumn::property).collect(Collectors.toList());
+  }
+
+  /**
+   * 保存（所有字段），保存后记录快照
+   */
+  @Override
+  default void save() {
+    EntityRecord.super.save();
+    markClean();
+  }
+
+  /**
+   * 保存（非空字段），空字段会使用数据库默认值，因此保存后清除快照
+   */
+  @Override
+  default void saveSelective() {
+    EntityRecord.super.saveSelective();
+    snapshot().clear();
+  }
+
+  /**
+   * 根据主键更新，有快照时只更新发生变化的字段，没有变化时不访问数据库；没有快照时更新所有字段
+   */
+  @Override
+  default void update() {
+    if (!snapshot().isCaptured()) {
+      EntityRecord.super.update();
+    } else {
+      List<String> dirtyFields = dirtyFields();
+      if (dirtyFields.isEmpty()) {
+        return;
+      }
+      Fn.Fns<T> fns = Fn.of(entityClass(), dirtyFields.toArray(new String[0]));
+      Assert.isTrue(baseMapper().updateForFieldListByPrimaryKey((T) this, fns) == 1, UPDATE_FAILURE);
+    }
+    markClean();
+  }
+
+  /**
+   * 根据主键更新（非空字段），为空的字段不会更新，因此更新后清除快照
+   */
+  @Override
+  default void updateSelective() {
+    EntityRecord.super.updateSelective();
+    snapshot().clear();
+  }
+
+  /**
+   * 根据主键更新（非空字段），指定的强制更新字段不区分是否为空，更新后清除快照
+   *
+   * @param forceUpdateFields 强制更新的字段，不区分字段是否为 null
+   */
+  @Override
+  default void updateSelective(Fn<T, Object>... forceUpdateFields) {
+    EntityRecord.super.updateSelective(forceUpdateFields);
+    snapshot().clear();
+  }
+
+  @Override
+  default T findById(I id) {
+    return clean(EntityRecord.super.findById(id));
+  }
+
+  @Override
+  default T findOne() {
+    return clean(EntityRecord.super.findOne());
+  }
+
+  @Override
+  default List<T> findList() {
+    return cleanAll(EntityRecord.super.findList());
+  }
+
+  @Override
+  default <F> List<T> findByFieldList(Fn<T, F> field, List<F> fieldValueList) {
+    return cleanAll(EntityRecord.super.findByFieldList(field, fieldValueList));
+  }
+
+  @Override
+  default List<T> findAll() {
+    return cleanAll(EntityRecord.super.findAll());
+  }
+
+  /**
+   * 为查询结果记录快照
+   *
+   * @param entity 实体
+   * @return 实体
+   */
+  default T clean(T entity) {
+    if (entity instanceof DirtyTrackingRecord) {
+      ((DirtyTrackingRecord<?, ?>) entity).markClean();
+    }
+    return entity;
+  }
+
+  /**
+   * 为查询结果记录快照
+   *
+   * @param entities 实体集合
+   * @return 实体集合
+   */
+  default List<T> cleanAll(List<T> entities) {
+    entities.forEach(this::clean);
+    return entities;
+  }
+
+}
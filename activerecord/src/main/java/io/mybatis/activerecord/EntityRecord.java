@@ -23,6 +23,7 @@ import io.mybatis.provider.EntityColumn;
 import io.mybatis.provider.EntityTable;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 
 import static io.mybatis.common.core.Code.*;
@@ -35,6 +36,92 @@ import static io.mybatis.common.core.Code.*;
  * @author liuzh
  */
 public interface EntityRecord<T, I extends Serializable> extends MapperRecord<T, I, BaseMapper<T, I>> {
+  /**
+   * 批量操作时每批的默认数量
+   */
+  int DEFAULT_CHUNK_SIZE = 1000;
+
+  /**
+   * 批量保存（所有字段）
+   * <p>
+   * 按实体类分组，每组只获取一次 Mapper，Mapper 实现了 {@link io.mybatis.mapper.list.ListMapper} 时按批次使用 insertList 批量插入，
+   * 否则使用同一个 Mapper 逐条插入
+   *
+   * @param records 实体集合
+   * @param <T>     实体类类型
+   * @param <I>     主键类型
+   * @return 保存的总条数
+   */
+  static <T extends EntityRecord<T, I>, I extends Serializable> int saveAll(Collection<T> records) {
+    return saveAll(records, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * 批量保存（所有字段）
+   *
+   * @param records   实体集合
+   * @param chunkSize 每批的数量
+   * @param <T>       实体类类型
+   * @param <I>       主键类型
+   * @return 保存的总条数
+   */
+  static <T extends EntityRecord<T, I>, I extends Serializable> int saveAll(Collection<T> records, int chunkSize) {
+    return EntityRecordBatch.execute(records, chunkSize, EntityRecordBatch::insert);
+  }
+
+  /**
+   * 批量根据主键更新（所有字段）
+   * <p>
+   * Mapper 实现了 {@link io.mybatis.mapper.list.ListMapper} 时按批次使用 updateList 批量更新，否则使用同一个 Mapper 逐条更新
+   *
+   * @param records 实体集合
+   * @param <T>     实体类类型
+   * @param <I>     主键类型
+   * @return 更新的总条数
+   */
+  static <T extends EntityRecord<T, I>, I extends Serializable> int updateAll(Collection<T> records) {
+    return updateAll(records, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * 批量根据主键更新（所有字段）
+   *
+   * @param records   实体集合
+   * @param chunkSize 每批的数量
+   * @param <T>       实体类类型
+   * @param <I>       主键类型
+   * @return 更新的总条数
+   */
+  static <T extends EntityRecord<T, I>, I extends Serializable> int updateAll(Collection<T> records, int chunkSize) {
+    return EntityRecordBatch.execute(records, chunkSize, EntityRecordBatch::update);
+  }
+
+  /**
+   * 批量根据主键删除
+   * <p>
+   * 单主键时按批次使用 {@code id in (...)} 删除，联合主键时使用同一个 Mapper 逐条删除
+   *
+   * @param records 实体集合
+   * @param <T>     实体类类型
+   * @param <I>     主键类型
+   * @return 删除的总条数
+   */
+  static <T extends EntityRecord<T, I>, I extends Serializable> int deleteAllById(Collection<T> records) {
+    return deleteAllById(records, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * 批量根据主键删除
+   *
+   * @param records   实体集合
+   * @param chunkSize 每批的数量
+   * @param <T>       实体类类型
+   * @param <I>       主键类型
+   * @return 删除的总条数
+   */
+  static <T extends EntityRecord<T, I>, I extends Serializable> int deleteAllById(Collection<T> records, int chunkSize) {
+    return EntityRecordBatch.execute(records, chunkSize, EntityRecordBatch::deleteById);
+  }
 
   /**
    * 保存（所有字段）
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.activerecord;
+
+import io.mybatis.mapper.BaseMapper;
+import io.mybatis.mapper.fn.Fn;
+import io.mybatis.mapper.list.ListMapper;
+import io.mybatis.provider.EntityColumn;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * {@link EntityRecord} 批量操作的实现，按实体类分组后每组只获取一次 Mapper，再按批次执行
+ *
+ * @author liuzh
+ */
+class EntityRecordBatch {
+
+  /**
+   * 按实体类分组，保持原有顺序
+   */
+  static <T extends EntityRecord<T, I>, I extends Serializable> Map<Class<?>, List<T>> group(Collection<T> records) {
+    Map<Class<?>, List<T>> groups = new LinkedHashMap<>();
+    for (T record : records) {
+      groups.computeIfAbsent(record.getClass(), clazz -> new ArrayList<>()).add(record);
+    }
+    return groups;
+  }
+
+  /**
+   * 分组分批执行
+   *
+   * @param records   实体集合
+   * @param chunkSize 每批的数量
+   * @param batch     批量执行的方法，参数为 Mapper 和当前批次，返回影响的行数
+   * @return 影响的总行数
+   */
+  static <T extends EntityRecord<T, I>, I extends Serializable> int execute(Collection<T> records, int chunkSize,
+                                                                                BiFunction<BaseMapper<T, I>, List<T>, Integer> batch) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be greater than 0");
+    }
+    if (records == null || records.isEmpty()) {
+      return 0;
+    }
+    int rows = 0;
+    for (List<T> group : group(records).values()) {
+      BaseMapper<T, I> mapper = group.get(0).baseMapper();
+      for (int i = 0; i < group.size(); i += chunkSize) {
+        rows += batch.apply(mapper, group.subList(i, Math.min(i + chunkSize, group.size())));
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * 批量保存或更新（所有字段）后，{@link DirtyTrackingRecord} 的快照和数据库保持一致
+   */
+  static void markClean(List<?> chunk) {
+    for (Object record : chunk) {
+      if (record instanceof DirtyTrackingRecord) {
+        ((DirtyTrackingRecord<?, ?>) record).markClean();
+      }
+    }
+  }
+
+  /**
+   * 批量删除后清除 {@link DirtyTrackingRecord} 的快照
+   */
+  static void clearSnapshot(List<?> chunk) {
+    for (Object record : chunk) {
+      if (record instanceof DirtyTrackingRecord) {
+        ((DirtyTrackingRecord<?, ?>) record).snapshot().clear();
+      }
+    }
+  }
+
+  static <T extends EntityRecord<T, I>, I extends Serializable> int insert(BaseMapper<T, I> mapper, List<T> chunk) {
+    int rows = 0;
+    if (mapper instanceof ListMapper) {
+      rows = ((ListMapper<T>) mapper).insertList(chunk);
+    } else {
+      for (T record : chunk) {
+        rows += mapper.insert(record);
+      }
+    }
+    markClean(chunk);
+    return rows;
+  }
+
+  static <T extends EntityRecord<T, I>, I extends Serializable> int update(BaseMapper<T, I> mapper, List<T> chunk) {
+    int rows = 0;
+    if (mapper instanceof ListMapper) {
+      rows = ((ListMapper<T>) mapper).updateList(chunk);
+    } else {
+      for (T record : chunk) {
+        rows += mapper.updateByPrimaryKey(record);
+      }
+    }
+    markClean(chunk);
+    return rows;
+  }
+
+  static <T extends EntityRecord<T, I>, I extends Serializable> int deleteById(BaseMapper<T, I> mapper, List<T> chunk) {
+    List<EntityColumn> idColumns = mapper.entityTable().idColumns();
+    if (idColumns.size() == 1) {
+      List<Object> ids = new ArrayList<>(chunk.size());
+      for (T record : chunk) {
+        ids.add(record.pkValue());
+      }
+      int rows = mapper.deleteByFieldList(Fn.field(mapper.entityClass(), idColumns.get(0).property()), ids);
+      clearSnapshot(chunk);
+      return rows;
+    }
+    int rows = 0;
+    for (T record : chunk) {
+      rows += mapper.deleteByPrimaryKey(record.pkValue());
+    }
+    clearSnapshot(chunk);
+    return rows;
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.activerecord;
+
+import io.mybatis.provider.EntityColumn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 实体字段值的快照，用于 {@link DirtyTrackingRecord} 判断哪些字段发生了变化
+ * <p>
+ * 快照只保存字段值的引用（浅拷贝），直接修改可变对象（如 {@link java.util.Date#setTime(long)}）时无法识别，需要重新赋值
+ *
+ * @author liuzh
+ */
+public class EntitySnapshot {
+  private List<EntityColumn> columns;
+  private Object[]           values;
+
+  /**
+   * 记录当前的字段值
+   *
+   * @param entity  实体
+   * @param columns 需要记录的列
+   */
+  public void capture(Object entity, List<EntityColumn> columns) {
+    Object[] values = new Object[columns.size()];
+    for (int i = 0; i < columns.size(); i++) {
+      values[i] = columns.get(i).field().get(entity);
+    }
+    this.columns = columns;
+    this.values = values;
+  }
+
+  /**
+   * 是否已经记录快照
+   */
+  public boolean isCaptured() {
+    return values != null;
+  }
+
+  /**
+   * 和快照相比发生变化的列
+   *
+   * @param entity 实体
+   * @return 发生变化的列，没有快照时返回空集合
+   */
+  public List<EntityColumn> changedColumns(Object entity) {
+    if (!isCaptured()) {
+      return Collections.emptyList();
+    }
+    List<EntityColumn> changed = new ArrayList<>();
+    for (int i = 0; i < columns.size(); i++) {
+      if (!Objects.equals(values[i], columns.get(i).field().get(entity))) {
+        changed.add(columns.get(i));
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * 清除快照
+   */
+  public void clear() {
+    this.columns = null;
+    this.values = null;
+  }
+
+}
@@ -17,6 +17,7 @@
 package io.mybatis.activerecord.spring;
 
 import io.mybatis.mapper.BaseMapper;
+import io.mybatis.mapper.warmup.MapperWarmUp;
 import io.mybatis.provider.EntityClassFinder;
 import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.beans.BeansException;
@@ -26,7 +27,10 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -41,15 +45,23 @@ public class MapperProvider<T, I extends Serializable, M extends BaseMapper<T, I
   /**
    * Spring 上下文
    */
-  protected static ApplicationContext              applicationContext;
+  protected static   ApplicationContext applicationContext;
   /**
-   * 缓存默认注入的实例
+   * 实体类和 Mapper 实例的对应关系及解析结果，只在 {@link #refresh()} 或 {@link #addMapper(Class, Object)} 时整体替换，读取时不需要加锁
    */
-  protected        Map<Class<?>, BaseMapper<T, I>> modelMapper = new ConcurrentHashMap<>();
+  protected volatile Mappers<T, I>      mappers = new Mappers<>(Collections.emptyMap());
   /**
    * 必须使用线程安全的 {@link SqlSessionTemplate}
    */
-  protected        SqlSessionTemplate              sqlSessionTemplate;
+  protected          SqlSessionTemplate sqlSessionTemplate;
+  /**
+   * 是否已经初始化
+   */
+  protected volatile boolean            initialized;
+  /**
+   * 是否已经预热通用方法
+   */
+  protected          boolean            warmedUp;
 
   /**
    * 构造方法，必须使用线程安全的 {@link SqlSessionTemplate}
@@ -89,9 +101,35 @@ public class MapperProvider<T, I extends Serializable, M extends BaseMapper<T, I
   }
 
   protected void initMapper() {
+    refresh();
+    if (MapperWarmUp.isEnabled()) {
+      warmUp();
+    }
+  }
+
+  /**
+   * 根据当前注册的所有 Mapper 接口重新生成对应关系，新增 Mapper 接口后需要调用该方法
+   */
+  public synchronized void refresh() {
+    Map<Class<?>, BaseMapper<T, I>> modelMapper = new HashMap<>();
     this.sqlSessionTemplate.getConfiguration().getMapperRegistry().getMappers().forEach(mapper -> {
-      addMapper(mapper, this.sqlSessionTemplate.getMapper(mapper));
+      putMapper(modelMapper, mapper, this.sqlSessionTemplate.getMapper(mapper));
     });
+    this.mappers = new Mappers<>(modelMapper);
+    this.initialized = true;
+  }
+
+  /**
+   * 预热所有通用方法的 SqlSource，只执行一次，通过 mybatis.mapper.warmup.enabled=true 开启时在 {@link #initMapper()} 中自动调用
+   *
+   * @return 预热结果，已经预热过时返回 null
+   */
+  public synchronized MapperWarmUp.Report warmUp() {
+    if (warmedUp) {
+      return null;
+    }
+    warmedUp = true;
+    return MapperWarmUp.warmUp(this.sqlSessionTemplate.getConfiguration());
   }
 
   /**
@@ -100,14 +138,37 @@ public class MapperProvider<T, I extends Serializable, M extends BaseMapper<T, I
    * @param type   Mapper 接口类
    * @param mapper Mapper 实例
    */
-  public void addMapper(Class<?> type, Object mapper) {
+  public synchronized void addMapper(Class<?> type, Object mapper) {
+    Map<Class<?>, BaseMapper<T, I>> modelMapper = new HashMap<>(this.mappers.modelMapper);
+    if (putMapper(modelMapper, type, mapper)) {
+      this.mappers = new Mappers<>(modelMapper);
+    }
+  }
+
+  /**
+   * 实体类和 Mapper 实例的对应关系，替代原来的 {@code modelMapper} 字段，返回的 Map 不可修改，
+   * 需要添加时使用 {@link #addMapper(Class, Object)}
+   *
+   * @return 实体类和 Mapper 实例的对应关系
+   */
+  protected Map<Class<?>, BaseMapper<T, I>> modelMapper() {
+    return this.mappers.modelMapper;
+  }
+
+  /**
+   * 添加 Mapper 接口和实例，已经存在相同实体类的 Mapper 时不覆盖
+   *
+   * @return 是否添加
+   */
+  protected boolean putMapper(Map<Class<?>, BaseMapper<T, I>> modelMapper, Class<?> type, Object mapper) {
     if (type != null && mapper != null && BaseMapper.class.isAssignableFrom(type)) {
-      EntityClassFinder.find(type, null).ifPresent(clazz -> {
-        if (!modelMapper.containsKey(clazz)) {
-          modelMapper.put(clazz, (BaseMapper<T, I>) mapper);
-        }
-      });
+      Optional<Class<?>> entityClass = EntityClassFinder.find(type, null);
+      if (entityClass.isPresent() && !modelMapper.containsKey(entityClass.get())) {
+        modelMapper.put(entityClass.get(), (BaseMapper<T, I>) mapper);
+        return true;
+      }
     }
+    return false;
   }
 
   /**
@@ -117,19 +178,50 @@ public class MapperProvider<T, I extends Serializable, M extends BaseMapper<T, I
    * @return Mapper 接口
    */
   public M baseMapper(Class<T> modelClass) {
-    if (!modelMapper.containsKey(modelClass)) {
-      synchronized (this) {
-        if (!modelMapper.containsKey(modelClass)) {
-          this.initMapper();
+    Mappers<T, I> mappers = this.mappers;
+    BaseMapper<T, I> mapper = mappers.modelMapper.get(modelClass);
+    if (mapper == null) {
+      if (!initialized) {
+        synchronized (this) {
+          if (!initialized) {
+            this.initMapper();
+          }
         }
+        mappers = this.mappers;
+        mapper = mappers.modelMapper.get(modelClass);
+      }
+      if (mapper == null) {
+        Map<Class<?>, BaseMapper<T, I>> modelMapper = mappers.modelMapper;
+        mapper = mappers.resolved.computeIfAbsent(modelClass, clazz -> resolve(modelMapper, clazz)).orElse(null);
       }
     }
-    if (modelMapper.containsKey(modelClass)) {
-      return (M) modelMapper.get(modelClass);
+    if (mapper != null) {
+      return (M) mapper;
     }
     throw new RuntimeException(modelClass.getName() + " Mapper interface not found");
   }
 
+  /**
+   * 实体类没有直接对应的 Mapper 时，依次按父类、接口查找
+   *
+   * @param modelMapper 实体类和 Mapper 实例的对应关系
+   * @param modelClass  实体类
+   * @return Mapper 实例
+   */
+  protected Optional<BaseMapper<T, I>> resolve(Map<Class<?>, BaseMapper<T, I>> modelMapper, Class<?> modelClass) {
+    for (Class<?> clazz = modelClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+      if (modelMapper.containsKey(clazz)) {
+        return Optional.of(modelMapper.get(clazz));
+      }
+    }
+    for (Map.Entry<Class<?>, BaseMapper<T, I>> entry : modelMapper.entrySet()) {
+      if (entry.getKey().isInterface() && entry.getKey().isAssignableFrom(modelClass)) {
+        return Optional.of(entry.getValue());
+      }
+    }
+    return Optional.empty();
+  }
+
   /**
    * 将当前实例设置为默认实例
    */
@@ -137,6 +229,19 @@ public class MapperProvider<T, I extends Serializable, M extends BaseMapper<T, I
     MapperProviderInstance.setINSTANCE(this);
   }
 
+  /**
+   * 实体类和 Mapper 实例的对应关系，以及基于该对应关系按父类、接口解析的结果（包括找不到 Mapper 的结果）。
+   * 两者总是一起替换，解析结果不会来自旧的对应关系，也不会在刷新后保留
+   */
+  protected static class Mappers<T, I extends Serializable> {
+    protected final Map<Class<?>, BaseMapper<T, I>>           modelMapper;
+    protected final Map<Class<?>, Optional<BaseMapper<T, I>>> resolved = new ConcurrentHashMap<>();
+
+    protected Mappers(Map<Class<?>, BaseMapper<T, I>> modelMapper) {
+      this.modelMapper = Collections.unmodifiableMap(modelMapper);
+    }
+  }
+
   private static class MapperProviderInstance {
     public static MapperProvider INSTANCE;
 
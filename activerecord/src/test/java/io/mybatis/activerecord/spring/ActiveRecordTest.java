@@ -15,9 +15,11 @@
  */
 package io.mybatis.activerecord.spring;
 
+import io.mybatis.activerecord.EntityRecord;
 import io.mybatis.mapper.BaseMapper;
 import io.mybatis.mapper.example.Example;
 import io.mybatis.mapper.fn.Fn;
+import io.mybatis.mapper.warmup.MapperWarmUp;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -235,4 +237,105 @@ public class ActiveRecordTest {
     Assert.assertEquals(1, user.getId().intValue());
   }
 
+  @Test
+  public void testDirtyTracking() {
+    TrackedRole role = new TrackedRole().findById(2);
+    Assert.assertFalse(role.isDirty());
+    String name = role.getName();
+    role.setName("tracked");
+    Assert.assertTrue(role.isDirty());
+    Assert.assertEquals(Arrays.asList("name"), role.dirtyFields());
+    role.update();
+    Assert.assertFalse(role.isDirty());
+    Assert.assertEquals("tracked", role.findById(2).getName());
+    role.setName(name);
+    role.update();
+    Assert.assertEquals(name, role.findById(2).getName());
+
+    //没有变化时不访问数据库，不存在的数据也不会更新失败
+    TrackedRole missing = new TrackedRole();
+    missing.setId(999);
+    missing.setName("missing");
+    missing.markClean();
+    missing.update();
+    missing.setName("changed");
+    try {
+      missing.update();
+      Assert.fail();
+    } catch (Exception e) {
+      Assert.assertTrue(missing.isDirty());
+    }
+  }
+
+  @Test
+  public void testBatch() {
+    List<User> users = Arrays.asList(new User("batch1"), new User("batch2"), new User("batch3"));
+    Assert.assertEquals(3, EntityRecord.saveAll(users, 2));
+    for (User user : users) {
+      Assert.assertNotNull(user.getId());
+      user.setRoleId(9);
+    }
+    Assert.assertEquals(3, EntityRecord.updateAll(users, 2));
+    Assert.assertEquals(3, new User(null, 9).count());
+    Assert.assertEquals(3, EntityRecord.deleteAllById(users, 2));
+    Assert.assertEquals(0, new User(null, 9).count());
+    Assert.assertEquals(0, EntityRecord.saveAll(Arrays.<User>asList()));
+  }
+
+  @Test
+  public void testBatchDirtyTracking() {
+    TrackedRole role = new TrackedRole().findById(2);
+    String name = role.getName();
+    role.setName("bulk");
+    Assert.assertEquals(1, EntityRecord.updateAll(Arrays.asList(role)));
+    Assert.assertFalse(role.isDirty());
+    //批量更新后快照已经更新，改回原值时仍然会写入数据库
+    role.setName(name);
+    Assert.assertEquals(Arrays.asList("name"), role.dirtyFields());
+    role.update();
+    Assert.assertEquals(name, role.findById(2).getName());
+
+    TrackedRole saved = new TrackedRole();
+    saved.setName("bulk");
+    Assert.assertEquals(1, EntityRecord.saveAll(Arrays.asList(saved)));
+    Assert.assertFalse(saved.isDirty());
+    Assert.assertEquals(1, EntityRecord.deleteAllById(Arrays.asList(saved)));
+    Assert.assertFalse(saved.snapshot().isCaptured());
+  }
+
+  public static class SubRole extends Role {
+  }
+
+  @Test
+  public void testMapperRegistry() {
+    MapperProvider provider = MapperProvider.getInstance("mapperProviderRole");
+    Assert.assertTrue(provider.baseMapper(Role.class) instanceof RoleMapper);
+    //按父类查找
+    Assert.assertSame(provider.baseMapper(Role.class), provider.baseMapper(SubRole.class));
+    //找不到时缓存结果，不会重新扫描
+    for (int i = 0; i < 2; i++) {
+      try {
+        provider.baseMapper(String.class);
+        Assert.fail();
+      } catch (RuntimeException e) {
+        Assert.assertTrue(e.getMessage().contains("Mapper interface not found"));
+      }
+    }
+    Assert.assertTrue(provider.mappers.resolved.containsKey(String.class));
+    provider.refresh();
+    Assert.assertFalse(provider.mappers.resolved.containsKey(String.class));
+    Assert.assertTrue(provider.baseMapper(Role.class) instanceof RoleMapper);
+  }
+
+  @Test
+  public void testWarmUp() {
+    MapperProvider provider = MapperProvider.getInstance("mapperProviderUser");
+    MapperWarmUp.Report report = provider.warmUp();
+    Assert.assertNotNull(report);
+    Assert.assertEquals(0, report.getFailures());
+    Assert.assertTrue(report.getEntities().containsKey(User.class));
+    Assert.assertNull(provider.warmUp());
+    Assert.assertFalse(new User().findAll().isEmpty());
+  }
+
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.activerecord.spring;
+
+import io.mybatis.activerecord.DirtyTrackingRecord;
+import io.mybatis.activerecord.EntitySnapshot;
+import io.mybatis.provider.Entity;
+
+@Entity.Table("role")
+public class TrackedRole implements DirtyTrackingRecord<TrackedRole, Integer> {
+  @Entity.Column(id = true, insertable = false)
+  private Integer id;
+
+  @Entity.Column
+  private String name;
+
+  private transient EntitySnapshot snapshot = new EntitySnapshot();
+
+  @Override
+  public EntitySnapshot snapshot() {
+    return snapshot;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.benchmarks;
+
+import io.mybatis.benchmarks.mapper.LogicalUserMapper;
+import io.mybatis.benchmarks.mapper.UserMapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * 基于内存 H2 的测试环境，每个实例使用独立的数据库
+ *
+ * @author liuzh
+ */
+public class BenchmarkDatabase {
+  public static final int ROWS = 1000;
+
+  private final SqlSessionFactory sqlSessionFactory;
+
+  public BenchmarkDatabase(String name) {
+    PooledDataSource dataSource = new PooledDataSource("org.h2.Driver",
+        "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    Configuration configuration = new Configuration(new Environment(name, new JdbcTransactionFactory(), dataSource));
+    configuration.setMapUnderscoreToCamelCase(true);
+    configuration.addMapper(UserMapper.class);
+    configuration.addMapper(LogicalUserMapper.class);
+    this.sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    init();
+  }
+
+  private void init() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+      Connection connection = sqlSession.getConnection();
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("drop table if exists bench_user");
+        statement.execute("create table bench_user(" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+            "name VARCHAR(32), sex VARCHAR(2), age INTEGER, status INTEGER DEFAULT 1)");
+      }
+      try (PreparedStatement ps = connection.prepareStatement("insert into bench_user(name, sex, age, status) values (?, ?, ?, 1)")) {
+        for (int i = 1; i <= ROWS; i++) {
+          ps.setString(1, "user" + i);
+          ps.setString(2, i % 2 == 0 ? "F" : "M");
+          ps.setInt(3, i % 100);
+          ps.addBatch();
+        }
+        ps.executeBatch();
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public SqlSessionFactory getSqlSessionFactory() {
+    return sqlSessionFactory;
+  }
+
+  public Configuration getConfiguration() {
+    return sqlSessionFactory.getConfiguration();
+  }
+
+}
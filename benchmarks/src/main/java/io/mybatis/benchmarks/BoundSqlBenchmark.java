@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.benchmarks;
+
+import io.mybatis.benchmarks.mapper.LogicalUserMapper;
+import io.mybatis.benchmarks.mapper.UserMapper;
+import io.mybatis.benchmarks.model.User;
+import io.mybatis.mapper.example.Example;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 根据 Example 生成 BoundSql 的开销（动态 SQL 解析，不执行 SQL）
+ *
+ * @author liuzh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundSqlBenchmark {
+  private MappedStatement selectByExample;
+  private MappedStatement countByExample;
+  private MappedStatement logicalSelectByExample;
+  private MappedStatement selectByPrimaryKey;
+  private Example<User>   example;
+
+  @Setup
+  public void setup() {
+    Configuration configuration = new BenchmarkDatabase("boundsql").getConfiguration();
+    selectByExample = configuration.getMappedStatement(UserMapper.class.getName() + ".selectByExample");
+    countByExample = configuration.getMappedStatement(UserMapper.class.getName() + ".countByExample");
+    selectByPrimaryKey = configuration.getMappedStatement(UserMapper.class.getName() + ".selectByPrimaryKey");
+    logicalSelectByExample = configuration.getMappedStatement(LogicalUserMapper.class.getName() + ".selectByExample");
+    example = new Example<>();
+    example.createCriteria()
+        .andEqualTo(User::getUserName, "user1")
+        .andGreaterThan(User::getAge, 10)
+        .andIn(User::getId, Arrays.asList(1L, 2L, 3L, 4L, 5L));
+    example.or().andLessThan(User::getAge, 5);
+    example.orderByDesc(User::getId);
+  }
+
+  @Benchmark
+  public BoundSql selectByExample() {
+    return selectByExample.getBoundSql(example);
+  }
+
+  @Benchmark
+  public BoundSql countByExample() {
+    return countByExample.getBoundSql(example);
+  }
+
+  @Benchmark
+  public BoundSql logicalSelectByExample() {
+    return logicalSelectByExample.getBoundSql(example);
+  }
+
+  @Benchmark
+  public BoundSql selectByPrimaryKey() {
+    return selectByPrimaryKey.getBoundSql(1L);
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.benchmarks;
+
+import io.mybatis.benchmarks.mapper.UserMapper;
+import io.mybatis.benchmarks.model.User;
+import io.mybatis.mapper.example.Example;
+import io.mybatis.mapper.example.ExampleWrapper;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Example 和 ExampleWrapper 的构建开销（不执行 SQL）
+ *
+ * @author liuzh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExampleBenchmark {
+  private static final List<Long> IDS = Arrays.asList(1L, 2L, 3L, 4L, 5L);
+
+  private SqlSession sqlSession;
+  private UserMapper userMapper;
+
+  @Setup
+  public void setup() {
+    sqlSession = new BenchmarkDatabase("example").getSqlSessionFactory().openSession();
+    userMapper = sqlSession.getMapper(UserMapper.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    sqlSession.close();
+  }
+
+  @Benchmark
+  public Example<User> example() {
+    Example<User> example = new Example<>();
+    example.createCriteria()
+        .andEqualTo(User::getUserName, "user1")
+        .andGreaterThan(User::getAge, 10)
+        .andIn(User::getId, IDS);
+    example.orderByDesc(User::getId);
+    return example;
+  }
+
+  @Benchmark
+  public Example<User> exampleSelectColumns() {
+    Example<User> example = example();
+    example.selectColumns(User::getId, User::getUserName, User::getAge);
+    return example;
+  }
+
+  @Benchmark
+  public ExampleWrapper<User, Long> wrapper() {
+    return userMapper.wrapper()
+        .eq(User::getUserName, "user1")
+        .gt(User::getAge, 10)
+        .in(User::getId, IDS)
+        .orderByDesc(User::getId);
+  }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.benchmarks;
+
+import io.mybatis.benchmarks.mapper.UserMapper;
+import io.mybatis.benchmarks.model.User;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * insertList 和 updateList 在不同数据量下生成 SQL 的开销（不执行 SQL）
+ *
+ * @author liuzh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListSqlBenchmark {
+  @Param({"10", "100", "10000"})
+  private int size;
+
+  private MappedStatement               insertList;
+  private MappedStatement               updateList;
+  private MapperMethod.ParamMap<Object> parameter;
+
+  @Setup
+  public void setup() {
+    Configuration configuration = new BenchmarkDatabase("list").getConfiguration();
+    insertList = configuration.getMappedStatement(UserMapper.class.getName() + ".insertList");
+    updateList = configuration.getMappedStatement(UserMapper.class.getName() + ".updateList");
+    List<User> users = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      users.add(new User((long) i, "user" + i, i % 2 == 0 ? "F" : "M", i % 100));
+    }
+    parameter = new MapperMethod.ParamMap<>();
+    parameter.put("entityList", users);
+    parameter.put("param1", users);
+  }
+
+  @Benchmark
+  public BoundSql insertList() {
+    return insertList.getBoundSql(parameter);
+  }
+
+  @Benchmark
+  public BoundSql updateList() {
+    return updateList.getBoundSql(parameter);
+  }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.benchmarks;
+
+import io.mybatis.benchmarks.mapper.LogicalUserMapper;
+import io.mybatis.benchmarks.mapper.UserMapper;
+import io.mybatis.benchmarks.model.User;
+import io.mybatis.mapper.example.Example;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于内存 H2 的端到端调用，每次调用打开新的 SqlSession，写操作执行后回滚
+ *
+ * @author liuzh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+  private SqlSessionFactory sqlSessionFactory;
+  private List<User>        users;
+
+  @Setup
+  public void setup() {
+    sqlSessionFactory = new BenchmarkDatabase("mapper").getSqlSessionFactory();
+    users = new ArrayList<>(100);
+    for (int i = 0; i < 100; i++) {
+      users.add(new User((long) (BenchmarkDatabase.ROWS + i + 1), "insert" + i, "F", i));
+    }
+  }
+
+  private static long randomId() {
+    return ThreadLocalRandom.current().nextLong(1, BenchmarkDatabase.ROWS + 1);
+  }
+
+  @Benchmark
+  public Optional<User> selectByPrimaryKey() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(UserMapper.class).selectByPrimaryKey(randomId());
+    }
+  }
+
+  @Benchmark
+  public List<User> selectByExample() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Example<User> example = new Example<>();
+      long id = randomId();
+      example.createCriteria().andBetween(User::getId, id, id + 9).andEqualTo(User::getSex, "F");
+      return sqlSession.getMapper(UserMapper.class).selectByExample(example);
+    }
+  }
+
+  @Benchmark
+  public List<User> logicalWrapperList() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      long id = randomId();
+      return sqlSession.getMapper(LogicalUserMapper.class).wrapper()
+          .between(User::getId, id, id + 9)
+          .eq(User::getSex, "F")
+          .list();
+    }
+  }
+
+  @Benchmark
+  public long countByExample() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Example<User> example = new Example<>();
+      example.createCriteria().andGreaterThan(User::getAge, 50);
+      return sqlSession.getMapper(UserMapper.class).countByExample(example);
+    }
+  }
+
+  @Benchmark
+  public int insertList100() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      int count = sqlSession.getMapper(UserMapper.class).insertList(users);
+      sqlSession.rollback();
+      return count;
+    }
+  }
+
+}
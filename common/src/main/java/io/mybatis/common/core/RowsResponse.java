@@ -36,6 +36,11 @@ public class RowsResponse<T> extends Response<RowsResponse> {
    */
   private Long total;
 
+  /**
+   * 总数是否为估算值，大表分页时总数可能来自数据库统计信息或有上限的计数
+   */
+  private Boolean estimate;
+
   public static <T> RowsResponse<T> ok(List<T> rows) {
     return ok(rows, null, null);
   }
@@ -68,6 +73,18 @@ public class RowsResponse<T> extends Response<RowsResponse> {
     return this;
   }
 
+  /**
+   * 设置总数，并标记总数是否为估算值
+   *
+   * @param total    总数
+   * @param estimate 是否为估算值
+   */
+  public RowsResponse<T> total(Long total, boolean estimate) {
+    this.total = total;
+    this.estimate = estimate;
+    return this;
+  }
+
   public List<T> getRows() {
     return rows;
   }
@@ -83,4 +100,12 @@ public class RowsResponse<T> extends Response<RowsResponse> {
   public void setTotal(Long total) {
     this.total = total;
   }
+
+  public Boolean getEstimate() {
+    return estimate;
+  }
+
+  public void setEstimate(Boolean estimate) {
+    this.estimate = estimate;
+  }
 }
@@ -69,6 +69,20 @@ public class JakartaJpaEntityColumnFactory implements EntityColumnFactory {
             entityColumn.orderBy(orderBy.value());
           }
         }
+        //序列主键，由 PooledIdInterceptor 批量分配
+        if (entityColumn.id() && field.isAnnotationPresent(GeneratedValue.class)
+            && field.getAnnotation(GeneratedValue.class).strategy() == GenerationType.SEQUENCE) {
+          SequenceGenerator generator = field.isAnnotationPresent(SequenceGenerator.class)
+              ? field.getAnnotation(SequenceGenerator.class) : entityTable.entityClass().getAnnotation(SequenceGenerator.class);
+          if (generator != null) {
+            entityColumn.setProp("id.sequence", generator.sequenceName().isEmpty() ? generator.name() : generator.sequenceName());
+            entityColumn.setProp("id.allocationSize", String.valueOf(generator.allocationSize()));
+          }
+        }
+        //乐观锁版本列
+        if (field.isAnnotationPresent(Version.class)) {
+          entityColumn.setProp("version", "true");
+        }
         //TypeHandler注解
         if(field.isAnnotationPresent(Convert.class)) {
           Convert convert = field.getAnnotation(Convert.class);
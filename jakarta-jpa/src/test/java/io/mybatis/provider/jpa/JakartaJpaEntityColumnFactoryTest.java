@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.provider.jpa;
+
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityFactory;
+import io.mybatis.provider.EntityTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jakarta.persistence.*;
+
+public class JakartaJpaEntityColumnFactoryTest {
+
+  @Table(name = "version_order")
+  public static class VersionOrder {
+    @Id
+    private Long    id;
+    @Version
+    private Integer version;
+    private String  name;
+  }
+
+  @Table(name = "seq_order")
+  public static class SeqOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @SequenceGenerator(name = "order_gen", sequenceName = "seq_order_id", allocationSize = 50)
+    private Long id;
+  }
+
+  @Table(name = "seq_item")
+  @SequenceGenerator(name = "seq_item_id")
+  public static class SeqItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+  }
+
+  @Table(name = "identity_item")
+  @SequenceGenerator(name = "identity_item_id")
+  public static class IdentityItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+  }
+
+  private static EntityColumn column(Class<?> entityClass, String property) {
+    EntityTable entityTable = EntityFactory.create(entityClass);
+    return entityTable.columns().stream().filter(c -> c.property().equals(property)).findFirst().get();
+  }
+
+  @Test
+  public void testSequence() {
+    EntityColumn id = column(SeqOrder.class, "id");
+    Assert.assertEquals("seq_order_id", id.getProp("id.sequence"));
+    Assert.assertEquals("50", id.getProp("id.allocationSize"));
+    //字段上没有 @SequenceGenerator 时使用类上的配置，没有 sequenceName 时使用 name
+    id = column(SeqItem.class, "id");
+    Assert.assertEquals("seq_item_id", id.getProp("id.sequence"));
+    Assert.assertEquals("50", id.getProp("id.allocationSize"));
+    //不是 SEQUENCE 策略时不使用序列
+    Assert.assertNull(column(IdentityItem.class, "id").getProp("id.sequence"));
+  }
+
+  @Test
+  public void testVersion() {
+    Assert.assertEquals("true", column(VersionOrder.class, "version").getProp("version"));
+    Assert.assertNull(column(VersionOrder.class, "name").getProp("version"));
+  }
+
+}
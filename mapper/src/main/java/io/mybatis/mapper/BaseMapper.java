@@ -21,6 +21,7 @@ import io.mybatis.mapper.cursor.CursorMapper;
 import io.mybatis.mapper.example.Example;
 import io.mybatis.mapper.example.ExampleMapper;
 import io.mybatis.mapper.example.ExampleWrapper;
+import io.mybatis.mapper.fn.FieldListChunks;
 import io.mybatis.mapper.fn.Fn;
 import io.mybatis.mapper.fn.FnProvider;
 import io.mybatis.provider.Caching;
@@ -76,6 +77,8 @@ public interface BaseMapper<T, I extends Serializable>
   /**
    * 根据指定字段集合查询：field in (fieldValueList)
    * <p>
+   * 值的数量超过 {@code mybatis.mapper.fieldList.chunkSize}（默认 1000）时分批执行，见 {@link FieldListChunks}
+   * <p>
    * 这个方法是个示例，你也可以使用 Java8 的默认方法实现一些通用方法
    *
    * @param field          字段
@@ -84,14 +87,34 @@ public interface BaseMapper<T, I extends Serializable>
    * @return 实体列表
    */
   default <F> List<T> selectByFieldList(Fn<T, F> field, Collection<F> fieldValueList) {
-    Example<T> example = new Example<>();
-    example.createCriteria().andIn((Fn<T, Object>) field.in(entityClass()), fieldValueList);
-    return selectByExample(example);
+    return selectByFieldList(field, fieldValueList, FieldListChunks.chunkSize());
+  }
+
+  /**
+   * 根据指定字段集合查询：field in (fieldValueList)，值的数量超过 chunkSize 时去重后分批查询，按批次顺序合并结果
+   * <p>
+   * 分批时排序只在每批内生效，合并后的结果不是全局有序的，见 {@link FieldListChunks#select}
+   *
+   * @param field          字段
+   * @param fieldValueList 字段值集合
+   * @param chunkSize      每批的数量
+   * @param <F>            字段类型
+   * @return 实体列表
+   */
+  default <F> List<T> selectByFieldList(Fn<T, F> field, Collection<F> fieldValueList, int chunkSize) {
+    Fn<T, Object> column = (Fn<T, Object>) field.in(entityClass());
+    return FieldListChunks.select(fieldValueList, chunkSize, null, chunk -> {
+      Example<T> example = new Example<>();
+      example.createCriteria().andIn(column, chunk);
+      return selectByExample(example);
+    });
   }
 
   /**
    * 根据指定字段集合删除：field in (fieldValueList)
    * <p>
+   * 值的数量超过 {@code mybatis.mapper.fieldList.chunkSize}（默认 1000）时分批执行，见 {@link FieldListChunks}
+   * <p>
    * 这个方法是个示例，你也可以使用 Java8 的默认方法实现一些通用方法
    *
    * @param field          字段
@@ -100,9 +123,25 @@ public interface BaseMapper<T, I extends Serializable>
    * @return 实体列表
    */
   default <F> int deleteByFieldList(Fn<T, F> field, Collection<F> fieldValueList) {
-    Example<T> example = new Example<>();
-    example.createCriteria().andIn((Fn<T, Object>) field.in(entityClass()), fieldValueList);
-    return deleteByExample(example);
+    return deleteByFieldList(field, fieldValueList, FieldListChunks.chunkSize());
+  }
+
+  /**
+   * 根据指定字段集合删除：field in (fieldValueList)，值的数量超过 chunkSize 时分批删除
+   *
+   * @param field          字段
+   * @param fieldValueList 字段值集合
+   * @param chunkSize      每批的数量
+   * @param <F>            字段类型
+   * @return 删除的总条数
+   */
+  default <F> int deleteByFieldList(Fn<T, F> field, Collection<F> fieldValueList, int chunkSize) {
+    Fn<T, Object> column = (Fn<T, Object>) field.in(entityClass());
+    return FieldListChunks.delete(fieldValueList, chunkSize, chunk -> {
+      Example<T> example = new Example<>();
+      example.createCriteria().andIn(column, chunk);
+      return deleteByExample(example);
+    });
   }
 
 }
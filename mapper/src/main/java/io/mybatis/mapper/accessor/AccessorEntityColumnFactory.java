@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.accessor;
+
+import io.mybatis.config.ConfigHelper;
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityColumnFactory;
+import io.mybatis.provider.EntityField;
+import io.mybatis.provider.EntityTable;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 将字段替换为 {@link AccessorEntityField} 后再交给后续的工厂处理，生成的所有列都不再通过反射读写字段
+ * <p>
+ * 默认不启用，需要配置 {@code mybatis.mapper.accessor.enabled=true}。启用后 {@code EntityField.get/set}
+ * 会优先调用 public 的 getter/setter 方法（而不是直接读写字段），getter/setter 中有额外逻辑时这些逻辑也会执行，
+ * 同时会为实体类注册 OGNL 的属性读取器（参考 {@link EntityOgnlAccessor}）
+ *
+ * @author liuzh
+ */
+public class AccessorEntityColumnFactory implements EntityColumnFactory {
+  public static final String ENABLED = "mybatis.mapper.accessor.enabled";
+
+  /**
+   * 是否启用
+   */
+  public static boolean isEnabled() {
+    return Holder.ENABLED;
+  }
+
+  /**
+   * 创建字段，启用时返回 {@link AccessorEntityField}
+   *
+   * @param entityClass 实体类
+   * @param field       字段
+   * @return 字段
+   */
+  public static EntityField field(Class<?> entityClass, Field field) {
+    return isEnabled() ? new AccessorEntityField(entityClass, field) : new EntityField(entityClass, field);
+  }
+
+  @Override
+  public Optional<List<EntityColumn>> createEntityColumn(EntityTable entityTable, EntityField field, Chain chain) {
+    if (isEnabled() && !(field instanceof AccessorEntityField)) {
+      field = new AccessorEntityField(entityTable.entityClass(), field.getField());
+    }
+    return chain.createEntityColumn(entityTable, field);
+  }
+
+  /**
+   * 最先执行
+   */
+  @Override
+  public int getOrder() {
+    return EntityColumnFactory.super.getOrder() + 1000;
+  }
+
+  static class Holder {
+    static final boolean ENABLED = ConfigHelper.getBoolean(AccessorEntityColumnFactory.ENABLED, false);
+  }
+
+}
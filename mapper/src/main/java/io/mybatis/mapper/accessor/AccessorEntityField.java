@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.accessor;
+
+import io.mybatis.provider.EntityField;
+
+import java.lang.reflect.Field;
+
+/**
+ * 通过 {@link FieldAccessor} 读写字段的 EntityField，
+ * {@code field().get(entity)} 等调用（如主键判断、主键回写）不再使用反射
+ *
+ * @author liuzh
+ */
+public class AccessorEntityField extends EntityField {
+  protected final FieldAccessor accessor;
+
+  public AccessorEntityField(Class<?> entityClass, Field field) {
+    super(entityClass, field);
+    this.accessor = FieldAccessor.of(entityClass, field);
+    EntityOgnlAccessor.register(entityClass, field.getName(), accessor);
+  }
+
+  @Override
+  public Object get(Object object) {
+    return accessor.get(object);
+  }
+
+  @Override
+  public void set(Object object, Object value) {
+    accessor.set(object, value);
+  }
+
+  public FieldAccessor getAccessor() {
+    return accessor;
+  }
+
+}
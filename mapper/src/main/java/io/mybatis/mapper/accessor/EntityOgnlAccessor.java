@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.accessor;
+
+import org.apache.ibatis.ognl.ObjectPropertyAccessor;
+import org.apache.ibatis.ognl.OgnlException;
+import org.apache.ibatis.ognl.OgnlRuntime;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OGNL 读取实体类属性时使用 {@link FieldAccessor}，
+ * 例如批量方法中 {@code <if test="entity.name != null">} 这类判断不再通过反射读取属性
+ * <p>
+ * 只处理有 public getter 方法的字段（和 OGNL 默认优先调用 getter 的行为一致），其他属性仍交给 OGNL 默认处理
+ *
+ * @author liuzh
+ */
+public class EntityOgnlAccessor extends ObjectPropertyAccessor {
+  private static final Map<Class<?>, EntityOgnlAccessor> ACCESSORS = new ConcurrentHashMap<>();
+
+  private final Map<String, FieldAccessor> accessors = new ConcurrentHashMap<>();
+
+  /**
+   * 注册实体类属性的读写器
+   *
+   * @param entityClass 实体类
+   * @param property    属性名
+   * @param accessor    读写器
+   */
+  public static void register(Class<?> entityClass, String property, FieldAccessor accessor) {
+    if (!accessor.isDirect()) {
+      return;
+    }
+    ACCESSORS.computeIfAbsent(entityClass, clazz -> {
+      EntityOgnlAccessor ognlAccessor = new EntityOgnlAccessor();
+      OgnlRuntime.setPropertyAccessor(clazz, ognlAccessor);
+      return ognlAccessor;
+    }).accessors.put(property, accessor);
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public Object getPossibleProperty(Map context, Object target, String name) throws OgnlException {
+    FieldAccessor accessor = accessors.get(name);
+    if (accessor != null) {
+      return accessor.get(target);
+    }
+    return super.getPossibleProperty(context, target, name);
+  }
+
+}
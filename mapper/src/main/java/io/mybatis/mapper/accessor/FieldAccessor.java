@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.accessor;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 字段读写器，避免每次通过反射读写字段
+ * <p>
+ * 存在 public 的 getter/setter 方法时，通过 {@link LambdaMetafactory} 生成直接调用这些方法的函数，
+ * 和 MyBatis 绑定参数、OGNL 读取属性时的行为一致；否则通过字段的 {@link MethodHandle} 读写。
+ *
+ * @author liuzh
+ */
+public class FieldAccessor {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  protected final Field                      field;
+  protected final boolean                    direct;
+  protected final Function<Object, Object>   getter;
+  protected final BiConsumer<Object, Object> setter;
+
+  protected FieldAccessor(Field field, Function<Object, Object> getter, BiConsumer<Object, Object> setter, boolean direct) {
+    this.field = field;
+    this.getter = getter;
+    this.setter = setter;
+    this.direct = direct;
+  }
+
+  /**
+   * 创建字段读写器
+   *
+   * @param entityClass 实体类
+   * @param field       字段
+   * @return 字段读写器
+   */
+  public static FieldAccessor of(Class<?> entityClass, Field field) {
+    Function<Object, Object> getter = null;
+    BiConsumer<Object, Object> setter = null;
+    if (visible(entityClass)) {
+      Method getterMethod = getterMethod(entityClass, field);
+      Method setterMethod = setterMethod(entityClass, field);
+      try {
+        getter = getterMethod != null ? lambdaGetter(getterMethod) : null;
+        setter = setterMethod != null ? lambdaSetter(setterMethod) : null;
+      } catch (Throwable ignore) {
+        getter = null;
+        setter = null;
+      }
+    }
+    if (getter != null && setter != null) {
+      return new FieldAccessor(field, getter, setter, true);
+    }
+    return new FieldAccessor(field, handleGetter(field), handleSetter(field), false);
+  }
+
+  /**
+   * 生成的函数定义在当前类加载器中，实体类必须对当前类加载器可见
+   */
+  protected static boolean visible(Class<?> entityClass) {
+    if (!Modifier.isPublic(entityClass.getModifiers())) {
+      return false;
+    }
+    try {
+      return Class.forName(entityClass.getName(), false, FieldAccessor.class.getClassLoader()) == entityClass;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  protected static Method getterMethod(Class<?> entityClass, Field field) {
+    String property = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+    Method method = publicMethod(entityClass, "get" + property);
+    if (method == null && field.getType() == boolean.class) {
+      method = publicMethod(entityClass, "is" + property);
+    }
+    return method != null && method.getReturnType() == field.getType() ? method : null;
+  }
+
+  protected static Method setterMethod(Class<?> entityClass, Field field) {
+    String property = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+    return publicMethod(entityClass, "set" + property, field.getType());
+  }
+
+  protected static Method publicMethod(Class<?> entityClass, String name, Class<?>... parameterTypes) {
+    try {
+      Method method = entityClass.getMethod(name, parameterTypes);
+      if (Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+        return null;
+      }
+      return method;
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  protected static Function<Object, Object> lambdaGetter(Method method) throws Throwable {
+    MethodHandle handle = LOOKUP.unreflect(method);
+    CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply",
+        MethodType.methodType(Function.class),
+        MethodType.methodType(Object.class, Object.class),
+        handle,
+        MethodType.methodType(MethodType.methodType(method.getReturnType()).wrap().returnType(), method.getDeclaringClass()));
+    return (Function<Object, Object>) callSite.getTarget().invokeExact();
+  }
+
+  @SuppressWarnings("unchecked")
+  protected static BiConsumer<Object, Object> lambdaSetter(Method method) throws Throwable {
+    MethodHandle handle = LOOKUP.unreflect(method);
+    Class<?> parameterType = MethodType.methodType(method.getParameterTypes()[0]).wrap().returnType();
+    CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept",
+        MethodType.methodType(BiConsumer.class),
+        MethodType.methodType(void.class, Object.class, Object.class),
+        handle,
+        MethodType.methodType(void.class, method.getDeclaringClass(), parameterType));
+    return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+  }
+
+  protected static Function<Object, Object> handleGetter(Field field) {
+    MethodHandle handle;
+    try {
+      field.setAccessible(true);
+      handle = LOOKUP.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+    } catch (IllegalAccessException | RuntimeException e) {
+      return target -> {
+        try {
+          return field.get(target);
+        } catch (IllegalAccessException ex) {
+          throw new RuntimeException("Error getting field value by reflection", ex);
+        }
+      };
+    }
+    return target -> {
+      try {
+        return (Object) handle.invokeExact(target);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new RuntimeException("Error getting field value", e);
+      }
+    };
+  }
+
+  protected static BiConsumer<Object, Object> handleSetter(Field field) {
+    MethodHandle handle;
+    try {
+      field.setAccessible(true);
+      handle = LOOKUP.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+    } catch (IllegalAccessException | RuntimeException e) {
+      return (target, value) -> {
+        try {
+          field.set(target, value);
+        } catch (IllegalAccessException ex) {
+          throw new RuntimeException("Error setting field value by reflection", ex);
+        }
+      };
+    }
+    return (target, value) -> {
+      try {
+        handle.invokeExact(target, value);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new RuntimeException("Error setting field value", e);
+      }
+    };
+  }
+
+  /**
+   * 读取字段值
+   *
+   * @param target 实体对象
+   * @return 字段值
+   */
+  public Object get(Object target) {
+    return getter.apply(target);
+  }
+
+  /**
+   * 设置字段值
+   *
+   * @param target 实体对象
+   * @param value  字段值
+   */
+  public void set(Object target, Object value) {
+    setter.accept(target, value);
+  }
+
+  /**
+   * 是否直接调用 getter/setter 方法
+   */
+  public boolean isDirect() {
+    return direct;
+  }
+
+  public Field getField() {
+    return field;
+  }
+
+}
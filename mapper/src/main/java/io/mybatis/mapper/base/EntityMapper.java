@@ -132,6 +132,16 @@ public interface EntityMapper<T, I> extends EntityInfoMapper<T> {
   @SelectProvider(type = EntityProvider.class, method = "selectCount")
   long selectCount(T entity);
 
+  /**
+   * 根据实体字段条件判断是否存在数据，找到第一条数据后即停止，代替 {@code selectCount(entity) > 0}
+   *
+   * @param entity 实体类
+   * @return 存在时返回 true
+   */
+  @Lang(Caching.class)
+  @SelectProvider(type = EntityProvider.class, method = "exists")
+  boolean exists(T entity);
+
   /* 下面的方法不需要额外的实现，算是默认方法的示例，不直接提供此类方法 */
   /*  *//**
    * 根据实体字段条件分页查询
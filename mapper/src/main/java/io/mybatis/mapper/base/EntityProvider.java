@@ -16,6 +16,8 @@
 
 package io.mybatis.mapper.base;
 
+import io.mybatis.mapper.example.LimitDialect;
+import io.mybatis.mapper.version.OptimisticLock;
 import io.mybatis.provider.EntityColumn;
 import io.mybatis.provider.EntityTable;
 import io.mybatis.provider.SqlScript;
@@ -117,9 +119,13 @@ public class EntityProvider {
     return SqlScript.caching(providerContext, new SqlScript() {
       @Override
       public String getSql(EntityTable entity) {
+        OptimisticLock.register(providerContext, entity);
         return "UPDATE " + entity.tableName()
-            + " SET " + entity.updateColumns().stream().map(EntityColumn::columnEqualsProperty).collect(Collectors.joining(","))
-            + where(() -> entity.idColumns().stream().map(EntityColumn::columnEqualsProperty).collect(Collectors.joining(" AND ")));
+            + " SET " + entity.updateColumns().stream().map(column ->
+            OptimisticLock.isVersion(column) ? OptimisticLock.increase(column) : column.columnEqualsProperty()
+        ).collect(Collectors.joining(","))
+            + where(() -> entity.idColumns().stream().map(EntityColumn::columnEqualsProperty).collect(Collectors.joining(" AND "))
+            + OptimisticLock.condition(entity, ""));
       }
     });
   }
@@ -134,12 +140,15 @@ public class EntityProvider {
     return SqlScript.caching(providerContext, new SqlScript() {
       @Override
       public String getSql(EntityTable entity) {
+        OptimisticLock.register(providerContext, entity);
         return "UPDATE " + entity.tableName()
             + set(() ->
             entity.updateColumns().stream().map(column ->
-                ifTest(column.notNullTest(), () -> column.columnEqualsProperty() + ",")
+                OptimisticLock.isVersion(column) ? OptimisticLock.increase(column) + ","
+                    : ifTest(column.notNullTest(), () -> column.columnEqualsProperty() + ",")
             ).collect(Collectors.joining(LF)))
-            + where(() -> entity.idColumns().stream().map(EntityColumn::columnEqualsProperty).collect(Collectors.joining(" AND ")));
+            + where(() -> entity.idColumns().stream().map(EntityColumn::columnEqualsProperty).collect(Collectors.joining(" AND "))
+            + OptimisticLock.condition(entity, ""));
       }
     });
   }
@@ -207,4 +216,26 @@ public class EntityProvider {
     });
   }
 
+  /**
+   * 根据实体字段条件判断是否存在数据，只读取第一条匹配的数据，返回 0 或 1
+   *
+   * @param providerContext 上下文
+   * @return cacheKey
+   */
+  public static String exists(ProviderContext providerContext) {
+    return SqlScript.caching(providerContext, new SqlScript() {
+      @Override
+      public String getSql(EntityTable entity) {
+        return "SELECT COUNT(*) FROM ("
+            + LimitDialect.current().limit("SELECT 1 AS one FROM " + entity.tableName() + LF
+            + ifParameterNotNull(() ->
+            where(() ->
+                entity.whereColumns().stream().map(column ->
+                    ifTest(column.notNullTest(), () -> "AND " + column.columnEqualsProperty())
+                ).collect(Collectors.joining(LF)))
+        ), "1")
+            + ") t_exists";
+      }
+    });
+  }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.example;
+
+import io.mybatis.mapper.fn.Fn;
+
+import java.util.Locale;
+
+/**
+ * 聚合查询的列，如 {@code SUM(column) AS alias}，配合 {@link ExampleWrapper#aggregate(Aggregate[])} 使用
+ * <p>
+ * 默认别名为函数名加属性名，例如 {@code sum(User::getAge)} 的别名为 sumAge，{@code count()} 的别名为 count
+ *
+ * @param <T> 实体类类型
+ * @author liuzh
+ */
+public class Aggregate<T> {
+  private final String        function;
+  private final Fn<T, Object> fn;
+  private final boolean       distinct;
+  private       String        alias;
+
+  protected Aggregate(String function, Fn<T, Object> fn, boolean distinct) {
+    this.function = function;
+    this.fn = fn;
+    this.distinct = distinct;
+  }
+
+  public static <T> Aggregate<T> sum(Fn<T, Object> fn) {
+    return new Aggregate<>("SUM", fn, false);
+  }
+
+  public static <T> Aggregate<T> avg(Fn<T, Object> fn) {
+    return new Aggregate<>("AVG", fn, false);
+  }
+
+  public static <T> Aggregate<T> min(Fn<T, Object> fn) {
+    return new Aggregate<>("MIN", fn, false);
+  }
+
+  public static <T> Aggregate<T> max(Fn<T, Object> fn) {
+    return new Aggregate<>("MAX", fn, false);
+  }
+
+  public static <T> Aggregate<T> count() {
+    return new Aggregate<>("COUNT", null, false);
+  }
+
+  public static <T> Aggregate<T> count(Fn<T, Object> fn) {
+    return new Aggregate<>("COUNT", fn, false);
+  }
+
+  public static <T> Aggregate<T> countDistinct(Fn<T, Object> fn) {
+    return new Aggregate<>("COUNT", fn, true);
+  }
+
+  /**
+   * 设置别名，结果中使用该别名作为 key
+   *
+   * @param alias 别名
+   */
+  public Aggregate<T> as(String alias) {
+    this.alias = alias;
+    return this;
+  }
+
+  /**
+   * 聚合的字段，{@code count()} 时为 null
+   */
+  public Fn<T, Object> getFn() {
+    return fn;
+  }
+
+  /**
+   * 获取别名
+   */
+  public String alias() {
+    if (alias != null) {
+      return alias;
+    }
+    String name = function.toLowerCase(Locale.ROOT) + (distinct ? "Distinct" : "");
+    if (fn == null) {
+      return name;
+    }
+    String property = fn.toEntityColumn().property();
+    return name + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+  }
+
+  /**
+   * 聚合表达式，不带别名，可以用于 having 条件
+   */
+  public String expression() {
+    return function + "(" + (distinct ? "DISTINCT " : "") + (fn == null ? "*" : fn.toColumn()) + ")";
+  }
+
+  @Override
+  public String toString() {
+    return expression() + " AS " + alias();
+  }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.example;
+
+import io.mybatis.provider.Caching;
+import org.apache.ibatis.annotations.Lang;
+import org.apache.ibatis.annotations.SelectProvider;
+
+/**
+ * 读取数据库统计信息中的估算行数，需要通过 {@link TableStatistics#STATISTICS} 配置统计信息的来源，
+ * Mapper 继承该接口后 {@link ExampleWrapper#countEstimate(long)} 才会使用统计信息
+ *
+ * @param <T> 实体类类型
+ * @author liuzh
+ */
+public interface EstimateCountMapper<T> {
+
+  /**
+   * 从数据库统计信息中读取表的估算行数，没有配置统计信息的来源时执行会抛出异常
+   *
+   * @return 估算行数，没有统计信息时可能为 null 或负数
+   */
+  @Lang(Caching.class)
+  @SelectProvider(type = ExampleProvider.class, method = "estimateCount")
+  Long estimateCount();
+
+}
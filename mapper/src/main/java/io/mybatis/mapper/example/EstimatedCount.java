@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.example;
+
+/**
+ * 计数结果，{@link #isEstimate()} 为 true 时 {@link #getValue()} 不是精确值
+ *
+ * @author liuzh
+ */
+public class EstimatedCount {
+  private final long    value;
+  private final boolean estimate;
+
+  public EstimatedCount(long value, boolean estimate) {
+    this.value = value;
+    this.estimate = estimate;
+  }
+
+  /**
+   * 精确值
+   */
+  public static EstimatedCount exact(long value) {
+    return new EstimatedCount(value, false);
+  }
+
+  /**
+   * 估算值，来自数据库的统计信息，或者达到计数上限时的下限值
+   */
+  public static EstimatedCount estimate(long value) {
+    return new EstimatedCount(value, true);
+  }
+
+  public long getValue() {
+    return value;
+  }
+
+  public boolean isEstimate() {
+    return estimate;
+  }
+
+  @Override
+  public String toString() {
+    return estimate ? "~" + value : String.valueOf(value);
+  }
+}
@@ -67,6 +67,26 @@ public class Example<T> {
    * 设置 update 时的 set 字段
    */
   protected List<Criterion>   setValues;
+  /**
+   * 分组列
+   */
+  protected String            groupByClause;
+  /**
+   * 聚合查询时的分组查询列，使用属性名作为别名
+   */
+  protected String            groupBySelectColumns;
+  /**
+   * 分组列对应的属性名
+   */
+  protected List<String>      groupByProperties;
+  /**
+   * 聚合查询的查询列
+   */
+  protected String            aggregateColumns;
+  /**
+   * 分组后的 having 条件
+   */
+  protected List<Criterion>   havingCriteria;
 
   /**
    * 默认构造方法，不允许Example查询条件为空，不能操作全库
@@ -74,6 +94,8 @@ public class Example<T> {
   public Example() {
     oredCriteria = new ArrayList<>();
     setValues = new ArrayList<>();
+    groupByProperties = new ArrayList<>();
+    havingCriteria = new ArrayList<>();
   }
 
   /**
@@ -147,6 +169,11 @@ public class Example<T> {
     simpleSelectColumns = null;
     startSql = null;
     endSql = null;
+    groupByClause = null;
+    groupBySelectColumns = null;
+    groupByProperties.clear();
+    aggregateColumns = null;
+    havingCriteria.clear();
   }
 
   /**
@@ -170,7 +197,7 @@ public class Example<T> {
    *
    * @param columns 查询列
    */
-  private void selectColumns(List<EntityColumn> columns) {
+  void selectColumns(List<EntityColumn> columns) {
     StringBuilder sb = new StringBuilder(columns.size() * 16);
     StringBuilder simple = new StringBuilder(columns.size() * 16);
     for (EntityColumn entityColumn : columns) {
@@ -480,6 +507,109 @@ public class Example<T> {
     return this;
   }
 
+  /**
+   * 设置分组列，多次调用会覆盖
+   *
+   * @param fns 分组字段
+   */
+  @SafeVarargs
+  public final Example<T> groupBy(Fn<T, Object>... fns) {
+    groupByProperties.clear();
+    if (fns == null || fns.length == 0) {
+      groupByClause = null;
+      groupBySelectColumns = null;
+      return this;
+    }
+    StringBuilder sb = new StringBuilder(fns.length * 16);
+    StringBuilder select = new StringBuilder(fns.length * 32);
+    for (Fn<T, Object> fn : fns) {
+      EntityColumn column = fn.toEntityColumn();
+      if (sb.length() != 0) {
+        sb.append(", ");
+        select.append(", ");
+      }
+      sb.append(column.column());
+      select.append(column.column());
+      if (!column.column().equals(column.property())) {
+        select.append(" AS ").append(column.property());
+      }
+      groupByProperties.add(column.property());
+    }
+    groupByClause = sb.toString();
+    groupBySelectColumns = select.toString();
+    return this;
+  }
+
+  /**
+   * 获取分组列
+   */
+  public String getGroupByClause() {
+    return groupByClause;
+  }
+
+  /**
+   * 获取分组列对应的属性名
+   */
+  public List<String> getGroupByProperties() {
+    return groupByProperties;
+  }
+
+  /**
+   * 添加 having 条件，多个条件之间使用 AND 连接，注意防止 SQL 注入
+   *
+   * @param condition 完整的条件，如 "COUNT(*) > 1"
+   */
+  public Example<T> having(String condition) {
+    havingCriteria.add(new Criterion(condition));
+    return this;
+  }
+
+  /**
+   * 添加 having 条件，多个条件之间使用 AND 连接，注意防止 SQL 注入
+   *
+   * @param condition 不包含值的条件，如 "SUM(age) >"
+   * @param value     值
+   */
+  public Example<T> having(String condition, Object value) {
+    havingCriteria.add(new Criterion(condition, value));
+    return this;
+  }
+
+  /**
+   * 获取 having 条件
+   */
+  public List<Criterion> getHavingCriteria() {
+    return havingCriteria;
+  }
+
+  /**
+   * 设置聚合查询的查询列，包含所有分组列（别名为属性名）和聚合列
+   *
+   * @param aggregates 聚合列
+   */
+  @SafeVarargs
+  public final Example<T> aggregate(Aggregate<T>... aggregates) {
+    StringBuilder sb = new StringBuilder();
+    if (groupBySelectColumns != null) {
+      sb.append(groupBySelectColumns);
+    }
+    for (Aggregate<T> aggregate : aggregates) {
+      if (sb.length() != 0) {
+        sb.append(", ");
+      }
+      sb.append(aggregate);
+    }
+    aggregateColumns = sb.toString();
+    return this;
+  }
+
+  /**
+   * 获取聚合查询的查询列
+   */
+  public String getAggregateColumns() {
+    return aggregateColumns;
+  }
+
   /**
    * 排序方式
    */
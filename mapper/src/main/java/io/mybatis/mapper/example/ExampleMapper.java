@@ -18,9 +18,11 @@ package io.mybatis.mapper.example;
 
 import io.mybatis.provider.Caching;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -113,6 +115,41 @@ public interface ExampleMapper<T, E> {
   @SelectProvider(type = ExampleProvider.class, method = "countByExample")
   long countByExample(E example);
 
+  /**
+   * 根据 Example 条件判断是否存在数据，找到第一条数据后即停止，代替 {@code countByExample(example) > 0}
+   *
+   * @param example 条件
+   * @return 存在时返回 true
+   */
+  @Lang(Caching.class)
+  @SelectProvider(type = ExampleProvider.class, method = "existsByExample")
+  boolean existsByExample(E example);
+
+  /**
+   * 根据 Example 条件计数，最多数到 cap + 1 为止，用于只需要显示 "n+" 的分页等场景，耗时不会随符合条件的数据量增长
+   * <p>
+   * 返回 cap + 1 表示超过了 cap 条，需要饱和到 cap 的结果时使用 {@link ExampleWrapper#count(long)}。
+   * 和 {@link #countByExample} 一样处理 distinct 和查询列
+   *
+   * @param example 条件
+   * @param cap     计数上限
+   * @return 不超过 cap + 1 的计数
+   */
+  @Lang(Caching.class)
+  @SelectProvider(type = ExampleProvider.class, method = "countByExampleCapped")
+  long countByExampleCapped(@Param("example") E example, @Param("cap") long cap);
+
+  /**
+   * 根据 Example 条件进行聚合查询，查询列、分组和 having 条件通过 {@link Example#aggregate(Aggregate[])}、
+   * {@link Example#groupBy(io.mybatis.mapper.fn.Fn[])} 和 {@link Example#having(String, Object)} 设置
+   *
+   * @param example 条件
+   * @return 每组一个 Map，key 为查询列的别名
+   */
+  @Lang(Caching.class)
+  @SelectProvider(type = ExampleProvider.class, method = "selectAggregateByExample")
+  List<Map<String, Object>> selectAggregateByExample(E example);
+
   /**
    * 根据 Example 条件批量查询
    *
@@ -122,4 +159,12 @@ public interface ExampleMapper<T, E> {
    */
   List<T> selectByExample(E example, RowBounds rowBounds);
 
+  /**
+   * 根据 Example 条件查询，通过 ResultHandler 逐条处理结果，不在内存中保留实体列表
+   *
+   * @param example       条件
+   * @param resultHandler 结果处理器
+   */
+  void selectByExample(E example, ResultHandler<T> resultHandler);
+
 }
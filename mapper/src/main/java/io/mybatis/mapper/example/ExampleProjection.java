@@ -0,0 +1,366 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.example;
+
+import io.mybatis.mapper.BaseMapper;
+import io.mybatis.mapper.fn.Fn;
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityTable;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 按 Example 条件查询指定的列，映射为投影类型（DTO、record 或接口）
+ * <p>
+ * 查询通过 Mapper 自身的 {@link ExampleMapper#selectByExample(Object, org.apache.ibatis.session.ResultHandler)} 执行，
+ * 只查询投影需要的列，每一行在 ResultHandler 中立即转换为投影对象，结果列表中只保留投影对象。
+ * 转换方式根据投影类型生成，按实体类、投影类型和查询列缓存：
+ * <ul>
+ *   <li>record：通过构造方法按顺序传入记录的各个组件</li>
+ *   <li>接口：结果放到 Map 中，通过动态代理按 getter 方法读取</li>
+ *   <li>有无参构造方法的类：通过 setter 设置属性</li>
+ *   <li>其他类：通过参数个数和查询列数相同的构造方法按顺序传入</li>
+ * </ul>
+ * 投影的属性类型必须能够接收实体类中对应字段的类型，不会修改 MyBatis 的 Configuration
+ *
+ * @author liuzh
+ */
+public class ExampleProjection {
+  private static final Map<List<Object>, Function<Object, ?>> PROJECTORS = new ConcurrentHashMap<>();
+
+  /**
+   * 按 Example 条件查询并映射为投影类型，查询时使用 Example 的副本，不会修改传入的 Example
+   *
+   * @param baseMapper 通用 Mapper
+   * @param example    查询条件
+   * @param projection 投影类型
+   * @param fns        查询列，为空时使用投影类型中和实体类同名的属性
+   * @param <T>        实体类类型
+   * @param <R>        投影类型
+   * @return 投影结果
+   */
+  public static <T, R> List<R> select(BaseMapper<T, ?> baseMapper, Example<T> example,
+                                      Class<R> projection, Fn<T, Object>[] fns) {
+    EntityTable entityTable = baseMapper.entityTable();
+    List<EntityColumn> columns = fns != null && fns.length > 0
+        ? Arrays.stream(fns).map(Fn::toEntityColumn).collect(Collectors.toList())
+        : columns(entityTable, projection);
+    Function<Object, R> projector = projector(entityTable, projection, columns);
+    Example<T> query = copy(example);
+    query.selectColumns(columns);
+    List<R> result = new ArrayList<>();
+    baseMapper.selectByExample(query, context -> result.add(projector.apply(context.getResultObject())));
+    return result;
+  }
+
+  /**
+   * 复制查询条件，条件集合等和原对象共享，只用于修改查询列
+   */
+  private static <T> Example<T> copy(Example<T> example) {
+    Example<T> copy = new Example<>();
+    copy.orderByClause = example.orderByClause;
+    copy.distinct = example.distinct;
+    copy.selectColumns = example.selectColumns;
+    copy.simpleSelectColumns = example.simpleSelectColumns;
+    copy.startSql = example.startSql;
+    copy.endSql = example.endSql;
+    copy.oredCriteria = example.oredCriteria;
+    copy.setValues = example.setValues;
+    copy.groupByClause = example.groupByClause;
+    copy.groupBySelectColumns = example.groupBySelectColumns;
+    copy.groupByProperties = example.groupByProperties;
+    copy.aggregateColumns = example.aggregateColumns;
+    copy.havingCriteria = example.havingCriteria;
+    return copy;
+  }
+
+  /**
+   * 获取投影类型中和实体类同名的属性对应的列
+   *
+   * @param entityTable 实体类信息
+   * @param projection  投影类型
+   * @return 查询列
+   */
+  static List<EntityColumn> columns(EntityTable entityTable, Class<?> projection) {
+    Map<String, EntityColumn> columnMap = entityTable.selectColumns().stream()
+        .collect(Collectors.toMap(EntityColumn::property, column -> column, (c1, c2) -> c1, LinkedHashMap::new));
+    List<String> properties;
+    Constructor<?> constructor;
+    if (Records.isRecord(projection)) {
+      properties = Records.componentNames(projection);
+    } else if (projection.isInterface()) {
+      properties = columnMap.keySet().stream().filter(p -> getter(projection, p) != null).collect(Collectors.toList());
+    } else if ((constructor = constructor(projection, -1)) != null) {
+      properties = new ArrayList<>();
+      for (Parameter parameter : constructor.getParameters()) {
+        if (!parameter.isNamePresent()) {
+          throw new IllegalArgumentException(projection.getName()
+              + " has no default constructor and is not compiled with -parameters, the columns must be specified");
+        }
+        properties.add(parameter.getName());
+      }
+    } else {
+      MetaClass metaClass = MetaClass.forClass(projection, new DefaultReflectorFactory());
+      properties = columnMap.keySet().stream().filter(metaClass::hasSetter).collect(Collectors.toList());
+    }
+    List<EntityColumn> columns = new ArrayList<>(properties.size());
+    for (String property : properties) {
+      EntityColumn column = columnMap.get(property);
+      if (column == null) {
+        throw new IllegalArgumentException("Property " + property + " of " + projection.getName()
+            + " does not match any column of " + entityTable.entityClass().getName());
+      }
+      columns.add(column);
+    }
+    if (columns.isEmpty()) {
+      throw new IllegalArgumentException(projection.getName() + " has no property matching the columns of "
+          + entityTable.entityClass().getName());
+    }
+    return columns;
+  }
+
+  /**
+   * 获取实体到投影的转换方法，不存在时根据投影类型生成
+   *
+   * @param entityTable 实体类信息
+   * @param projection  投影类型
+   * @param columns     查询列
+   * @return 转换方法
+   */
+  @SuppressWarnings("unchecked")
+  static <R> Function<Object, R> projector(EntityTable entityTable, Class<R> projection, List<EntityColumn> columns) {
+    List<Object> key = Arrays.asList(entityTable.entityClass(), projection,
+        columns.stream().map(EntityColumn::property).collect(Collectors.toList()));
+    return (Function<Object, R>) PROJECTORS.computeIfAbsent(key, k -> createProjector(entityTable, projection, columns));
+  }
+
+  private static <R> Function<Object, R> createProjector(EntityTable entityTable, Class<R> projection, List<EntityColumn> columns) {
+    if (Records.isRecord(projection) || (!projection.isInterface() && constructor(projection, -1) != null)) {
+      Constructor<?> constructor;
+      try {
+        constructor = Records.isRecord(projection)
+            ? projection.getDeclaredConstructor(Records.componentTypes(projection)) : constructor(projection, columns.size());
+      } catch (NoSuchMethodException e) {
+        constructor = null;
+      }
+      if (constructor == null || constructor.getParameterCount() != columns.size()) {
+        throw new IllegalArgumentException(projection.getName() + " has no constructor with " + columns.size() + " parameters");
+      }
+      Class<?>[] parameterTypes = constructor.getParameterTypes();
+      for (int i = 0; i < columns.size(); i++) {
+        checkType(entityTable, projection, columns.get(i), parameterTypes[i]);
+      }
+      constructor.setAccessible(true);
+      Constructor<?> projectionConstructor = constructor;
+      return entity -> {
+        Object[] args = new Object[columns.size()];
+        for (int i = 0; i < args.length; i++) {
+          args[i] = value(columns.get(i), entity, parameterTypes[i]);
+        }
+        try {
+          return projection.cast(projectionConstructor.newInstance(args));
+        } catch (ReflectiveOperationException e) {
+          throw new IllegalStateException("Failed to create " + projection.getName(), e);
+        }
+      };
+    } else if (projection.isInterface()) {
+      for (EntityColumn column : columns) {
+        Method getter = getter(projection, column.property());
+        if (getter != null) {
+          checkType(entityTable, projection, column, getter.getReturnType());
+        }
+      }
+      return entity -> {
+        Map<String, Object> row = new HashMap<>();
+        for (EntityColumn column : columns) {
+          row.put(column.property(), column.field().get(entity));
+        }
+        return proxy(projection, row);
+      };
+    }
+    MetaClass metaClass = MetaClass.forClass(projection, new DefaultReflectorFactory());
+    for (EntityColumn column : columns) {
+      if (!metaClass.hasSetter(column.property())) {
+        throw new IllegalArgumentException(projection.getName() + " has no setter for property " + column.property());
+      }
+      checkType(entityTable, projection, column, metaClass.getSetterType(column.property()));
+    }
+    return entity -> {
+      R target;
+      try {
+        Constructor<R> constructor = projection.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        target = constructor.newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Failed to create " + projection.getName(), e);
+      }
+      MetaObject metaObject = SystemMetaObject.forObject(target);
+      for (EntityColumn column : columns) {
+        Object value = column.field().get(entity);
+        if (value != null) {
+          metaObject.setValue(column.property(), value);
+        }
+      }
+      return target;
+    };
+  }
+
+  /**
+   * 投影的属性类型必须能够接收实体类中对应字段的值
+   */
+  private static void checkType(EntityTable entityTable, Class<?> projection, EntityColumn column, Class<?> type) {
+    Class<?> fieldType = column.field().getType();
+    if (!wrap(type).isAssignableFrom(wrap(fieldType))) {
+      throw new IllegalArgumentException("Property " + column.property() + " of " + projection.getName() + " is " + type.getName()
+          + ", which cannot accept " + fieldType.getName() + " of " + entityTable.entityClass().getName());
+    }
+  }
+
+  private static Object value(EntityColumn column, Object entity, Class<?> type) {
+    Object value = column.field().get(entity);
+    if (value == null && type.isPrimitive()) {
+      return Array.get(Array.newInstance(type, 1), 0);
+    }
+    return value;
+  }
+
+  private static Class<?> wrap(Class<?> type) {
+    return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0).getClass() : type;
+  }
+
+  /**
+   * 没有无参构造方法时，获取参数个数为 parameterCount 的构造方法，parameterCount 小于 0 时返回任意一个
+   */
+  private static Constructor<?> constructor(Class<?> projection, int parameterCount) {
+    Constructor<?>[] constructors = projection.getDeclaredConstructors();
+    Constructor<?> matched = null;
+    for (Constructor<?> constructor : constructors) {
+      if (constructor.getParameterCount() == 0) {
+        return null;
+      }
+      if (matched == null && (parameterCount < 0 || constructor.getParameterCount() == parameterCount)) {
+        matched = constructor;
+      }
+    }
+    return matched;
+  }
+
+  private static Method getter(Class<?> projection, String property) {
+    String name = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+    for (String prefix : new String[]{"get", "is"}) {
+      try {
+        Method method = projection.getMethod(prefix + name);
+        if (!method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+          return method;
+        }
+      } catch (NoSuchMethodException ignore) {
+        //继续查找
+      }
+    }
+    return null;
+  }
+
+  private static <R> R proxy(Class<R> projection, Map<String, Object> row) {
+    return projection.cast(Proxy.newProxyInstance(projection.getClassLoader(), new Class<?>[]{projection}, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "toString":
+          return projection.getSimpleName() + row;
+        case "hashCode":
+          return row.hashCode();
+        case "equals":
+          return args[0] != null && Proxy.isProxyClass(args[0].getClass())
+              && Proxy.getInvocationHandler(args[0]).equals(Proxy.getInvocationHandler(proxy));
+        default:
+          break;
+      }
+      String name = method.getName();
+      String property = name.startsWith("get") ? name.substring(3) : name.startsWith("is") ? name.substring(2) : null;
+      if (property == null || property.isEmpty() || method.getParameterCount() > 0) {
+        throw new UnsupportedOperationException(method.toString());
+      }
+      Object value = row.get(Character.toLowerCase(property.charAt(0)) + property.substring(1));
+      if (value == null && method.getReturnType().isPrimitive()) {
+        return Array.get(Array.newInstance(method.getReturnType(), 1), 0);
+      }
+      return value;
+    }));
+  }
+
+  /**
+   * 通过反射支持 record，兼容 Java 8 编译
+   */
+  static class Records {
+    private static final Method IS_RECORD;
+    private static final Method GET_RECORD_COMPONENTS;
+    private static final Method GET_NAME;
+    private static final Method GET_TYPE;
+
+    static {
+      Method isRecord = null, getRecordComponents = null, getName = null, getType = null;
+      try {
+        isRecord = Class.class.getMethod("isRecord");
+        getRecordComponents = Class.class.getMethod("getRecordComponents");
+        Class<?> componentClass = getRecordComponents.getReturnType().getComponentType();
+        getName = componentClass.getMethod("getName");
+        getType = componentClass.getMethod("getType");
+      } catch (NoSuchMethodException ignore) {
+        //Java 16 之前不支持 record
+      }
+      IS_RECORD = isRecord;
+      GET_RECORD_COMPONENTS = getRecordComponents;
+      GET_NAME = getName;
+      GET_TYPE = getType;
+    }
+
+    static boolean isRecord(Class<?> type) {
+      try {
+        return IS_RECORD != null && (Boolean) IS_RECORD.invoke(type);
+      } catch (ReflectiveOperationException e) {
+        return false;
+      }
+    }
+
+    static List<String> componentNames(Class<?> type) {
+      return Arrays.stream(components(type)).map(c -> (String) invoke(GET_NAME, c)).collect(Collectors.toList());
+    }
+
+    static Class<?>[] componentTypes(Class<?> type) {
+      return Arrays.stream(components(type)).map(c -> (Class<?>) invoke(GET_TYPE, c)).toArray(Class<?>[]::new);
+    }
+
+    private static Object[] components(Class<?> type) {
+      return (Object[]) invoke(GET_RECORD_COMPONENTS, type);
+    }
+
+    private static Object invoke(Method method, Object target) {
+      try {
+        return method.invoke(target);
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+}
@@ -92,6 +92,19 @@ public class ExampleProvider {
       "  </foreach>\n" +
       "</where>\n";
 
+  /**
+   * example 结构的 having 条件，用于聚合查询
+   */
+  public static final String EXAMPLE_HAVING_CLAUSE = "<if test=\"havingCriteria != null and havingCriteria.size() > 0\">\n" +
+      "  <trim prefix=\" HAVING \" prefixOverrides=\"AND\">\n" +
+      "    <foreach collection=\"havingCriteria\" item=\"criterion\">\n" +
+      "      <choose>\n" +
+               EXAMPLE_WHERE_CLAUSE_INNER_WHEN +
+      "      </choose>\n" +
+      "    </foreach>\n" +
+      "  </trim>\n" +
+      "</if>\n";
+
   /**
    * example 结构的动态 SQL 查询条件，用于多个参数时，Example 对应 @Param("example")
    */
@@ -263,4 +276,118 @@ public class ExampleProvider {
     });
   }
 
+  /**
+   * 根据 Example 条件进行聚合查询，查询列为 {@link Example#aggregate(Aggregate[])} 设置的分组列和聚合列
+   *
+   * @param providerContext 上下文
+   * @return cacheKey
+   */
+  public static String selectAggregateByExample(ProviderContext providerContext) {
+    return SqlScript.caching(providerContext, new SqlScript() {
+      @Override
+      public String getSql(EntityTable entity) {
+        return ifTest("startSql != null and startSql != ''", () -> "${startSql}")
+            + "SELECT ${aggregateColumns} FROM "
+            + entity.tableName()
+            + ifParameterNotNull(() -> EXAMPLE_WHERE_CLAUSE)
+            + ifTest("groupByClause != null and groupByClause != ''", () -> " GROUP BY ${groupByClause}")
+            + EXAMPLE_HAVING_CLAUSE
+            + ifTest("orderByClause != null", () -> " ORDER BY ${orderByClause}")
+            + ifTest("endSql != null and endSql != ''", () -> "${endSql}");
+      }
+    });
+  }
+
+  /**
+   * 根据 Example 条件判断是否存在数据，只读取第一条匹配的数据，返回 0 或 1
+   *
+   * @param providerContext 上下文
+   * @return cacheKey
+   */
+  public static String existsByExample(ProviderContext providerContext) {
+    return SqlScript.caching(providerContext, new SqlScript() {
+      @Override
+      public String getSql(EntityTable entity) {
+        return "SELECT COUNT(*) FROM ("
+            + LimitDialect.current().limit("SELECT 1 AS one FROM " + entity.tableName()
+            + ifParameterNotNull(() -> EXAMPLE_WHERE_CLAUSE), "1")
+            + ") t_exists";
+      }
+    });
+  }
+
+  /**
+   * 根据 Example 条件计数，最多数到 cap + 1 为止，超出部分不再扫描
+   *
+   * @param providerContext 上下文
+   * @return cacheKey
+   */
+  public static String countByExampleCapped(ProviderContext providerContext) {
+    return SqlScript.caching(providerContext, new SqlScript() {
+      @Override
+      public String getSql(EntityTable entity) {
+        return countCappedSql(entity, andGroup(ifTest("example != null", () -> UPDATE_BY_EXAMPLE_WHERE_CLAUSE)));
+      }
+    });
+  }
+
+  /**
+   * 有上限的计数，和 {@link #countByExample} 一样处理 distinct 和查询列：有查询列时只计算查询列都不为 null 的行，
+   * distinct 时先对查询列去重，多数一条用于区分正好 cap 条和超过 cap 条
+   *
+   * @param entity     实体类信息
+   * @param conditions 查询条件，每个条件以 AND 开头，不包含 WHERE
+   * @return 有上限计数的 SQL
+   */
+  public static String countCappedSql(EntityTable entity, String conditions) {
+    String hasColumns = "example != null and example.simpleSelectColumns != null and example.simpleSelectColumns != ''";
+    String where = "<trim prefix=\"WHERE\" prefixOverrides=\"WHERE |OR |AND \">"
+        + "<if test=\"" + hasColumns + "\">"
+        + "<foreach collection=\"example.simpleSelectColumns.split(&quot;,&quot;)\" item=\"selectColumn\"> AND ${selectColumn} IS NOT NULL </foreach>"
+        + "</if>"
+        + conditions
+        + "</trim>";
+    LimitDialect dialect = LimitDialect.current();
+    return "<bind name=\"capLimit\" value=\"cap + 1\"/>"
+        + "SELECT COUNT(*) FROM ("
+        + "<choose>"
+        + "<when test=\"" + hasColumns + " and example.distinct\">"
+        + dialect.limit("SELECT DISTINCT ${example.simpleSelectColumns} FROM " + entity.tableName() + where, "#{capLimit}")
+        + "</when>"
+        + "<otherwise>"
+        + dialect.limit("SELECT 1 AS one FROM " + entity.tableName() + where, "#{capLimit}")
+        + "</otherwise>"
+        + "</choose>"
+        + ") t_count";
+  }
+
+  /**
+   * 将其他条件（可以包含 where 标签）整体放在括号中，拼接在已有条件之后，避免 OR 条件改变已有条件的优先级
+   *
+   * @param whereClause 条件
+   * @return 以 AND 开头的条件
+   */
+  public static String andGroup(String whereClause) {
+    return "<trim prefix=\"AND (\" suffix=\")\" prefixOverrides=\"WHERE \">" + whereClause + "</trim>";
+  }
+
+  /**
+   * 从数据库统计信息中读取表的估算行数，统计信息来源通过 {@link TableStatistics#STATISTICS} 配置
+   *
+   * @param providerContext 上下文
+   * @return cacheKey
+   */
+  public static String estimateCount(ProviderContext providerContext) {
+    return SqlScript.caching(providerContext, new SqlScript() {
+      @Override
+      public String getSql(EntityTable entity) {
+        TableStatistics statistics = TableStatistics.current();
+        if (statistics == TableStatistics.NONE) {
+          //执行时才报错，不影响预热等提前生成 SQL 的场景
+          return variableIsTrue("false", "未配置 " + TableStatistics.STATISTICS + "，无法读取表的估算行数") + "SELECT 1";
+        }
+        return statistics.estimate(entity.tableName());
+      }
+    });
+  }
 }
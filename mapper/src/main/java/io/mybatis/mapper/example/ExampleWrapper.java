@@ -24,9 +24,9 @@ import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.session.RowBounds;
 
 import java.io.Serializable;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -40,6 +40,11 @@ import java.util.stream.Stream;
  * @author liuzh
  */
 public class ExampleWrapper<T, I extends Serializable> {
+  /**
+   * having 条件中允许的比较符
+   */
+  private static final Set<String> HAVING_OPERATORS = new HashSet<>(Arrays.asList("=", "<>", "!=", ">", ">=", "<", "<="));
+
   private final BaseMapper<T, I>    baseMapper;
   private final Example<T>          example;
   private       Example.Criteria<T> current;
@@ -914,6 +919,20 @@ public class ExampleWrapper<T, I extends Serializable> {
     return baseMapper.selectCursorByExample(example);
   }
 
+  /**
+   * 根据当前查询条件查询指定的列，直接映射为投影类型（DTO、record 或接口），不使用也不修改 {@link #select(Fn[])} 指定的查询列
+   *
+   * @param projection 投影类型
+   * @param fns        查询列，为空时查询投影类型中和实体类同名的属性
+   * @param <R>        投影类型
+   * @return 投影结果
+   * @see ExampleProjection
+   */
+  @SafeVarargs
+  public final <R> List<R> select(Class<R> projection, Fn<T, Object>... fns) {
+    return ExampleProjection.select(baseMapper, example, projection, fns);
+  }
+
   /**
    * 根据当前查询条件查询，返回 Stream
    */
@@ -951,4 +970,199 @@ public class ExampleWrapper<T, I extends Serializable> {
     return baseMapper.countByExample(example);
   }
 
+  /**
+   * 查询符合当前条件的结果数，最多数到 cap 为止，超过 cap 时返回 cap，用于显示 "10000+" 这类总数的场景
+   *
+   * @param cap 计数上限
+   */
+  public long count(long cap) {
+    Assert.isTrue(cap > 0, "cap 必须大于 0");
+    return Math.min(baseMapper.countByExampleCapped(example, cap), cap);
+  }
+
+  /**
+   * 估算符合当前条件的结果数，适用于大表分页时的总数
+   * <p>
+   * Mapper 继承了 {@link EstimateCountMapper}，并且当前没有查询条件（并且没有 distinct、分组和自定义 SQL）时，
+   * 读取 {@link TableStatistics} 配置的数据库统计信息，
+   * 统计的行数不小于 cap 时直接返回估算值；其他情况执行最多数到 cap 的精确计数，超过 cap 时返回 cap 并标记为估算值
+   *
+   * @param cap 计数上限
+   */
+  public EstimatedCount countEstimate(long cap) {
+    Assert.isTrue(cap > 0, "cap 必须大于 0");
+    if (useStatistics()) {
+      Long estimate = ((EstimateCountMapper<?>) baseMapper).estimateCount();
+      if (estimate != null && estimate >= cap) {
+        return EstimatedCount.estimate(estimate);
+      }
+    }
+    long count = baseMapper.countByExampleCapped(example, cap);
+    return count > cap ? EstimatedCount.estimate(cap) : EstimatedCount.exact(count);
+  }
+
+  private boolean useStatistics() {
+    return baseMapper instanceof EstimateCountMapper
+        && TableStatistics.current() != TableStatistics.NONE
+        && example.isEmpty()
+        && !example.isDistinct()
+        && example.getGroupByClause() == null
+        && (example.getStartSql() == null || example.getStartSql().isEmpty())
+        && (example.getEndSql() == null || example.getEndSql().isEmpty());
+  }
+
+  /**
+   * 判断是否存在符合当前条件的数据，找到第一条数据后即停止
+   */
+  public boolean exists() {
+    return baseMapper.existsByExample(example);
+  }
+
+  /**
+   * 设置分组列，配合 {@link #aggregate(Aggregate[])} 使用
+   *
+   * @param fns 分组字段
+   */
+  @SafeVarargs
+  public final ExampleWrapper<T, I> groupBy(Fn<T, Object>... fns) {
+    this.example.groupBy(fns);
+    return this;
+  }
+
+  /**
+   * 添加 having 条件，如 {@code having(Aggregate.sum(User::getAge), ">", 100)}
+   *
+   * @param aggregate 聚合列
+   * @param operator  比较符，只支持 =, <>, !=, >, >=, <, <=
+   * @param value     值
+   */
+  public ExampleWrapper<T, I> having(Aggregate<T> aggregate, String operator, Object value) {
+    Assert.isTrue(operator != null && HAVING_OPERATORS.contains(operator.trim()), "不支持的比较符: " + operator);
+    this.example.having(aggregate.expression() + " " + operator.trim(), value);
+    return this;
+  }
+
+  /**
+   * 添加 having 条件，注意防止 SQL 注入
+   *
+   * @param condition 完整的条件，如 "COUNT(*) > 1"
+   */
+  public ExampleWrapper<T, I> having(String condition) {
+    this.example.having(condition);
+    return this;
+  }
+
+  /**
+   * 根据当前查询条件和分组进行聚合查询
+   *
+   * @param aggregates 聚合列
+   * @return 每组一个 Map，key 为分组字段的属性名和聚合列的别名，顺序和查询列一致
+   */
+  @SafeVarargs
+  public final List<Map<String, Object>> aggregate(Aggregate<T>... aggregates) {
+    this.example.aggregate(aggregates);
+    List<String> keys = new ArrayList<>(example.getGroupByProperties());
+    for (Aggregate<T> aggregate : aggregates) {
+      keys.add(aggregate.alias());
+    }
+    List<Map<String, Object>> rows = baseMapper.selectAggregateByExample(example);
+    List<Map<String, Object>> result = new ArrayList<>(rows.size());
+    for (Map<String, Object> row : rows) {
+      //不同数据库返回的列名大小写不同，统一为属性名和别名
+      Map<String, Object> values = new LinkedHashMap<>();
+      for (String key : keys) {
+        values.put(key, row == null ? null : row.containsKey(key) ? row.get(key) : row.entrySet().stream()
+            .filter(entry -> entry.getKey().equalsIgnoreCase(key)).map(Map.Entry::getValue).findFirst().orElse(null));
+      }
+      result.add(values);
+    }
+    return result;
+  }
+
+  /**
+   * 查询符合当前条件的字段总和，没有数据时返回 null
+   *
+   * @param fn 字段
+   */
+  public BigDecimal sum(Fn<T, Object> fn) {
+    return toBigDecimal(scalar(Aggregate.sum(fn)));
+  }
+
+  /**
+   * 查询符合当前条件的字段平均值，没有数据时返回 null
+   *
+   * @param fn 字段
+   */
+  public BigDecimal avg(Fn<T, Object> fn) {
+    return toBigDecimal(scalar(Aggregate.avg(fn)));
+  }
+
+  /**
+   * 查询符合当前条件的字段最大值，数值会转换为字段的类型，没有数据时返回 null
+   *
+   * @param fn  字段
+   * @param <V> 字段类型
+   */
+  public <V> V max(Fn<T, Object> fn) {
+    return (V) convert(scalar(Aggregate.max(fn)), fn.toEntityColumn().javaType());
+  }
+
+  /**
+   * 查询符合当前条件的字段最小值，数值会转换为字段的类型，没有数据时返回 null
+   *
+   * @param fn  字段
+   * @param <V> 字段类型
+   */
+  public <V> V min(Fn<T, Object> fn) {
+    return (V) convert(scalar(Aggregate.min(fn)), fn.toEntityColumn().javaType());
+  }
+
+  /**
+   * 查询符合当前条件的字段不重复值的数量
+   *
+   * @param fn 字段
+   */
+  public long countDistinct(Fn<T, Object> fn) {
+    Object value = scalar(Aggregate.countDistinct(fn));
+    return value == null ? 0 : ((Number) value).longValue();
+  }
+
+  private Object scalar(Aggregate<T> aggregate) {
+    Assert.isTrue(example.getGroupByClause() == null, "分组查询请使用 aggregate 方法");
+    List<Map<String, Object>> rows = aggregate(aggregate);
+    return rows.isEmpty() ? null : rows.get(0).get(aggregate.alias());
+  }
+
+  private static BigDecimal toBigDecimal(Object value) {
+    if (value == null || value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    }
+    return new BigDecimal(value.toString());
+  }
+
+  private static Object convert(Object value, Class<?> type) {
+    if (!(value instanceof Number) || type == null || type.isInstance(value)) {
+      return value;
+    }
+    Number number = (Number) value;
+    if (type == Long.class || type == long.class) {
+      return number.longValue();
+    } else if (type == Integer.class || type == int.class) {
+      return number.intValue();
+    } else if (type == Short.class || type == short.class) {
+      return number.shortValue();
+    } else if (type == Byte.class || type == byte.class) {
+      return number.byteValue();
+    } else if (type == Double.class || type == double.class) {
+      return number.doubleValue();
+    } else if (type == Float.class || type == float.class) {
+      return number.floatValue();
+    } else if (type == BigDecimal.class) {
+      return toBigDecimal(number);
+    } else if (type == BigInteger.class) {
+      return toBigDecimal(number).toBigInteger();
+    }
+    return value;
+  }
+
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.example;
+
+import io.mybatis.config.ConfigHelper;
+
+import java.util.Locale;
+
+/**
+ * 限制查询行数的方言，用于 exists 和有上限的 count 等只需要读取前 n 行的查询
+ * <p>
+ * 通过 {@code mybatis.mapper.limit.dialect} 配置，默认为 {@link #LIMIT}
+ *
+ * @author liuzh
+ */
+public enum LimitDialect {
+  /**
+   * MySQL, PostgreSQL, H2, HSQLDB, SQLite 等：{@code sql LIMIT n}
+   */
+  LIMIT {
+    @Override
+    public String limit(String sql, String rows) {
+      return sql + " LIMIT " + rows;
+    }
+  },
+  /**
+   * SQL:2008 标准，Oracle 12c+, DB2, PostgreSQL 等：{@code sql FETCH FIRST n ROWS ONLY}
+   */
+  FETCH_FIRST {
+    @Override
+    public String limit(String sql, String rows) {
+      return sql + " FETCH FIRST " + rows + " ROWS ONLY";
+    }
+  },
+  /**
+   * Oracle 12c 之前：{@code SELECT * FROM (sql) WHERE ROWNUM <= n}
+   */
+  ROWNUM {
+    @Override
+    public String limit(String sql, String rows) {
+      return "SELECT * FROM (" + sql + ") t_limit WHERE ROWNUM &lt;= " + rows;
+    }
+  },
+  /**
+   * SQL Server：{@code SELECT TOP (n) ...}，直接写在查询的 SELECT（或 SELECT DISTINCT）之后，
+   * SQL Server 不允许派生表中使用 ORDER BY，也要求派生表的每一列都有列名
+   */
+  TOP {
+    @Override
+    public String limit(String sql, String rows) {
+      String select = sql.regionMatches(true, 0, "SELECT DISTINCT ", 0, 16) ? "SELECT DISTINCT " : "SELECT ";
+      if (!sql.regionMatches(true, 0, select, 0, select.length())) {
+        throw new IllegalArgumentException("TOP can only be applied to a SELECT statement: " + sql);
+      }
+      return sql.substring(0, select.length()) + "TOP (" + rows + ") " + sql.substring(select.length());
+    }
+  };
+
+  public static final String DIALECT = "mybatis.mapper.limit.dialect";
+
+  /**
+   * 获取配置的方言
+   */
+  public static LimitDialect current() {
+    return valueOf(ConfigHelper.getStr(DIALECT, LIMIT.name()).trim().toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * 限制查询的行数
+   *
+   * @param sql  以 SELECT 开头的查询语句，会作为 XML 脚本的一部分，查询列需要有列名（如 {@code SELECT 1 AS one}）
+   * @param rows 行数，可以是常量或参数（如 #{cap}）
+   * @return 限制行数后的查询
+   */
+  public abstract String limit(String sql, String rows);
+
+}
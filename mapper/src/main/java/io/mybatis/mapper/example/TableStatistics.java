@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.example;
+
+import io.mybatis.config.ConfigHelper;
+
+import java.util.Locale;
+
+/**
+ * 读取数据库统计信息中表的估算行数，用于大表分页时代替精确的 {@code COUNT(*)}
+ * <p>
+ * 通过 {@code mybatis.mapper.count.statistics} 配置，默认为 {@link #NONE}，此时总是执行有上限的精确计数
+ *
+ * @author liuzh
+ */
+public enum TableStatistics {
+  /**
+   * 不读取统计信息
+   */
+  NONE {
+    @Override
+    public String estimate(String tableName) {
+      throw new UnsupportedOperationException("未配置 " + STATISTICS + "，无法读取表的估算行数");
+    }
+  },
+  /**
+   * PostgreSQL：{@code pg_class.reltuples}，从未 ANALYZE 的表为 -1
+   */
+  POSTGRESQL {
+    @Override
+    public String estimate(String tableName) {
+      return "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('" + quote(tableName) + "' AS regclass)";
+    }
+  },
+  /**
+   * MySQL InnoDB：{@code information_schema.TABLES.TABLE_ROWS}
+   */
+  MYSQL {
+    @Override
+    public String estimate(String tableName) {
+      return "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '"
+          + quote(simpleName(tableName)) + "'";
+    }
+  },
+  /**
+   * H2：{@code INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE}
+   */
+  H2 {
+    @Override
+    public String estimate(String tableName) {
+      return "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = UPPER('"
+          + quote(simpleName(tableName)) + "')";
+    }
+  },
+  /**
+   * HSQLDB：{@code INFORMATION_SCHEMA.SYSTEM_TABLESTATS.CARDINALITY}
+   */
+  HSQLDB {
+    @Override
+    public String estimate(String tableName) {
+      return "SELECT CARDINALITY FROM INFORMATION_SCHEMA.SYSTEM_TABLESTATS WHERE UPPER(TABLE_NAME) = UPPER('"
+          + quote(simpleName(tableName)) + "')";
+    }
+  };
+
+  public static final String STATISTICS = "mybatis.mapper.count.statistics";
+
+  /**
+   * 获取配置的统计信息来源
+   */
+  public static TableStatistics current() {
+    return valueOf(ConfigHelper.getStr(STATISTICS, NONE.name()).trim().toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * 去掉 schema 前缀和标识符的引号
+   */
+  static String simpleName(String tableName) {
+    String name = tableName.substring(tableName.lastIndexOf('.') + 1);
+    return name.replaceAll("[`\"\\[\\]]", "");
+  }
+
+  static String quote(String value) {
+    return value.replace("'", "''");
+  }
+
+  /**
+   * 读取表估算行数的查询，结果为一行一列，没有统计信息时返回空或负数
+   *
+   * @param tableName 表名
+   * @return 查询语句
+   */
+  public abstract String estimate(String tableName);
+
+}
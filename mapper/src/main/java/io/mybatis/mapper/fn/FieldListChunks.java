@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.fn;
+
+import io.mybatis.config.ConfigHelper;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按字段值集合查询或删除（field in (...)）时，将值集合拆分为多批执行，避免单条 SQL 超过数据库的 IN 元素数量或参数个数限制
+ * （例如 Oracle 的 IN 最多支持 1000 个元素）
+ * <p>
+ * 可以通过 {@code mybatis.mapper.fieldList.chunkSize} 指定默认每批的数量，默认为 1000，小于等于 0 时不拆分
+ *
+ * @author liuzh
+ */
+public class FieldListChunks {
+  public static final String CHUNK_SIZE         = "mybatis.mapper.fieldList.chunkSize";
+  public static final int    DEFAULT_CHUNK_SIZE = 1000;
+
+  /**
+   * 获取配置的每批数量
+   *
+   * @return 每批数量，不拆分时为 {@link Integer#MAX_VALUE}
+   */
+  public static int chunkSize() {
+    int chunkSize = ConfigHelper.getInt(CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+    return chunkSize > 0 ? chunkSize : Integer.MAX_VALUE;
+  }
+
+  /**
+   * 将值集合拆分为多批，空集合时返回一个空的批次，保持和不拆分时相同的行为
+   * <p>
+   * 需要拆分时先按首次出现的顺序去重，保证同一个值只出现在一个批次中，和单条 IN 一样不会重复返回或删除同一行
+   *
+   * @param values    值集合
+   * @param chunkSize 每批的数量
+   * @param <F>       值类型
+   * @return 拆分后的批次
+   */
+  public static <F> List<List<F>> split(Collection<F> values, int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be greater than 0");
+    }
+    if (values.size() <= chunkSize) {
+      return Collections.singletonList(values instanceof List ? (List<F>) values : new ArrayList<>(values));
+    }
+    List<F> list = new ArrayList<>(new LinkedHashSet<>(values));
+    if (list.size() <= chunkSize) {
+      return Collections.singletonList(list);
+    }
+    List<List<F>> chunks = new ArrayList<>((list.size() - 1) / chunkSize + 1);
+    for (int i = 0; i < list.size(); i += chunkSize) {
+      chunks.add(list.subList(i, Math.min(i + chunkSize, list.size())));
+    }
+    return chunks;
+  }
+
+  /**
+   * 分批查询，按批次顺序合并结果
+   * <p>
+   * 拆分后每批的结果只在批次内有序（例如实体上配置的 ORDER BY），合并后不是全局有序的，
+   * 需要整体排序时由调用方对合并后的结果重新排序，或者通过 {@link #sortByValues(List, Collection, Function)} 按值集合的顺序排序
+   * <p>
+   * 指定 executor 时各批次并行执行，此时查询方法必须是线程安全的，并且每个线程使用独立的 SqlSession
+   * （例如 Spring 中事务外的 SqlSessionTemplate），不能使用同一个 DefaultSqlSession 获取的 Mapper
+   *
+   * @param values    值集合
+   * @param chunkSize 每批的数量
+   * @param executor  并行执行的线程池，为 null 时在当前线程顺序执行
+   * @param query     每批执行的查询
+   * @param <T>       结果类型
+   * @param <F>       值类型
+   * @return 合并后的结果
+   */
+  public static <T, F> List<T> select(Collection<F> values, int chunkSize, Executor executor, Function<List<F>, List<T>> query) {
+    List<List<F>> chunks = split(values, chunkSize);
+    if (chunks.size() == 1) {
+      return query.apply(chunks.get(0));
+    }
+    List<T> result = new ArrayList<>();
+    if (executor == null) {
+      for (List<F> chunk : chunks) {
+        result.addAll(query.apply(chunk));
+      }
+      return result;
+    }
+    List<CompletableFuture<List<T>>> futures = new ArrayList<>(chunks.size());
+    for (List<F> chunk : chunks) {
+      futures.add(CompletableFuture.supplyAsync(() -> query.apply(chunk), executor));
+    }
+    try {
+      for (CompletableFuture<List<T>> future : futures) {
+        result.addAll(future.join());
+      }
+    } catch (CompletionException e) {
+      futures.forEach(future -> future.cancel(false));
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+    return result;
+  }
+
+  /**
+   * 分批删除，在当前线程中顺序执行，保证所有批次在调用方的事务中
+   *
+   * @param values    值集合
+   * @param chunkSize 每批的数量
+   * @param delete    每批执行的删除
+   * @param <F>       值类型
+   * @return 删除的总条数
+   */
+  public static <F> int delete(Collection<F> values, int chunkSize, ToIntFunction<List<F>> delete) {
+    int count = 0;
+    for (List<F> chunk : split(values, chunkSize)) {
+      count += delete.applyAsInt(chunk);
+    }
+    return count;
+  }
+
+  /**
+   * 按照值集合的顺序对结果排序，值相同的结果保持原有顺序，值不在集合中的结果排在最后
+   *
+   * @param rows   查询结果
+   * @param values 值集合
+   * @param getter 获取结果中对应字段值的方法
+   * @param <T>    结果类型
+   * @return 排序后的结果
+   */
+  public static <T> List<T> sortByValues(List<T> rows, Collection<?> values, Function<T, ?> getter) {
+    Map<Object, Integer> indexes = new HashMap<>(values.size() * 4 / 3 + 1);
+    int index = 0;
+    for (Object value : values) {
+      indexes.putIfAbsent(value, index++);
+    }
+    rows.sort(Comparator.comparingInt(row -> indexes.getOrDefault(getter.apply(row), Integer.MAX_VALUE)));
+    return rows;
+  }
+
+}
@@ -16,6 +16,7 @@
 
 package io.mybatis.mapper.fn;
 
+import io.mybatis.mapper.version.OptimisticLock;
 import io.mybatis.provider.EntityTable;
 import io.mybatis.provider.SqlScript;
 import org.apache.ibatis.builder.annotation.ProviderContext;
@@ -39,15 +40,18 @@ public class FnProvider {
     return SqlScript.caching(providerContext, new SqlScript() {
       @Override
       public String getSql(EntityTable entity) {
+        OptimisticLock.register(providerContext, entity);
         return "UPDATE " + entity.tableName()
             + set(() ->
             entity.updateColumns().stream().map(column ->
+                OptimisticLock.isVersion(column) ? OptimisticLock.increase(column) + "," :
                 choose(() ->
                     whenTest("fns != null and fns.fieldNames().contains('" + column.property() + "')", () -> column.columnEqualsProperty("entity.") + ",")
                         + whenTest(column.notNullTest("entity."), () -> column.columnEqualsProperty("entity.") + ","))
 
             ).collect(Collectors.joining(LF)))
-            + where(() -> entity.idColumns().stream().map(column -> column.columnEqualsProperty("entity.")).collect(Collectors.joining(" AND ")));
+            + where(() -> entity.idColumns().stream().map(column -> column.columnEqualsProperty("entity.")).collect(Collectors.joining(" AND "))
+            + OptimisticLock.condition(entity, "entity."));
       }
     });
   }
@@ -62,13 +66,16 @@ public class FnProvider {
     return SqlScript.caching(providerContext, new SqlScript() {
       @Override
       public String getSql(EntityTable entity) {
+        OptimisticLock.register(providerContext, entity);
         return "UPDATE " + entity.tableName()
             + set(() ->
             entity.updateColumns().stream().map(column ->
+                OptimisticLock.isVersion(column) ? OptimisticLock.increase(column) + "," :
                 choose(() ->
                     whenTest("fns != null and fns.fieldNames().contains('" + column.property() + "')", () -> column.columnEqualsProperty("entity.") + ","))
             ).collect(Collectors.joining(LF)))
-            + where(() -> entity.idColumns().stream().map(column -> column.columnEqualsProperty("entity.")).collect(Collectors.joining(" AND ")));
+            + where(() -> entity.idColumns().stream().map(column -> column.columnEqualsProperty("entity.")).collect(Collectors.joining(" AND "))
+            + OptimisticLock.condition(entity, "entity."));
       }
     });
   }
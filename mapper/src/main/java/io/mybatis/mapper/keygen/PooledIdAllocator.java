@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.keygen;
+
+import io.mybatis.provider.EntityColumn;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批量预分配主键（pooled-lo），每次从序列中获取一个值作为一段主键的起始值，这一段主键在客户端分配，
+ * 用完之前不需要再访问数据库
+ * <p>
+ * 序列的步长必须等于分配数量，例如 {@code CREATE SEQUENCE user_seq START WITH 1 INCREMENT BY 50}，
+ * 获取到 1 时分配 1~50，获取到 51 时分配 51~100，多个应用节点使用同一个序列也不会重复。
+ * <p>
+ * 通过列属性配置（JPA 中使用 {@code @SequenceGenerator}），需要注册 {@link PooledIdInterceptor}：
+ * <pre>{@code
+ * @Entity.Column(id = true, props = {
+ *     @Entity.Prop(name = PooledIdAllocator.SEQUENCE, value = "user_seq"),
+ *     @Entity.Prop(name = PooledIdAllocator.ALLOCATION_SIZE, value = "50")})
+ * private Long id;
+ * }</pre>
+ *
+ * @author liuzh
+ */
+public class PooledIdAllocator {
+  /**
+   * 序列名
+   */
+  public static final String SEQUENCE        = "id.sequence";
+  /**
+   * 每次分配的数量，默认 50
+   */
+  public static final String ALLOCATION_SIZE = "id.allocationSize";
+
+  /**
+   * 按数据库（DataSource）和序列名缓存的分配器，不同数据库中的同名序列互不影响
+   */
+  private static final Map<Object, Map<String, PooledIdAllocator>> ALLOCATORS = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final    String sequence;
+  private final    int    allocationSize;
+  private volatile Block  block = new Block(0, 0);
+
+  public PooledIdAllocator(String sequence, int allocationSize) {
+    if (allocationSize < 1) {
+      throw new IllegalArgumentException("allocationSize of sequence " + sequence + " must be greater than 0");
+    }
+    this.sequence = sequence;
+    this.allocationSize = allocationSize;
+  }
+
+  /**
+   * 获取列对应的分配器，同一个数据库中使用同一个序列的列共享同一个分配器
+   *
+   * @param database 序列所在的数据库，一般为 DataSource，只作为缓存的 key 使用
+   * @param column   主键列
+   * @return 没有配置序列时返回空
+   * @throws IllegalStateException 同一个序列配置了不同的分配数量时
+   */
+  public static Optional<PooledIdAllocator> of(Object database, EntityColumn column) {
+    String sequence = column.getProp(SEQUENCE);
+    if (sequence == null || sequence.isEmpty()) {
+      return Optional.empty();
+    }
+    String size = column.getProp(ALLOCATION_SIZE);
+    int allocationSize = size != null ? Integer.parseInt(size) : 50;
+    PooledIdAllocator allocator = ALLOCATORS.computeIfAbsent(database, db -> new ConcurrentHashMap<>())
+        .computeIfAbsent(sequence, seq -> new PooledIdAllocator(seq, allocationSize));
+    if (allocator.getAllocationSize() != allocationSize) {
+      throw new IllegalStateException("Sequence " + sequence + " is configured with different allocationSize: "
+          + allocator.getAllocationSize() + " and " + allocationSize + " (" + column.entityTable().entityClass().getName() + ")");
+    }
+    return Optional.of(allocator);
+  }
+
+  /**
+   * 分配一个主键，当前段的主键没有用完时不加锁，用完时只有一个线程获取新的段
+   *
+   * @param connection 当前段用完时用于获取序列的连接
+   * @return 主键
+   */
+  public long next(Connection connection) throws SQLException {
+    while (true) {
+      Block current = block;
+      long id = current.next.getAndIncrement();
+      if (id < current.limit) {
+        return id;
+      }
+      synchronized (this) {
+        if (block == current) {
+          long lo = nextValue(connection);
+          block = new Block(lo, lo + allocationSize);
+        }
+      }
+    }
+  }
+
+  /**
+   * 获取序列的下一个值
+   *
+   * @param connection 连接
+   * @return 新的一段主键的起始值
+   */
+  protected long nextValue(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+         ResultSet rs = statement.executeQuery(SequenceDialect.current().nextValue(sequence))) {
+      if (!rs.next()) {
+        throw new SQLException("Sequence " + sequence + " returned no value");
+      }
+      return rs.getLong(1);
+    }
+  }
+
+  public String getSequence() {
+    return sequence;
+  }
+
+  public int getAllocationSize() {
+    return allocationSize;
+  }
+
+  /**
+   * 一段主键 [next, limit)
+   */
+  private static class Block {
+    private final AtomicLong next;
+    private final long       limit;
+
+    private Block(long next, long limit) {
+      this.next = new AtomicLong(next);
+      this.limit = limit;
+    }
+  }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.keygen;
+
+import io.mybatis.mapper.metrics.StatementResolver;
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityFactory;
+import io.mybatis.provider.EntityTable;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 通用 Mapper 的 insert 方法（包括 insertList）执行前，使用 {@link PooledIdAllocator} 为主键为空的实体分配主键，
+ * 不再需要每行执行一次 selectKey。基本类型（long、int）的主键为 0 时同样认为没有设置主键
+ *
+ * @author liuzh
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+})
+public class PooledIdInterceptor implements Interceptor {
+  private final Map<String, Optional<PooledColumn>> columns = new ConcurrentHashMap<>();
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+    if (ms.getSqlCommandType() == SqlCommandType.INSERT) {
+      Optional<PooledColumn> pooledColumn = columns.computeIfAbsent(ms.getId(), id -> resolve(ms));
+      if (pooledColumn.isPresent()) {
+        Executor executor = (Executor) invocation.getTarget();
+        pooledColumn.get().assign(invocation.getArgs()[1], executor.getTransaction().getConnection());
+      }
+    }
+    return invocation.proceed();
+  }
+
+  /**
+   * 获取方法对应实体类中配置了序列的主键，分配器按当前环境的 DataSource 区分
+   *
+   * @param ms MappedStatement
+   */
+  protected Optional<PooledColumn> resolve(MappedStatement ms) {
+    Environment environment = ms.getConfiguration().getEnvironment();
+    Object database = environment != null ? environment.getDataSource() : ms.getConfiguration();
+    return StatementResolver.entityClass(ms.getId()).flatMap(entityClass -> {
+      EntityTable entityTable = EntityFactory.create(entityClass);
+      for (EntityColumn column : entityTable.idColumns()) {
+        Optional<PooledIdAllocator> allocator = PooledIdAllocator.of(database, column);
+        if (allocator.isPresent()) {
+          return Optional.of(new PooledColumn(entityClass, column, allocator.get()));
+        }
+      }
+      return Optional.empty();
+    });
+  }
+
+  @Override
+  public Object plugin(Object target) {
+    return Plugin.wrap(target, this);
+  }
+
+  /**
+   * 配置了序列的主键
+   */
+  protected static class PooledColumn {
+    private final Class<?>          entityClass;
+    private final EntityColumn      column;
+    private final PooledIdAllocator allocator;
+
+    PooledColumn(Class<?> entityClass, EntityColumn column, PooledIdAllocator allocator) {
+      this.entityClass = entityClass;
+      this.column = column;
+      this.allocator = allocator;
+    }
+
+    /**
+     * 为参数中主键为空的实体分配主键，支持实体本身和 {@code @Param("entityList")} 等集合参数
+     *
+     * @param parameter  参数
+     * @param connection 连接
+     */
+    void assign(Object parameter, Connection connection) throws SQLException {
+      if (entityClass.isInstance(parameter)) {
+        assignEntity(parameter, connection);
+      } else if (parameter instanceof Map) {
+        for (Object value : ((Map<?, ?>) parameter).values()) {
+          if (value instanceof Collection) {
+            for (Object entity : (Collection<?>) value) {
+              assignEntity(entity, connection);
+            }
+          } else {
+            assignEntity(value, connection);
+          }
+        }
+      }
+    }
+
+    private void assignEntity(Object entity, Connection connection) throws SQLException {
+      if (!entityClass.isInstance(entity)) {
+        return;
+      }
+      Class<?> type = column.field().getType();
+      Object value = column.field().get(entity);
+      if (value != null && !(type.isPrimitive() && ((Number) value).longValue() == 0)) {
+        return;
+      }
+      long id = allocator.next(connection);
+      if (type == Integer.class || type == int.class) {
+        column.field().set(entity, Math.toIntExact(id));
+      } else if (type == String.class) {
+        column.field().set(entity, String.valueOf(id));
+      } else {
+        column.field().set(entity, id);
+      }
+    }
+  }
+
+}
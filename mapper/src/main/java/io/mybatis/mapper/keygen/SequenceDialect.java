@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.keygen;
+
+import io.mybatis.config.ConfigHelper;
+
+import java.util.Locale;
+
+/**
+ * 获取序列下一个值的方言，用于 {@link PooledIdAllocator} 分配主键
+ * <p>
+ * 通过 {@code mybatis.mapper.sequence.dialect} 配置，默认为 {@link #NEXT_VALUE_FOR}
+ *
+ * @author liuzh
+ */
+public enum SequenceDialect {
+  /**
+   * SQL 标准，SQL Server, H2, DB2 等：{@code SELECT NEXT VALUE FOR seq}
+   */
+  NEXT_VALUE_FOR {
+    @Override
+    public String nextValue(String sequence) {
+      return "SELECT NEXT VALUE FOR " + sequence;
+    }
+  },
+  /**
+   * HSQLDB, H2 等：{@code CALL NEXT VALUE FOR seq}
+   */
+  CALL {
+    @Override
+    public String nextValue(String sequence) {
+      return "CALL NEXT VALUE FOR " + sequence;
+    }
+  },
+  /**
+   * PostgreSQL：{@code SELECT nextval('seq')}
+   */
+  POSTGRESQL {
+    @Override
+    public String nextValue(String sequence) {
+      return "SELECT nextval('" + sequence + "')";
+    }
+  },
+  /**
+   * Oracle：{@code SELECT seq.NEXTVAL FROM DUAL}
+   */
+  ORACLE {
+    @Override
+    public String nextValue(String sequence) {
+      return "SELECT " + sequence + ".NEXTVAL FROM DUAL";
+    }
+  };
+
+  public static final String DIALECT = "mybatis.mapper.sequence.dialect";
+
+  /**
+   * 获取配置的方言
+   */
+  public static SequenceDialect current() {
+    return valueOf(ConfigHelper.getStr(DIALECT, NEXT_VALUE_FOR.name()).trim().toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * 获取序列下一个值的 SQL
+   *
+   * @param sequence 序列名
+   * @return 查询语句
+   */
+  public abstract String nextValue(String sequence);
+
+}
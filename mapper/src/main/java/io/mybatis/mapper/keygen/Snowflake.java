@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.keygen;
+
+import io.mybatis.config.ConfigHelper;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake 算法生成 64 位主键，在应用内生成，不需要访问数据库，不同节点生成的主键不会重复并且大致按时间递增
+ * <p>
+ * 主键由 41 位时间戳（相对于 epoch 的毫秒数）、10 位节点 ID 和 12 位序号组成，每个节点每毫秒最多生成 4096 个主键。
+ * 时间戳和序号保存在同一个 {@link AtomicLong} 中，通过 CAS 更新，不需要加锁。
+ * <p>
+ * 同一毫秒内序号用完时等待下一毫秒；时钟回拨不超过 {@code maxBackwardMillis} 时继续使用上一次的时间戳递增序号，
+ * 保证主键单调递增，超过时抛出异常。
+ * <p>
+ * 默认实例的可用配置：
+ * <ul>
+ *   <li>mybatis.mapper.snowflake.workerId - 节点 ID，0~1023，必须配置，每个节点配置不同的值，没有配置时 {@link #getDefault()} 抛出异常</li>
+ *   <li>mybatis.mapper.snowflake.epoch - 起始时间的毫秒数，默认 2020-01-01 00:00:00 UTC</li>
+ *   <li>mybatis.mapper.snowflake.maxBackwardMillis - 允许的时钟回拨毫秒数，默认 5</li>
+ * </ul>
+ *
+ * @author liuzh
+ */
+public class Snowflake {
+  public static final String WORKER_ID           = "mybatis.mapper.snowflake.workerId";
+  public static final String EPOCH               = "mybatis.mapper.snowflake.epoch";
+  public static final String MAX_BACKWARD_MILLIS = "mybatis.mapper.snowflake.maxBackwardMillis";
+
+  public static final  long DEFAULT_EPOCH  = 1577836800000L;
+  public static final  long MAX_WORKER_ID  = 1023;
+  private static final int  SEQUENCE_BITS  = 12;
+  private static final int  WORKER_ID_BITS = 10;
+  private static final long SEQUENCE_MASK  = (1L << SEQUENCE_BITS) - 1;
+
+  private static volatile Snowflake defaultInstance;
+
+  private final long       workerId;
+  private final long       epoch;
+  private final long       maxBackwardMillis;
+  /**
+   * 上一次生成的时间戳和序号：{@code timestamp << 12 | sequence}
+   */
+  private final AtomicLong state = new AtomicLong();
+
+  public Snowflake(long workerId) {
+    this(workerId, DEFAULT_EPOCH, 5);
+  }
+
+  public Snowflake(long workerId, long epoch, long maxBackwardMillis) {
+    if (workerId < 0 || workerId > MAX_WORKER_ID) {
+      throw new IllegalArgumentException("workerId must be between 0 and " + MAX_WORKER_ID + ", but was " + workerId);
+    }
+    this.workerId = workerId;
+    this.epoch = epoch;
+    this.maxBackwardMillis = maxBackwardMillis;
+  }
+
+  /**
+   * 获取使用配置创建的默认实例
+   *
+   * @throws IllegalStateException 没有配置 {@link #WORKER_ID} 时，避免多个节点使用相同的默认值生成重复的主键
+   */
+  public static Snowflake getDefault() {
+    Snowflake instance = defaultInstance;
+    if (instance == null) {
+      synchronized (Snowflake.class) {
+        instance = defaultInstance;
+        if (instance == null) {
+          String workerId = ConfigHelper.getStr(WORKER_ID);
+          if (workerId == null || workerId.trim().isEmpty()) {
+            throw new IllegalStateException(WORKER_ID + " is not configured, each node must use a different workerId (0~"
+                + MAX_WORKER_ID + ") to generate unique ids");
+          }
+          instance = new Snowflake(
+              Long.parseLong(workerId.trim()),
+              Long.parseLong(ConfigHelper.getStr(EPOCH, String.valueOf(DEFAULT_EPOCH)).trim()),
+              Long.parseLong(ConfigHelper.getStr(MAX_BACKWARD_MILLIS, "5").trim()));
+          defaultInstance = instance;
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * 生成主键
+   *
+   * @return 主键
+   */
+  public long nextId() {
+    while (true) {
+      long last = state.get();
+      long lastTimestamp = last >>> SEQUENCE_BITS;
+      long now = currentTimeMillis() - epoch;
+      long next;
+      if (now > lastTimestamp) {
+        next = now << SEQUENCE_BITS;
+      } else if (lastTimestamp - now > maxBackwardMillis) {
+        throw new IllegalStateException("Clock moved backwards, "
+            + (lastTimestamp - now) + " ms behind the last id exceeds " + maxBackwardMillis + " ms");
+      } else if ((last & SEQUENCE_MASK) == SEQUENCE_MASK) {
+        //当前毫秒的序号已经用完
+        waitNextMillis(lastTimestamp);
+        continue;
+      } else {
+        next = last + 1;
+      }
+      if (state.compareAndSet(last, next)) {
+        return (next >>> SEQUENCE_BITS) << (WORKER_ID_BITS + SEQUENCE_BITS)
+            | workerId << SEQUENCE_BITS
+            | (next & SEQUENCE_MASK);
+      }
+    }
+  }
+
+  /**
+   * 等待时钟超过指定的时间戳
+   *
+   * @param timestamp 相对于 epoch 的毫秒数
+   */
+  protected void waitNextMillis(long timestamp) {
+    while (currentTimeMillis() - epoch <= timestamp) {
+      Thread.yield();
+    }
+  }
+
+  /**
+   * 获取主键中的时间戳
+   *
+   * @param id 主键
+   * @return 生成主键时的毫秒数
+   */
+  public long timestamp(long id) {
+    return (id >>> (WORKER_ID_BITS + SEQUENCE_BITS)) + epoch;
+  }
+
+  /**
+   * 获取主键中的节点 ID
+   *
+   * @param id 主键
+   * @return 节点 ID
+   */
+  public long workerId(long id) {
+    return (id >>> SEQUENCE_BITS) & MAX_WORKER_ID;
+  }
+
+  /**
+   * 当前时间，测试时可以重写模拟时钟回拨
+   */
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  public long getWorkerId() {
+    return workerId;
+  }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.keygen;
+
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityTable;
+import io.mybatis.provider.keysql.GenId;
+
+/**
+ * 使用 {@link Snowflake#getDefault()} 生成主键，在 insert、insertList 以及 Service 的 save 等方法执行前在应用内赋值：
+ * <pre>{@code
+ * @Entity.Column(id = true, genId = SnowflakeGenId.class, genIdExecuteBefore = true)
+ * private Long id;
+ * }</pre>
+ * 使用前需要为每个节点配置不同的 {@link Snowflake#WORKER_ID}，其他主键生成方式可以同样实现 {@link GenId} 接口
+ *
+ * @author liuzh
+ */
+public class SnowflakeGenId implements GenId<Long> {
+
+  @Override
+  public Long genId(EntityTable table, EntityColumn column) {
+    return Snowflake.getDefault().nextId();
+  }
+
+}
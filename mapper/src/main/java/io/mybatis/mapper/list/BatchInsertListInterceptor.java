@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.list;
+
+import io.mybatis.mapper.metrics.StatementResolver;
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityFactory;
+import io.mybatis.provider.EntityTable;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.plugin.*;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.ExecutorType;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 使用 JDBC 批处理执行主键为自增列（{@code useGeneratedKeys = true}）的 insertList，并回写自增主键
+ * <p>
+ * MySQL、PostgreSQL、H2、HSQLDB 等驱动在执行多行 {@code INSERT ... VALUES (...), (...)} 时会返回所有的自增主键，
+ * 不需要使用该拦截器。SQL Server 等只返回最后一个主键，或者不支持多行 VALUES 的数据库（如 Oracle），
+ * 注册该拦截器后 insertList 会改为单行 INSERT 的批处理，通过 {@code getGeneratedKeys} 按顺序回写主键。
+ * <p>
+ * 单行 INSERT 是一个 id 相同的 MappedStatement 副本（使用 {@link Jdbc3KeyGenerator}），在当前事务上通过
+ * {@link ExecutorType#BATCH} 执行器执行，因此 StatementHandler 和 ParameterHandler 插件、SQL 日志、
+ * 超时配置以及主键回写都和 MyBatis 自身的批处理一致。
+ *
+ * @author liuzh
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+})
+public class BatchInsertListInterceptor implements Interceptor {
+  public static final String METHOD = "insertList";
+
+  private final Map<String, Optional<BatchInsert>> inserts = new ConcurrentHashMap<>();
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+    Object parameter = invocation.getArgs()[1];
+    if (!(parameter instanceof Map) || !METHOD.equals(StatementResolver.methodName(ms.getId()))) {
+      return invocation.proceed();
+    }
+    Optional<BatchInsert> batchInsert = inserts.computeIfAbsent(ms.getId(), id -> resolve(ms));
+    Object entityList = ((Map<?, ?>) parameter).get("entityList");
+    if (!batchInsert.isPresent() || !(entityList instanceof Collection)) {
+      return invocation.proceed();
+    }
+    Executor executor = (Executor) invocation.getTarget();
+    executor.flushStatements();
+    executor.clearLocalCache();
+    if (ms.getCache() != null && ms.isFlushCacheRequired()) {
+      ms.getCache().clear();
+    }
+    return batchInsert.get().execute(executor, (Collection<?>) entityList);
+  }
+
+  /**
+   * 根据实体类生成单行 INSERT
+   *
+   * @param ms insertList 方法
+   * @return 没有自增主键时返回空
+   */
+  protected Optional<BatchInsert> resolve(MappedStatement ms) {
+    return StatementResolver.entityClass(ms.getId()).flatMap(entityClass -> {
+      EntityTable entity = EntityFactory.create(entityClass);
+      return entity.idColumns().stream().filter(EntityColumn::useGeneratedKeys).findFirst().map(keyColumn -> {
+        String script = "INSERT INTO " + entity.tableName()
+            + "(" + entity.insertColumnList() + ")"
+            + " VALUES ("
+            + entity.insertColumns().stream().map(EntityColumn::variables).collect(Collectors.joining(","))
+            + ")";
+        SqlSource sqlSource = new XMLLanguageDriver().createSqlSource(ms.getConfiguration(), "<script>" + script + "</script>", entityClass);
+        MappedStatement statement = new MappedStatement.Builder(ms.getConfiguration(), ms.getId(), sqlSource, SqlCommandType.INSERT)
+            .resource(ms.getResource())
+            .timeout(ms.getTimeout())
+            .statementType(ms.getStatementType())
+            .databaseId(ms.getDatabaseId())
+            .lang(ms.getLang())
+            .keyGenerator(Jdbc3KeyGenerator.INSTANCE)
+            .keyProperty(keyColumn.property())
+            .keyColumn(keyColumn.column())
+            .build();
+        return new BatchInsert(statement);
+      });
+    });
+  }
+
+  @Override
+  public Object plugin(Object target) {
+    return Plugin.wrap(target, this);
+  }
+
+  /**
+   * 单行 INSERT 的批处理
+   */
+  protected static class BatchInsert {
+    private final MappedStatement statement;
+
+    BatchInsert(MappedStatement statement) {
+      this.statement = statement;
+    }
+
+    /**
+     * 在当前事务中执行批处理，主键由 {@link Jdbc3KeyGenerator} 按顺序回写
+     *
+     * @param executor   当前的执行器
+     * @param entityList 实体
+     * @return 插入的行数
+     */
+    int execute(Executor executor, Collection<?> entityList) throws SQLException {
+      if (entityList.isEmpty()) {
+        return 0;
+      }
+      //批处理执行器只使用当前事务，不关闭（关闭会同时关闭事务），执行失败时丢弃未执行的批次
+      Executor batchExecutor = statement.getConfiguration().newExecutor(executor.getTransaction(), ExecutorType.BATCH);
+      try {
+        for (Object entity : entityList) {
+          batchExecutor.update(statement, entity);
+        }
+        int rows = 0;
+        for (BatchResult result : batchExecutor.flushStatements()) {
+          for (int count : result.getUpdateCounts()) {
+            rows += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+          }
+        }
+        return rows;
+      } catch (SQLException | RuntimeException e) {
+        batchExecutor.rollback(false);
+        throw e;
+      }
+    }
+  }
+
+}
@@ -16,12 +16,14 @@
 
 package io.mybatis.mapper.list;
 
+import io.mybatis.mapper.version.OptimisticLock;
 import io.mybatis.provider.EntityColumn;
 import io.mybatis.provider.EntityTable;
 import io.mybatis.provider.SqlScript;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.builder.annotation.ProviderContext;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -64,9 +66,11 @@ public class ListProvider {
       @Override
       public String getSql(EntityTable entity) {
         List<EntityColumn> idColumns = entity.idColumns();
+        List<EntityColumn> whereColumns = whereColumns(entity, providerContext);
         String sql = "UPDATE "
             + entity.tableName()
             + trimSuffixOverrides("SET", " ", ",", () -> entity.updateColumns().stream().map(column ->
+                OptimisticLock.isVersion(column) ? OptimisticLock.increase(column) + ", " :
                 trimSuffixOverrides(column.column() + " = CASE ", "end, ", "", () ->
                     foreach("entityList", "entity", " ", () ->
                         "WHEN ( " +
@@ -77,9 +81,9 @@ public class ListProvider {
                 ))
             .collect(Collectors.joining("")))
             + where(() ->
-            "(" + idColumns.stream().map(EntityColumn::column).collect(Collectors.joining(",")) + ") in " +
+            "(" + whereColumns.stream().map(EntityColumn::column).collect(Collectors.joining(",")) + ") in " +
                 " (" + foreach("entityList", "entity", "),(", "(", ")",
-                () -> idColumns.stream().map(id -> id.variables("entity.")).collect(Collectors.joining(","))) + ")"
+                () -> versionRequired(entity) + whereColumns.stream().map(id -> id.variables("entity.")).collect(Collectors.joining(","))) + ")"
         );
         return sql;
       }
@@ -101,9 +105,11 @@ public class ListProvider {
       @Override
       public String getSql(EntityTable entity) {
         List<EntityColumn> idColumns = entity.idColumns();
+        List<EntityColumn> whereColumns = whereColumns(entity, providerContext);
         String sql = "UPDATE "
             + entity.tableName()
             + trimSuffixOverrides("SET", " ", ",", () -> entity.updateColumns().stream().map(column ->
+                OptimisticLock.isVersion(column) ? OptimisticLock.increase(column) + ", " :
                 trimSuffixOverrides(column.column() + " = CASE ", "end, ", "", () ->
                     foreach("entityList", "entity", " ", () ->
                         choose(() -> whenTest(column.notNullTest("entity."),
@@ -120,9 +126,9 @@ public class ListProvider {
             .collect(Collectors.joining("")))
 
             + where(() ->
-            "(" + idColumns.stream().map(EntityColumn::column).collect(Collectors.joining(",")) + ") in " +
+            "(" + whereColumns.stream().map(EntityColumn::column).collect(Collectors.joining(",")) + ") in " +
                 " (" + foreach("entityList", "entity", "),(", "(", ")",
-                () -> idColumns.stream().map(id -> id.variables("entity.")).collect(Collectors.joining(","))) + ")"
+                () -> versionRequired(entity) + whereColumns.stream().map(id -> id.variables("entity.")).collect(Collectors.joining(","))) + ")"
 
         );
         return sql;
@@ -130,4 +136,28 @@ public class ListProvider {
     });
   }
 
+  /**
+   * 批量更新的条件列，使用乐观锁时除了主键还包含版本列
+   *
+   * @param entity          实体类信息
+   * @param providerContext 上下文
+   * @return 条件列
+   */
+  private static List<EntityColumn> whereColumns(EntityTable entity, ProviderContext providerContext) {
+    OptimisticLock.register(providerContext, entity);
+    List<EntityColumn> whereColumns = new ArrayList<>(entity.idColumns());
+    OptimisticLock.versionColumn(entity).ifPresent(whereColumns::add);
+    return whereColumns;
+  }
+
+  /**
+   * 使用乐观锁时检查每个实体的版本号不能为空
+   *
+   * @param entity 实体类信息
+   * @return {@code <bind>} 标签，没有版本列时返回空字符串
+   */
+  private static String versionRequired(EntityTable entity) {
+    return OptimisticLock.versionColumn(entity).map(column -> OptimisticLock.requireVersion(column, "entity.")).orElse("");
+  }
+
 }
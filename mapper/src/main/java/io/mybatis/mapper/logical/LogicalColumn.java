@@ -18,4 +18,13 @@ public @interface LogicalColumn {
    * 表示逻辑删除的值，比如null、0
    */
   String delete();
+
+  /**
+   * 表示未删除（正常）的值，比如 0、null，为空时查询条件使用 {@code col != delete}
+   * <p>
+   * 设置后查询条件使用 {@code col = active}（或 {@code col IS NULL}），并且放在 WHERE 条件的最前面，
+   * 可以使用普通索引和 {@code WHERE col = active} 形式的部分索引。只有数据存在两种状态时才能设置该值，
+   * 否则其他状态的数据会被当作已删除
+   */
+  String active() default "";
 }
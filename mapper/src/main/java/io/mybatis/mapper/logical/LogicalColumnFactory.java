@@ -0,0 +1,83 @@
+package io.mybatis.mapper.logical;
+
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityColumnFactory;
+import io.mybatis.provider.EntityField;
+import io.mybatis.provider.EntityTable;
+import io.mybatis.provider.EntityTableFactory;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 在创建实体类信息时解析 {@link LogicalColumn}，将逻辑列和删除、正常状态的值保存到 {@link EntityTable} 的属性中，
+ * {@link LogicalProvider} 生成 SQL 时直接读取属性，不再每次通过反射查找注解
+ * <p>
+ * 通过反射创建的实体类在创建每一列时解析，编译期生成元数据的实体类（创建时已经包含所有列）在创建实体类后解析。
+ * 同一个实体类标记了多个 {@link LogicalColumn} 时在创建实体类信息时（启动阶段）直接报错
+ *
+ * @author liuzh
+ */
+public class LogicalColumnFactory implements EntityTableFactory, EntityColumnFactory {
+  /**
+   * 逻辑列对应的字段名
+   */
+  public static final String LOGICAL_COLUMN = "logical.column";
+  /**
+   * 表示逻辑删除的值
+   */
+  public static final String LOGICAL_DELETE = "logical.delete";
+  /**
+   * 表示未删除的值，没有配置时不存在该属性
+   */
+  public static final String LOGICAL_ACTIVE = "logical.active";
+
+  @Override
+  public EntityTable createEntityTable(Class<?> entityClass, EntityTableFactory.Chain chain) {
+    EntityTable entityTable = chain.createEntityTable(entityClass);
+    if (entityTable != null && entityTable.ready()) {
+      for (EntityColumn column : entityTable.columns()) {
+        resolve(entityTable, column);
+      }
+    }
+    return entityTable;
+  }
+
+  @Override
+  public Optional<List<EntityColumn>> createEntityColumn(EntityTable entityTable, EntityField field, EntityColumnFactory.Chain chain) {
+    Optional<List<EntityColumn>> columns = chain.createEntityColumn(entityTable, field);
+    if (columns.isPresent() && field.isAnnotationPresent(LogicalColumn.class)) {
+      for (EntityColumn column : columns.get()) {
+        resolve(entityTable, column);
+      }
+    }
+    return columns;
+  }
+
+  private void resolve(EntityTable entityTable, EntityColumn column) {
+    LogicalColumn logical = column.field().getAnnotation(LogicalColumn.class);
+    if (logical == null) {
+      return;
+    }
+    String property = entityTable.getProp(LOGICAL_COLUMN);
+    if (property != null && !property.equals(column.property())) {
+      throw new IllegalStateException(entityTable.entityClass().getName()
+          + " has multiple fields marked with @LogicalColumn: " + property + ", " + column.property());
+    }
+    entityTable.setProp(LOGICAL_COLUMN, column.property());
+    entityTable.setProp(LOGICAL_DELETE, logical.delete());
+    if (!logical.active().isEmpty()) {
+      entityTable.setProp(LOGICAL_ACTIVE, logical.active());
+    }
+  }
+
+  /**
+   * 创建实体类时在缓存工厂之后，{@link io.mybatis.mapper.meta.StaticEntityTableFactory} 之前执行，保证缓存的实体类信息已经包含逻辑列；
+   * 创建列时只检查最终生成的列，执行顺序没有影响
+   */
+  @Override
+  public int getOrder() {
+    return 2000;
+  }
+
+}
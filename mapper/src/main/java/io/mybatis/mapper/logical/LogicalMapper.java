@@ -11,6 +11,7 @@ import org.apache.ibatis.session.RowBounds;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -85,6 +86,11 @@ public interface LogicalMapper<T, I extends Serializable> extends BaseMapper<T,
   @SelectProvider(type = LogicalProvider.class, method = "selectCount")
   long selectCount(T entity);
 
+  @Override
+  @Lang(Caching.class)
+  @SelectProvider(type = LogicalProvider.class, method = "exists")
+  boolean exists(T entity);
+
   /* EntityMapper --- */
 
   /* CursorMapper +++ */
@@ -142,6 +148,21 @@ public interface LogicalMapper<T, I extends Serializable> extends BaseMapper<T,
   @SelectProvider(type = LogicalProvider.class, method = "countByExample")
   long countByExample(Example<T> example);
 
+  @Override
+  @Lang(Caching.class)
+  @SelectProvider(type = LogicalProvider.class, method = "existsByExample")
+  boolean existsByExample(Example<T> example);
+
+  @Override
+  @Lang(Caching.class)
+  @SelectProvider(type = LogicalProvider.class, method = "countByExampleCapped")
+  long countByExampleCapped(@Param("example") Example<T> example, @Param("cap") long cap);
+
+  @Override
+  @Lang(Caching.class)
+  @SelectProvider(type = LogicalProvider.class, method = "selectAggregateByExample")
+  List<Map<String, Object>> selectAggregateByExample(Example<T> example);
+
   @Override
   List<T> selectByExample(Example<T> example, RowBounds rowBounds);
 
@@ -1,14 +1,18 @@
 package io.mybatis.mapper.logical;
 
 import io.mybatis.common.util.Assert;
+import io.mybatis.mapper.example.ExampleProvider;
+import io.mybatis.mapper.example.LimitDialect;
+import io.mybatis.mapper.version.OptimisticLock;
 import io.mybatis.provider.EntityColumn;
 import io.mybatis.provider.EntityTable;
 import io.mybatis.provider.SqlScript;
 import org.apache.ibatis.builder.annotation.ProviderContext;
 
-import java.util.List;
 import java.util.stream.Collectors;
 
+import static io.mybatis.mapper.example.ExampleProvider.EXAMPLE_HAVING_CLAUSE;
+import static io.mybatis.mapper.example.ExampleProvider.andGroup;
 import static io.mybatis.mapper.example.ExampleProvider.EXAMPLE_WHERE_CLAUSE;
 import static io.mybatis.mapper.example.ExampleProvider.UPDATE_BY_EXAMPLE_WHERE_CLAUSE;
 
@@ -36,9 +40,19 @@ public class LogicalProvider {
             "  </foreach>\n" +
             "</set>";
 
+    /**
+     * 未被逻辑删除的条件，放在其他条件的前面，配置了 {@link LogicalColumn#active()} 时使用等值条件
+     */
+    default String logicalCondition(EntityTable entity) {
+      return " AND " + activeCondition(entity) + LF;
+    }
+
+    /**
+     * @deprecated 使用 {@link #logicalCondition(EntityTable)}，配置了 {@link LogicalColumn#active()} 时同样返回等值条件
+     */
+    @Deprecated
     default String logicalNotEqualCondition(EntityTable entity) {
-      EntityColumn logicalColumn = getLogicalColumn(entity);
-      return " AND " + columnNotEqualsValueCondition(logicalColumn, deleteValue(logicalColumn)) + LF;
+      return logicalCondition(entity);
     }
   }
 
@@ -50,9 +64,9 @@ public class LogicalProvider {
       public String getSql(EntityTable entity) {
         return "SELECT " + entity.baseColumnAsPropertyList()
             + " FROM " + entity.tableName()
-            + where(() -> entity.whereColumns().stream()
+            + where(() -> logicalCondition(entity) + entity.whereColumns().stream()
             .map(column -> ifTest(column.notNullTest(), () -> "AND " + column.columnEqualsProperty()))
-            .collect(Collectors.joining(LF)) + logicalNotEqualCondition(entity))
+            .collect(Collectors.joining(LF)))
             + entity.groupByColumn().orElse("")
             + entity.havingColumn().orElse("")
             + entity.orderByColumn().orElse("");
@@ -74,11 +88,10 @@ public class LogicalProvider {
             + choose(() -> whenTest("fns != null and fns.isNotEmpty()", () -> "${fns.baseColumnAsPropertyList()}")
             + otherwise(() -> entity.baseColumnAsPropertyList()))
             + " FROM " + entity.tableName()
-            + trim("WHERE", "", "WHERE |OR |AND ", "", () ->
-            ifParameterNotNull(() -> where(() -> entity.whereColumns().stream()
+            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> logicalCondition(entity)
+                + ifParameterNotNull(() -> entity.whereColumns().stream()
                 .map(column -> ifTest(column.notNullTest("entity."), () -> "AND " + column.columnEqualsProperty("entity.")))
                 .collect(Collectors.joining(LF))))
-                + logicalNotEqualCondition(entity))
             + entity.groupByColumn().orElse("")
             + entity.havingColumn().orElse("")
             + entity.orderByColumn().orElse("");
@@ -103,7 +116,7 @@ public class LogicalProvider {
             + ifTest("selectColumns != null and selectColumns != ''", () -> "${selectColumns}")
             + ifTest("selectColumns == null or selectColumns == ''", entity::baseColumnAsPropertyList)
             + " FROM " + entity.tableName()
-            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> ifParameterNotNull(() -> EXAMPLE_WHERE_CLAUSE) + logicalNotEqualCondition(entity))
+            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> logicalCondition(entity) + andGroup(ifParameterNotNull(() -> EXAMPLE_WHERE_CLAUSE)))
             + ifTest("orderByClause != null", () -> " ORDER BY ${orderByClause}")
             + ifTest("orderByClause == null", () -> entity.orderByColumn().orElse(""))
             + ifTest("endSql != null and endSql != ''", () -> "${endSql}");
@@ -128,7 +141,29 @@ public class LogicalProvider {
             + ifTest("simpleSelectColumns == null or simpleSelectColumns == ''", () -> "*")
             + ") FROM "
             + entity.tableName()
-            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> ifParameterNotNull(() -> EXAMPLE_WHERE_CLAUSE) + logicalNotEqualCondition(entity))
+            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> logicalCondition(entity) + andGroup(ifParameterNotNull(() -> EXAMPLE_WHERE_CLAUSE)))
+            + ifTest("endSql != null and endSql != ''", () -> "${endSql}");
+      }
+    });
+  }
+
+  /**
+   * 根据 Example 条件对未被逻辑删除的数据进行聚合查询
+   *
+   * @param providerContext 上下文
+   * @return cacheKey
+   */
+  public static String selectAggregateByExample(ProviderContext providerContext) {
+    return SqlScript.caching(providerContext, new LogicalSqlScript() {
+      @Override
+      public String getSql(EntityTable entity) {
+        return ifTest("startSql != null and startSql != ''", () -> "${startSql}")
+            + "SELECT ${aggregateColumns} FROM "
+            + entity.tableName()
+            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> logicalCondition(entity) + andGroup(ifParameterNotNull(() -> EXAMPLE_WHERE_CLAUSE)))
+            + ifTest("groupByClause != null and groupByClause != ''", () -> " GROUP BY ${groupByClause}")
+            + EXAMPLE_HAVING_CLAUSE
+            + ifTest("orderByClause != null", () -> " ORDER BY ${orderByClause}")
             + ifTest("endSql != null and endSql != ''", () -> "${endSql}");
       }
     });
@@ -146,9 +181,8 @@ public class LogicalProvider {
       public String getSql(EntityTable entity) {
         return "SELECT " + entity.baseColumnAsPropertyList()
             + " FROM " + entity.tableName()
-            + where(() -> entity.idColumns().stream().map(EntityColumn::columnEqualsProperty).collect(Collectors.joining(" AND ")))
-            // 如果将条件拼接where()中，将会依赖idColumns()的实现，要求其必须返回非空值
-            + logicalNotEqualCondition(entity);
+            + where(() -> logicalCondition(entity) + entity.idColumns().stream()
+            .map(column -> "AND " + column.columnEqualsProperty()).collect(Collectors.joining(" ")));
       }
     });
   }
@@ -166,9 +200,64 @@ public class LogicalProvider {
       public String getSql(EntityTable entity) {
         return "SELECT COUNT(*)  FROM " + entity.tableName() + LF
             + where(() ->
-            entity.whereColumns().stream().map(column ->
+            logicalCondition(entity) + entity.whereColumns().stream().map(column ->
+                ifTest(column.notNullTest(), () -> "AND " + column.columnEqualsProperty())
+            ).collect(Collectors.joining(LF)));
+      }
+    });
+  }
+
+  /**
+   * 根据实体字段条件判断是否存在未被逻辑删除的数据
+   *
+   * @param providerContext 上下文
+   * @return cacheKey
+   */
+  public static String exists(ProviderContext providerContext) {
+    return SqlScript.caching(providerContext, new LogicalSqlScript() {
+      @Override
+      public String getSql(EntityTable entity) {
+        return "SELECT COUNT(*) FROM ("
+            + LimitDialect.current().limit("SELECT 1 AS one FROM " + entity.tableName() + LF
+            + where(() ->
+            logicalCondition(entity) + entity.whereColumns().stream().map(column ->
                 ifTest(column.notNullTest(), () -> "AND " + column.columnEqualsProperty())
-            ).collect(Collectors.joining(LF)) + logicalNotEqualCondition(entity));
+            ).collect(Collectors.joining(LF))), "1")
+            + ") t_exists";
+      }
+    });
+  }
+
+  /**
+   * 根据 Example 条件判断是否存在未被逻辑删除的数据
+   *
+   * @param providerContext 上下文
+   * @return cacheKey
+   */
+  public static String existsByExample(ProviderContext providerContext) {
+    return SqlScript.caching(providerContext, new LogicalSqlScript() {
+      @Override
+      public String getSql(EntityTable entity) {
+        return "SELECT COUNT(*) FROM ("
+            + LimitDialect.current().limit("SELECT 1 AS one FROM " + entity.tableName()
+            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> logicalCondition(entity) + andGroup(ifParameterNotNull(() -> EXAMPLE_WHERE_CLAUSE))), "1")
+            + ") t_exists";
+      }
+    });
+  }
+
+  /**
+   * 根据 Example 条件对未被逻辑删除的数据计数，最多数到 cap + 1 为止
+   *
+   * @param providerContext 上下文
+   * @return cacheKey
+   */
+  public static String countByExampleCapped(ProviderContext providerContext) {
+    return SqlScript.caching(providerContext, new LogicalSqlScript() {
+      @Override
+      public String getSql(EntityTable entity) {
+        return ExampleProvider.countCappedSql(entity,
+            logicalCondition(entity) + andGroup(ifTest("example != null", () -> UPDATE_BY_EXAMPLE_WHERE_CLAUSE)));
       }
     });
   }
@@ -196,7 +285,7 @@ public class LogicalProvider {
             //是否允许空条件，默认允许，允许时不检查查询条件
             + (entity.getPropBoolean("updateByExample.allowEmpty", true) ?
             "" : variableIsFalse("example.isEmpty()", "Example Criteria cannot be empty"))
-            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> UPDATE_BY_EXAMPLE_WHERE_CLAUSE + logicalNotEqualCondition(entity))
+            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> logicalCondition(entity) + andGroup(UPDATE_BY_EXAMPLE_WHERE_CLAUSE))
             + ifTest("example.endSql != null and example.endSql != ''", () -> "${example.endSql}");
       }
     });
@@ -222,7 +311,7 @@ public class LogicalProvider {
             //是否允许空条件，默认允许，允许时不检查查询条件
             + (entity.getPropBoolean("updateByExampleSelective.allowEmpty", true) ?
             "" : variableIsFalse("example.isEmpty()", "Example Criteria cannot be empty"))
-            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> UPDATE_BY_EXAMPLE_WHERE_CLAUSE + logicalNotEqualCondition(entity))
+            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> logicalCondition(entity) + andGroup(UPDATE_BY_EXAMPLE_WHERE_CLAUSE))
             + ifTest("example.endSql != null and example.endSql != ''", () -> "${example.endSql}");
       }
     });
@@ -247,7 +336,7 @@ public class LogicalProvider {
             //是否允许空条件，默认允许，允许时不检查查询条件
             + (entity.getPropBoolean("updateByExample.allowEmpty", true) ?
             "" : variableIsFalse("example.isEmpty()", "Example Criteria cannot be empty"))
-            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> UPDATE_BY_EXAMPLE_WHERE_CLAUSE + logicalNotEqualCondition(entity))
+            + trim("WHERE", "", "WHERE |OR |AND ", "", () -> logicalCondition(entity) + andGroup(UPDATE_BY_EXAMPLE_WHERE_CLAUSE))
             + ifTest("example.endSql != null and example.endSql != ''", () -> "${example.endSql}");
       }
     });
@@ -263,10 +352,14 @@ public class LogicalProvider {
     return SqlScript.caching(providerContext, new LogicalSqlScript() {
       @Override
       public String getSql(EntityTable entity) {
+        OptimisticLock.register(providerContext, entity);
         return "UPDATE " + entity.tableName()
-            + " SET " + entity.updateColumns().stream().map(EntityColumn::columnEqualsProperty).collect(Collectors.joining(","))
-            + where(() -> entity.idColumns().stream().map(EntityColumn::columnEqualsProperty).collect(Collectors.joining(" AND ")))
-            + logicalNotEqualCondition(entity);
+            + " SET " + entity.updateColumns().stream().map(column ->
+            OptimisticLock.isVersion(column) ? OptimisticLock.increase(column) : column.columnEqualsProperty()
+        ).collect(Collectors.joining(","))
+            + where(() -> logicalCondition(entity) + entity.idColumns().stream()
+            .map(column -> "AND " + column.columnEqualsProperty()).collect(Collectors.joining(" "))
+            + OptimisticLock.condition(entity, ""));
       }
     });
   }
@@ -282,13 +375,16 @@ public class LogicalProvider {
     return SqlScript.caching(providerContext, new LogicalSqlScript() {
       @Override
       public String getSql(EntityTable entity) {
+        OptimisticLock.register(providerContext, entity);
         return "UPDATE " + entity.tableName()
             + set(() ->
             entity.updateColumns().stream().map(column ->
-                ifTest(column.notNullTest(), () -> column.columnEqualsProperty() + ",")
+                OptimisticLock.isVersion(column) ? OptimisticLock.increase(column) + ","
+                    : ifTest(column.notNullTest(), () -> column.columnEqualsProperty() + ",")
             ).collect(Collectors.joining(LF)))
-            + where(() -> entity.idColumns().stream().map(EntityColumn::columnEqualsProperty).collect(Collectors.joining(" AND ")))
-            + logicalNotEqualCondition(entity);
+            + where(() -> logicalCondition(entity) + entity.idColumns().stream()
+            .map(column -> "AND " + column.columnEqualsProperty()).collect(Collectors.joining(" "))
+            + OptimisticLock.condition(entity, ""));
       }
     });
   }
@@ -304,15 +400,18 @@ public class LogicalProvider {
 
       @Override
       public String getSql(EntityTable entity) {
+        OptimisticLock.register(providerContext, entity);
         return "UPDATE " + entity.tableName()
             + set(() ->
             entity.updateColumns().stream().map(column ->
+                OptimisticLock.isVersion(column) ? OptimisticLock.increase(column) + "," :
                 choose(() ->
                     whenTest("fns != null and fns.fieldNames().contains('" + column.property() + "')", () -> column.columnEqualsProperty("entity.") + ",")
                         + whenTest(column.notNullTest("entity."), () -> column.columnEqualsProperty("entity.") + ","))
             ).collect(Collectors.joining(LF)))
-            + where(() -> entity.idColumns().stream().map(column -> column.columnEqualsProperty("entity.")).collect(Collectors.joining(" AND ")))
-            + logicalNotEqualCondition(entity);
+            + where(() -> logicalCondition(entity) + entity.idColumns().stream()
+            .map(column -> "AND " + column.columnEqualsProperty("entity.")).collect(Collectors.joining(" "))
+            + OptimisticLock.condition(entity, "entity."));
       }
     });
   }
@@ -333,11 +432,11 @@ public class LogicalProvider {
       public String getSql(EntityTable entity) {
         EntityColumn logicColumn = getLogicalColumn(entity);
         return "UPDATE " + entity.tableName()
-            + " SET " + columnEqualsValue(logicColumn, deleteValue(logicColumn))
+            + " SET " + columnEqualsValue(logicColumn, deleteValue(entity))
             + parameterNotNull("Parameter cannot be null")
-            + where(() -> entity.columns().stream()
+            + where(() -> logicalCondition(entity) + entity.columns().stream()
             .map(column -> ifTest(column.notNullTest(), () -> "AND " + column.columnEqualsProperty()))
-            .collect(Collectors.joining(LF)) + logicalNotEqualCondition(entity));
+            .collect(Collectors.joining(LF)));
       }
     });
   }
@@ -354,9 +453,9 @@ public class LogicalProvider {
           public String getSql(EntityTable entity) {
             EntityColumn logicColumn = getLogicalColumn(entity);
             return "UPDATE " + entity.tableName()
-                + " SET " + columnEqualsValue(logicColumn, deleteValue(logicColumn))
-                + " WHERE " + entity.idColumns().stream().map(EntityColumn::columnEqualsProperty).collect(Collectors.joining(" AND "))
-                + logicalNotEqualCondition(entity);
+                + " SET " + columnEqualsValue(logicColumn, deleteValue(entity))
+                + where(() -> logicalCondition(entity) + entity.idColumns().stream()
+                .map(column -> "AND " + column.columnEqualsProperty()).collect(Collectors.joining(" ")));
           }
         }
     );
@@ -373,26 +472,47 @@ public class LogicalProvider {
       EntityColumn logicColumn = getLogicalColumn(entity);
       return util.ifTest("startSql != null and startSql != ''", () -> "${startSql}")
           + "UPDATE " + entity.tableName()
-          + " SET " + columnEqualsValue(logicColumn, deleteValue(logicColumn))
+          + " SET " + columnEqualsValue(logicColumn, deleteValue(entity))
           + util.parameterNotNull("Example cannot be null")
           //是否允许空条件，默认允许，允许时不检查查询条件
           + (entity.getPropBoolean("deleteByExample.allowEmpty", true) ?
           "" : util.variableIsFalse("_parameter.isEmpty()", "Example Criteria cannot be empty"))
-          + EXAMPLE_WHERE_CLAUSE + " AND " + columnNotEqualsValueCondition(logicColumn, deleteValue(logicColumn))
+          + " WHERE " + activeCondition(entity) + andGroup(EXAMPLE_WHERE_CLAUSE)
           + util.ifTest("endSql != null and endSql != ''", () -> "${endSql}");
     });
   }
 
   /* delete --- */
 
+  /**
+   * 获取逻辑列，逻辑列在创建实体类信息时由 {@link LogicalColumnFactory} 解析
+   */
   private static EntityColumn getLogicalColumn(EntityTable entity) {
-    List<EntityColumn> logicColumns = entity.columns().stream().filter(c -> c.field().isAnnotationPresent(LogicalColumn.class)).collect(Collectors.toList());
-    Assert.isTrue(logicColumns.size() == 1, "There are no or multiple fields marked with @LogicalColumn");
-    return logicColumns.get(0);
+    String property = entity.getProp(LogicalColumnFactory.LOGICAL_COLUMN);
+    Assert.isTrue(property != null, "There are no fields marked with @LogicalColumn in " + entity.entityClass().getName());
+    for (EntityColumn column : entity.columns()) {
+      if (column.property().equals(property)) {
+        return column;
+      }
+    }
+    throw new IllegalStateException("Logical column " + property + " does not exist in " + entity.entityClass().getName());
+  }
+
+  private static String deleteValue(EntityTable entity) {
+    return entity.getProp(LogicalColumnFactory.LOGICAL_DELETE);
   }
 
-  private static String deleteValue(EntityColumn logicColumn) {
-    return logicColumn.field().getAnnotation(LogicalColumn.class).delete();
+  /**
+   * 未被逻辑删除的条件，配置了 {@link LogicalColumn#active()} 时使用 {@code col = active}（或 {@code col IS NULL}），
+   * 可以直接使用索引和 {@code WHERE col = active} 形式的部分索引，否则使用 {@code col != delete}
+   */
+  private static String activeCondition(EntityTable entity) {
+    EntityColumn logicColumn = getLogicalColumn(entity);
+    String active = entity.getProp(LogicalColumnFactory.LOGICAL_ACTIVE);
+    if (active == null) {
+      return columnNotEqualsValueCondition(logicColumn, deleteValue(entity));
+    }
+    return columnEqualsValueCondition(logicColumn, active);
   }
 
   private static String columnEqualsValueCondition(EntityColumn c, String value) {
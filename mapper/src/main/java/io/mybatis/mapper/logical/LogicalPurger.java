@@ -0,0 +1,390 @@
+package io.mybatis.mapper.logical;
+
+import io.mybatis.mapper.example.LimitDialect;
+import io.mybatis.provider.EntityClassFinder;
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityFactory;
+import io.mybatis.provider.EntityTable;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.Transaction;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 清理逻辑删除的数据，可以在删除前将数据复制到结构相同的归档表中
+ * <p>
+ * 按主键顺序分批处理（keyset 分页，只支持单个主键），每批在一个独立的短事务中完成：查询下一批已删除数据的主键，
+ * 归档（可选），物理删除，提交，因此不会长时间持有锁。通过 {@link #rowsPerSecond(int)} 限制处理速度，
+ * 通过 {@link #listener(Consumer)} 接收每一批的进度，通过 {@link #stop()} 在当前批次完成后停止。
+ * <p>
+ * 使用方式：
+ * <pre>{@code
+ * LogicalPurger purger = new LogicalPurger(sqlSessionFactory)
+ *     .chunkSize(1000)
+ *     .rowsPerSecond(5000)
+ *     .archiveTable(entity -> entity.tableName() + "_archive")
+ *     .listener(progress -> log.info(progress.toString()));
+ * purger.purgeAsync(executor);
+ * }</pre>
+ *
+ * @author liuzh
+ */
+public class LogicalPurger {
+  public static final Log log = LogFactory.getLog(LogicalPurger.class);
+
+  private final SqlSessionFactory                sqlSessionFactory;
+  private       int                              chunkSize    = 1000;
+  private       int                              rowsPerSecond;
+  private       Function<EntityTable, String>    archiveTable = entity -> null;
+  private       Consumer<Progress>               listener     = progress -> {
+  };
+  private final Map<String, Statements>          statements   = new ConcurrentHashMap<>();
+  private volatile boolean                       stopped;
+
+  public LogicalPurger(SqlSessionFactory sqlSessionFactory) {
+    this.sqlSessionFactory = sqlSessionFactory;
+  }
+
+  /**
+   * 每批（每个事务）处理的行数，默认 1000
+   */
+  public LogicalPurger chunkSize(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be greater than 0");
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  /**
+   * 每秒最多处理的行数，小于等于 0 时不限制
+   */
+  public LogicalPurger rowsPerSecond(int rowsPerSecond) {
+    this.rowsPerSecond = rowsPerSecond;
+    return this;
+  }
+
+  /**
+   * 归档表名，归档表的列和实体类对应的表相同，返回 null 时直接删除不归档
+   */
+  public LogicalPurger archiveTable(Function<EntityTable, String> archiveTable) {
+    this.archiveTable = Objects.requireNonNull(archiveTable);
+    return this;
+  }
+
+  /**
+   * 每批处理完成后的进度回调
+   */
+  public LogicalPurger listener(Consumer<Progress> listener) {
+    this.listener = Objects.requireNonNull(listener);
+    return this;
+  }
+
+  /**
+   * 和 {@link SqlSessionFactory#openSession(boolean)} 一样创建一个不自动提交的 Executor，用于执行 LogicalPurger 自己持有的 MappedStatement
+   */
+  private org.apache.ibatis.executor.Executor newExecutor() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    Environment environment = configuration.getEnvironment();
+    Transaction transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+    return configuration.newExecutor(transaction);
+  }
+
+  /**
+   * 在当前批次完成后停止，停止后不能再继续使用
+   */
+  public void stop() {
+    this.stopped = true;
+  }
+
+  /**
+   * 在线程池中清理所有 {@link LogicalMapper} 对应的实体类
+   *
+   * @param executor 线程池
+   * @return 清理结果
+   */
+  public CompletableFuture<Report> purgeAsync(Executor executor) {
+    return CompletableFuture.supplyAsync(this::purgeAll, executor);
+  }
+
+  /**
+   * 依次清理所有 {@link LogicalMapper} 对应的实体类
+   *
+   * @return 清理结果
+   */
+  public Report purgeAll() {
+    Report report = new Report();
+    for (Class<?> entityClass : logicalEntityClasses(sqlSessionFactory.getConfiguration())) {
+      if (stopped) {
+        break;
+      }
+      report.add(purge(entityClass));
+    }
+    return report;
+  }
+
+  /**
+   * 清理一个实体类中逻辑删除的数据
+   *
+   * @param entityClass 实体类，必须有 {@link LogicalColumn} 标记的字段和唯一的主键
+   * @return 清理进度
+   */
+  public Progress purge(Class<?> entityClass) {
+    EntityTable entity = EntityFactory.create(entityClass);
+    Statements statements = statements(entity);
+    Progress progress = new Progress(entityClass);
+    long start = System.nanoTime();
+    Object lastId = null;
+    while (!stopped && !Thread.currentThread().isInterrupted()) {
+      org.apache.ibatis.executor.Executor executor = newExecutor();
+      boolean committed = false;
+      try {
+        Map<String, Object> params = new HashMap<>();
+        params.put("lastId", lastId);
+        params.put("limit", chunkSize);
+        List<Object> ids = executor.query(statements.selectIds, params, RowBounds.DEFAULT,
+            org.apache.ibatis.executor.Executor.NO_RESULT_HANDLER);
+        if (ids.isEmpty()) {
+          break;
+        }
+        params.put("ids", ids);
+        if (statements.archive != null) {
+          progress.archived += executor.update(statements.archive, params);
+        }
+        int rows = executor.update(statements.delete, params);
+        executor.commit(true);
+        committed = true;
+        lastId = ids.get(ids.size() - 1);
+        progress.chunks++;
+        progress.deleted += rows;
+        progress.lastId = lastId;
+        progress.nanos = System.nanoTime() - start;
+        listener.accept(progress);
+        if (ids.size() < chunkSize) {
+          break;
+        }
+      } catch (SQLException e) {
+        throw ExceptionFactory.wrapException("Error purging " + entityClass.getName() + ".  Cause: " + e, e);
+      } finally {
+        executor.close(!committed);
+      }
+      throttle(progress, start);
+    }
+    progress.nanos = System.nanoTime() - start;
+    if (log.isDebugEnabled()) {
+      log.debug(progress.toString());
+    }
+    return progress;
+  }
+
+  /**
+   * 按照 rowsPerSecond 计算到目前为止应该消耗的时间，处理过快时等待
+   */
+  private void throttle(Progress progress, long start) {
+    if (rowsPerSecond <= 0) {
+      return;
+    }
+    long expected = TimeUnit.SECONDS.toNanos(progress.deleted) / rowsPerSecond;
+    long sleep = expected - (System.nanoTime() - start);
+    if (sleep > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(sleep);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * 获取所有继承了 {@link LogicalMapper} 的 Mapper 对应的实体类
+   */
+  static Set<Class<?>> logicalEntityClasses(Configuration configuration) {
+    Set<Class<?>> entityClasses = new LinkedHashSet<>();
+    for (Class<?> mapperType : configuration.getMapperRegistry().getMappers()) {
+      if (!LogicalMapper.class.isAssignableFrom(mapperType)) {
+        continue;
+      }
+      for (Method method : mapperType.getMethods()) {
+        if (method.getName().equals("selectByPrimaryKey")) {
+          EntityClassFinder.find(mapperType, method).ifPresent(entityClasses::add);
+          break;
+        }
+      }
+    }
+    return entityClasses;
+  }
+
+  /**
+   * 获取清理使用的 MappedStatement，每个实体类（和归档表）只创建一次，
+   * 由当前 LogicalPurger 持有，不注册到 Configuration 中
+   */
+  Statements statements(EntityTable entity) {
+    return statements.computeIfAbsent(entity.entityClass().getName() + "." + archiveTable.apply(entity),
+        key -> createStatements(entity));
+  }
+
+  private Statements createStatements(EntityTable entity) {
+    String logicalProperty = entity.getProp(LogicalColumnFactory.LOGICAL_COLUMN);
+    if (logicalProperty == null) {
+      throw new IllegalArgumentException(entity.entityClass().getName() + " has no field marked with @LogicalColumn");
+    }
+    if (entity.idColumns().size() != 1) {
+      throw new IllegalArgumentException(entity.entityClass().getName() + " must have exactly one id column to be purged");
+    }
+    EntityColumn id = entity.idColumns().get(0);
+    EntityColumn logical = entity.columns().stream().filter(c -> c.property().equals(logicalProperty)).findFirst()
+        .orElseThrow(() -> new IllegalStateException("Logical column " + logicalProperty + " does not exist"));
+    String deleteValue = entity.getProp(LogicalColumnFactory.LOGICAL_DELETE);
+    String deleted = logical.column() + ("null".equalsIgnoreCase(deleteValue) ? " IS NULL" : " = " + deleteValue);
+    String idIn = id.column() + " IN <foreach collection=\"ids\" item=\"id\" open=\"(\" separator=\",\" close=\")\">#{id}</foreach>";
+
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    String namespace = LogicalPurger.class.getName() + "." + entity.entityClass().getName().replace('.', '_');
+    Statements statements = new Statements();
+    //各个方言都直接限制这个查询的行数（TOP 写在 SELECT 之后），ORDER BY 不会出现在派生表中
+    statements.selectIds = statement(configuration, namespace + ".selectIds", SqlCommandType.SELECT, id.javaType(),
+        LimitDialect.current().limit("SELECT " + id.column() + " FROM " + entity.tableName()
+            + " WHERE " + deleted
+            + "<if test=\"lastId != null\"> AND " + id.column() + " &gt; #{lastId}</if>"
+            + " ORDER BY " + id.column(), "#{limit}"));
+    String archive = archiveTable.apply(entity);
+    if (archive != null) {
+      String columns = entity.columns().stream().map(EntityColumn::column).collect(Collectors.joining(","));
+      statements.archive = statement(configuration, namespace + ".archive." + archive, SqlCommandType.INSERT, null,
+          "INSERT INTO " + archive + " (" + columns + ") SELECT " + columns + " FROM " + entity.tableName()
+              + " WHERE " + deleted + " AND " + idIn);
+    }
+    //归档和删除时都再次检查逻辑删除状态，查询主键之后被恢复的数据既不归档也不删除
+    statements.delete = statement(configuration, namespace + ".delete", SqlCommandType.DELETE, null,
+        "DELETE FROM " + entity.tableName() + " WHERE " + deleted + " AND " + idIn);
+    return statements;
+  }
+
+  private static MappedStatement statement(Configuration configuration, String id, SqlCommandType type, Class<?> resultType, String script) {
+    SqlSource sqlSource = new XMLLanguageDriver().createSqlSource(configuration, "<script>" + script + "</script>", Map.class);
+    MappedStatement.Builder builder = new MappedStatement.Builder(configuration, id, sqlSource, type);
+    if (resultType != null) {
+      builder.resultMaps(Collections.singletonList(
+          new ResultMap.Builder(configuration, id + "-Inline", resultType, new ArrayList<>()).build()));
+    }
+    return builder.build();
+  }
+
+  static class Statements {
+    MappedStatement selectIds;
+    MappedStatement archive;
+    MappedStatement delete;
+  }
+
+  /**
+   * 一个实体类的清理进度
+   */
+  public static class Progress {
+    private final Class<?> entityClass;
+    private       int      chunks;
+    private       long     deleted;
+    private       long     archived;
+    private       Object   lastId;
+    private       long     nanos;
+
+    Progress(Class<?> entityClass) {
+      this.entityClass = entityClass;
+    }
+
+    public Class<?> getEntityClass() {
+      return entityClass;
+    }
+
+    /**
+     * @return 已经完成的批次（事务）数
+     */
+    public int getChunks() {
+      return chunks;
+    }
+
+    /**
+     * @return 已经删除的行数
+     */
+    public long getDeleted() {
+      return deleted;
+    }
+
+    /**
+     * @return 已经归档的行数
+     */
+    public long getArchived() {
+      return archived;
+    }
+
+    /**
+     * @return 最后处理的主键，可以用于观察进度
+     */
+    public Object getLastId() {
+      return lastId;
+    }
+
+    /**
+     * @return 耗时（毫秒）
+     */
+    public long getMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public String toString() {
+      return "Purge " + entityClass.getSimpleName() + ": " + deleted + " deleted, " + archived + " archived in "
+          + chunks + " chunks, last id " + lastId + ", " + getMillis() + " ms";
+    }
+  }
+
+  /**
+   * 清理结果
+   */
+  public static class Report {
+    private final Map<Class<?>, Progress> entities = new LinkedHashMap<>();
+
+    void add(Progress progress) {
+      entities.put(progress.entityClass, progress);
+    }
+
+    /**
+     * @return 每个实体类的清理进度
+     */
+    public Map<Class<?>, Progress> getEntities() {
+      return Collections.unmodifiableMap(entities);
+    }
+
+    /**
+     * @return 删除的总行数
+     */
+    public long getDeleted() {
+      return entities.values().stream().mapToLong(Progress::getDeleted).sum();
+    }
+
+    @Override
+    public String toString() {
+      return entities.values().stream().map(Progress::toString).collect(Collectors.joining("\n"));
+    }
+  }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.meta;
+
+import io.mybatis.provider.EntityTable;
+
+/**
+ * 编译期生成的实体类元数据，由 mybatis-processor 注解处理器为 {@code @Entity.Table} 实体生成，
+ * 类名为实体类的二进制名加上 {@link StaticEntityTableFactory#SUFFIX}
+ * <p>
+ * 生成的实现直接按照字段顺序创建 {@link EntityTable} 和所有列，运行时不再需要扫描字段和读取注解
+ *
+ * @author liuzh
+ */
+public interface EntityTableMeta {
+
+  /**
+   * 创建实体类信息，返回的实体类信息已经包含所有列，并且 {@link EntityTable#ready()} 为 true
+   *
+   * @return 实体类信息
+   */
+  EntityTable createEntityTable();
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.meta;
+
+import io.mybatis.config.ConfigHelper;
+import io.mybatis.mapper.accessor.AccessorEntityColumnFactory;
+import io.mybatis.mapper.logical.LogicalColumnFactory;
+import io.mybatis.provider.*;
+import io.mybatis.provider.defaults.CachingEntityTableFactory;
+import io.mybatis.provider.defaults.DefaultEntityColumnFactory;
+import io.mybatis.provider.defaults.DefaultEntityTableFactory;
+import io.mybatis.provider.util.ServiceLoaderUtil;
+
+import java.util.Optional;
+
+/**
+ * 使用编译期生成的 {@link EntityTableMeta} 创建实体类信息，存在生成的元数据时不再通过反射扫描字段
+ * <p>
+ * 生成的元数据只等价于默认的 {@link DefaultEntityTableFactory} 和 {@link DefaultEntityColumnFactory}，
+ * 当通过 SPI 注册了其他的实体类或字段工厂（如 JPA 支持）时，为了不绕过这些扩展，会自动回退到默认的反射处理。
+ * <p>
+ * 可以通过 {@code mybatis.mapper.meta.enabled=false} 关闭
+ *
+ * @author liuzh
+ */
+public class StaticEntityTableFactory implements EntityTableFactory {
+  public static final String ENABLED = "mybatis.mapper.meta.enabled";
+  public static final String SUFFIX  = "_EntityMeta";
+
+  /**
+   * 获取实体类对应的生成元数据
+   *
+   * @param entityClass 实体类
+   * @return 生成的元数据，没有时返回空
+   */
+  public static Optional<EntityTableMeta> load(Class<?> entityClass) {
+    ClassLoader classLoader = entityClass.getClassLoader();
+    if (classLoader == null) {
+      return Optional.empty();
+    }
+    try {
+      Class<?> metaClass = Class.forName(entityClass.getName() + SUFFIX, true, classLoader);
+      if (EntityTableMeta.class.isAssignableFrom(metaClass)) {
+        return Optional.of((EntityTableMeta) metaClass.getDeclaredConstructor().newInstance());
+      }
+    } catch (ClassNotFoundException ignore) {
+      //没有生成元数据
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException("Unable to instantiate " + entityClass.getName() + SUFFIX, e);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * 生成的元数据通过该方法直接获取字段，不需要扫描整个类
+   * <p>
+   * 父类可能无法在生成的代码中直接引用（如其他包中的非 public 类），因此通过父类层级定位字段所在的类
+   *
+   * @param entityClass 实体类
+   * @param superLevel  字段所在类的层级，0 为实体类本身，1 为直接父类，依此类推
+   * @param name        字段名
+   * @return 字段
+   */
+  public static EntityField field(Class<?> entityClass, int superLevel, String name) {
+    Class<?> declaringClass = entityClass;
+    for (int i = 0; i < superLevel && declaringClass != null; i++) {
+      declaringClass = declaringClass.getSuperclass();
+    }
+    try {
+      if (declaringClass == null) {
+        throw new NoSuchFieldException(name);
+      }
+      return AccessorEntityColumnFactory.field(entityClass, declaringClass.getDeclaredField(name));
+    } catch (NoSuchFieldException e) {
+      throw new RuntimeException("Generated metadata of " + entityClass.getName()
+          + " is stale, field " + name + " does not exist", e);
+    }
+  }
+
+  @Override
+  public EntityTable createEntityTable(Class<?> entityClass, Chain chain) {
+    if (Holder.ENABLED) {
+      Optional<EntityTableMeta> meta = load(entityClass);
+      if (meta.isPresent()) {
+        return meta.get().createEntityTable();
+      }
+    }
+    return chain.createEntityTable(entityClass);
+  }
+
+  /**
+   * 在缓存工厂之后，其他工厂之前执行
+   */
+  @Override
+  public int getOrder() {
+    return EntityTableFactory.super.getOrder() + 1000;
+  }
+
+  static class Holder {
+    static final boolean ENABLED = ConfigHelper.getBoolean(StaticEntityTableFactory.ENABLED, true) && onlyDefaultFactories();
+
+    private static boolean onlyDefaultFactories() {
+      for (EntityTableFactory factory : ServiceLoaderUtil.getInstances(EntityTableFactory.class)) {
+        if (!(factory instanceof DefaultEntityTableFactory
+            || factory instanceof CachingEntityTableFactory
+            || factory instanceof StaticEntityTableFactory
+            || factory instanceof LogicalColumnFactory)) {
+          return false;
+        }
+      }
+      for (EntityColumnFactory factory : ServiceLoaderUtil.getInstances(EntityColumnFactory.class)) {
+        if (!(factory instanceof DefaultEntityColumnFactory
+            || factory instanceof AccessorEntityColumnFactory
+            || factory instanceof LogicalColumnFactory)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.metrics;
+
+import io.mybatis.config.ConfigHelper;
+import io.mybatis.provider.EntityFactory;
+import io.mybatis.provider.EntityTable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static io.mybatis.mapper.metrics.MapperGuardInterceptor.*;
+
+/**
+ * 单个通用方法的检查规则，第一次执行时根据实体类配置解析并缓存
+ * <p>
+ * 配置的优先级：实体类上的 {@code @Entity.Table(props = @Entity.Prop(name = "guard.maxRows", value = "1000"))}，
+ * mybatis-mapper.properties 中以实体类全限定名为前缀的配置（如 {@code io.example.User.guard.maxRows=1000}），
+ * mybatis-mapper.properties 中的全局配置（如 {@code guard.maxRows=1000}），最后是默认值
+ *
+ * @author liuzh
+ */
+class GuardRule {
+  /**
+   * 需要检查空 Example 的方法，不包含计数、判断存在和聚合等不返回或修改整表数据的方法
+   */
+  private static final Set<String> EXAMPLE_METHODS = new HashSet<>(Arrays.asList(
+      "selectByExample", "selectOneByExample", "selectCursorByExample",
+      "updateByExample", "updateByExampleSelective", "updateByExampleSetValues", "deleteByExample"));
+
+  private final String   statementId;
+  private final Class<?> entityClass;
+  private final long     slowNanos;
+  private final int      maxRows;
+  private final boolean  emptyExample;
+  private final boolean  fail;
+
+  GuardRule(String statementId, Class<?> entityClass) {
+    EntityTable entity = EntityFactory.create(entityClass);
+    this.statementId = statementId;
+    this.entityClass = entityClass;
+    this.slowNanos = Long.parseLong(prop(entity, SLOW_MILLIS, "1000")) * 1000_000L;
+    this.maxRows = Integer.parseInt(prop(entity, MAX_ROWS, "10000"));
+    this.emptyExample = Boolean.parseBoolean(prop(entity, EMPTY_EXAMPLE, "true"))
+        && EXAMPLE_METHODS.contains(statementId.substring(statementId.lastIndexOf('.') + 1));
+    this.fail = Boolean.parseBoolean(prop(entity, FAIL, "false"));
+  }
+
+  private static String prop(EntityTable entity, String key, String defaultValue) {
+    String value = entity.props() != null ? entity.props().get(key) : null;
+    if (value == null) {
+      value = ConfigHelper.getStr(entity.entityClass().getName() + "." + key);
+    }
+    if (value == null) {
+      value = entity.getProp(key, defaultValue);
+    }
+    return value.trim();
+  }
+
+  public String statementId() {
+    return statementId;
+  }
+
+  public Class<?> entityClass() {
+    return entityClass;
+  }
+
+  public boolean isSlow(long nanos) {
+    return slowNanos > 0 && nanos > slowNanos;
+  }
+
+  public long slowMillis() {
+    return slowNanos / 1000_000L;
+  }
+
+  public int maxRows() {
+    return maxRows;
+  }
+
+  public boolean isTooManyRows(long rows) {
+    return maxRows > 0 && rows > maxRows;
+  }
+
+  public boolean checkEmptyExample() {
+    return emptyExample;
+  }
+
+  public boolean fail() {
+    return fail;
+  }
+
+}
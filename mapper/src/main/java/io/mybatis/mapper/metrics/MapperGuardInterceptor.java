@@ -0,0 +1,210 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.metrics;
+
+import io.mybatis.config.ConfigHelper;
+import io.mybatis.mapper.example.Example;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.*;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 检查通用 Mapper 方法的慢 SQL、返回或影响的行数过多以及 ByExample 方法的 Example 条件为空
+ * <p>
+ * 超出限制时输出包含实体类和归一化 SQL（合并空白，折叠 IN 和批量 VALUES 中的占位符）的警告日志，
+ * 配置 {@code guard.fail=true} 时抛出 {@link MapperGuardException}，此时 Example 条件为空会在执行前失败，
+ * 未指定 RowBounds 的查询最多读取 {@code guard.maxRows + 1} 行，避免大结果集耗尽内存。
+ * <p>
+ * 可用配置（可以按实体类配置，参考 {@link GuardRule}）：
+ * <ul>
+ *   <li>guard.slowMillis - 慢 SQL 阈值（毫秒），默认 1000，小于等于 0 时不检查</li>
+ *   <li>guard.maxRows - 返回或影响的最大行数，默认 10000，小于等于 0 时不检查</li>
+ *   <li>guard.emptyExample - 是否检查 ByExample 方法的 Example 条件为空，默认 true</li>
+ *   <li>guard.fail - 超出限制时是否抛出异常，默认 false</li>
+ * </ul>
+ * 可以通过 {@code mybatis.mapper.guard.enabled=false} 关闭检查
+ *
+ * @author liuzh
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+})
+public class MapperGuardInterceptor implements Interceptor {
+  public static final  Log     log           = LogFactory.getLog(MapperGuardInterceptor.class);
+  public static final  String  ENABLED       = "mybatis.mapper.guard.enabled";
+  public static final  String  SLOW_MILLIS   = "guard.slowMillis";
+  public static final  String  MAX_ROWS      = "guard.maxRows";
+  public static final  String  EMPTY_EXAMPLE = "guard.emptyExample";
+  public static final  String  FAIL          = "guard.fail";
+  private static final Pattern WHITESPACE    = Pattern.compile("\\s+");
+  private static final Pattern PLACEHOLDERS  = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+  private static final Pattern VALUES        = Pattern.compile("(\\([^()]*\\))(\\s*,\\s*\\([^()]*\\))+");
+
+  private final Map<String, Optional<GuardRule>> rules = new ConcurrentHashMap<>();
+  private volatile boolean enabled = ConfigHelper.getBoolean(ENABLED, true);
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    if (!enabled) {
+      return invocation.proceed();
+    }
+    Object[] args = invocation.getArgs();
+    MappedStatement ms = (MappedStatement) args[0];
+    Optional<GuardRule> optional = rule(ms);
+    if (!optional.isPresent()) {
+      return invocation.proceed();
+    }
+    GuardRule rule = optional.get();
+    if (rule.checkEmptyExample() && isEmptyExample(args[1])) {
+      violate(rule, ms, args, "Example criteria is empty");
+    }
+    if (rule.fail() && rule.maxRows() > 0 && args.length == 4) {
+      args[2] = limit((RowBounds) args[2], rule.maxRows() + 1);
+    }
+    long start = System.nanoTime();
+    Object result = invocation.proceed();
+    long nanos = System.nanoTime() - start;
+    long rows = rows(result);
+    if (rule.isTooManyRows(rows)) {
+      violate(rule, ms, args, "Rows " + (ms.getSqlCommandType() == SqlCommandType.SELECT ? "returned" : "affected")
+          + " exceeds " + rule.maxRows());
+    }
+    if (rule.isSlow(nanos)) {
+      violate(rule, ms, args, "Slow SQL took " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms (> " + rule.slowMillis() + " ms)");
+    }
+    return result;
+  }
+
+  /**
+   * 限制最多查询的行数，保留调用方指定的 offset，分页插件等使用的 RowBounds 子类不做修改
+   *
+   * @param rowBounds 调用方的 RowBounds
+   * @param limit     最多查询的行数
+   * @return 限制后的 RowBounds
+   */
+  static RowBounds limit(RowBounds rowBounds, int limit) {
+    if (rowBounds == null || rowBounds.getClass() != RowBounds.class || rowBounds.getLimit() <= limit) {
+      return rowBounds;
+    }
+    return new RowBounds(rowBounds.getOffset(), limit);
+  }
+
+  /**
+   * 获取 MappedStatement 对应的检查规则
+   *
+   * @param ms MappedStatement
+   * @return 不是通用方法时返回 {@link Optional#empty()}
+   */
+  private Optional<GuardRule> rule(MappedStatement ms) {
+    return rules.computeIfAbsent(ms.getId(), id -> StatementResolver.entityClass(id).map(entityClass -> new GuardRule(id, entityClass)));
+  }
+
+  /**
+   * 判断 Example 条件是否为空，参数为 null 时同样认为条件为空
+   *
+   * @param parameter 参数
+   * @return 条件为空时返回 true
+   */
+  protected boolean isEmptyExample(Object parameter) {
+    if (parameter instanceof Map && ((Map<?, ?>) parameter).containsKey("example")) {
+      parameter = ((Map<?, ?>) parameter).get("example");
+    }
+    if (parameter == null) {
+      return true;
+    }
+    return parameter instanceof Example && ((Example<?>) parameter).isEmpty();
+  }
+
+  /**
+   * 计算返回或影响的行数
+   *
+   * @param result 执行结果
+   * @return 行数，未知时返回 -1
+   */
+  protected long rows(Object result) {
+    if (result instanceof Collection) {
+      return ((Collection<?>) result).size();
+    } else if (result instanceof Integer) {
+      return Math.max((Integer) result, -1);
+    }
+    return -1;
+  }
+
+  /**
+   * 输出日志或抛出异常
+   *
+   * @param rule    检查规则
+   * @param ms      MappedStatement
+   * @param args    执行参数
+   * @param message 超出的限制
+   */
+  private void violate(GuardRule rule, MappedStatement ms, Object[] args, String message) {
+    String msg = message + ", entity: " + rule.entityClass().getName()
+        + ", statement: " + rule.statementId()
+        + ", sql: " + sqlShape(args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(args[1]));
+    if (rule.fail()) {
+      throw new MapperGuardException(msg);
+    }
+    log.warn(msg);
+  }
+
+  /**
+   * 归一化 SQL，合并空白，折叠 IN 和批量 VALUES 中重复的占位符，相同结构的 SQL 得到相同的结果
+   *
+   * @param boundSql BoundSql
+   * @return 归一化的 SQL
+   */
+  public static String sqlShape(BoundSql boundSql) {
+    String sql = WHITESPACE.matcher(boundSql.getSql()).replaceAll(" ").trim();
+    sql = PLACEHOLDERS.matcher(sql).replaceAll("?, ...");
+    return VALUES.matcher(sql).replaceAll("$1, ...");
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+    String enabled = properties.getProperty("enabled");
+    if (enabled != null) {
+      this.enabled = Boolean.parseBoolean(enabled);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.metrics;
+
+import org.apache.ibatis.mapping.MappedStatement;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Mapper 方法统计信息的注册中心
+ * <p>
+ * 只统计通过 {@code @Lang(Caching.class)} 生成的通用方法（EntityMapper, ExampleMapper, ListMapper, FnMapper,
+ * CursorMapper, LogicalMapper 以及自定义的 Provider 方法），MappedStatement 第一次执行时解析实体类并缓存，
+ * 不是通用方法的 MappedStatement 同样缓存结果，后续不再解析
+ *
+ * @author liuzh
+ */
+public class MapperMetrics {
+  private static final MapperMetrics DEFAULT = new MapperMetrics();
+
+  private final Map<String, Optional<StatementMetrics>> statements = new ConcurrentHashMap<>();
+  private final List<MetricsReporter>                   reporters  = new CopyOnWriteArrayList<>();
+
+  /**
+   * 获取默认实例，{@link MapperMetricsInterceptor} 默认使用该实例
+   *
+   * @return 默认实例
+   */
+  public static MapperMetrics getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * 添加统计信息输出
+   *
+   * @param reporter 统计信息输出
+   */
+  public void addReporter(MetricsReporter reporter) {
+    if (reporter != null && !reporters.contains(reporter)) {
+      reporters.add(reporter);
+    }
+  }
+
+  /**
+   * 是否已经存在指定类型的统计信息输出
+   *
+   * @param reporterType 类型
+   * @return 存在时返回 true
+   */
+  public boolean hasReporter(Class<? extends MetricsReporter> reporterType) {
+    return reporters.stream().anyMatch(reporterType::isInstance);
+  }
+
+  /**
+   * 获取 MappedStatement 对应的统计信息
+   *
+   * @param ms MappedStatement
+   * @return 不是通用方法时返回 {@link Optional#empty()}
+   */
+  public Optional<StatementMetrics> statement(MappedStatement ms) {
+    return statements.computeIfAbsent(ms.getId(), id -> StatementResolver.entityClass(id)
+        .map(entityClass -> new StatementMetrics(id, entityClass, StatementResolver.methodName(id))));
+  }
+
+  /**
+   * 记录一次调用
+   *
+   * @param statement 方法的统计信息
+   * @param nanos     耗时（纳秒）
+   * @param rows      返回或影响的行数，小于 0 时表示未知
+   * @param error     执行时的异常，执行成功时为 null
+   */
+  public void record(StatementMetrics statement, long nanos, long rows, Throwable error) {
+    statement.record(nanos, rows, error == null);
+    for (MetricsReporter reporter : reporters) {
+      reporter.report(statement, nanos, rows, error);
+    }
+  }
+
+  /**
+   * 获取已经记录的所有统计信息
+   *
+   * @return 统计信息快照
+   */
+  public List<StatementMetrics> snapshot() {
+    List<StatementMetrics> list = new ArrayList<>();
+    statements.values().forEach(statement -> statement.filter(s -> s.count() > 0).ifPresent(list::add));
+    list.sort(Comparator.comparing(StatementMetrics::statementId));
+    return list;
+  }
+
+  /**
+   * 清空统计信息
+   */
+  public void clear() {
+    statements.clear();
+  }
+
+}
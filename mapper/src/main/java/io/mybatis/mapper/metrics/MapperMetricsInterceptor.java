@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.metrics;
+
+import io.mybatis.config.ConfigHelper;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.*;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * 统计通用 Mapper 方法的调用次数、耗时和行数
+ * <p>
+ * 使用方式：
+ * <pre>
+ * &lt;plugins&gt;
+ *   &lt;plugin interceptor="io.mybatis.mapper.metrics.MapperMetricsInterceptor"/&gt;
+ * &lt;/plugins&gt;
+ * </pre>
+ * 可以通过 {@code mybatis.mapper.metrics.enabled=false} 关闭统计，关闭后只有一次布尔判断的开销；
+ * 当 classpath 中存在 Micrometer 时，默认将统计信息输出到 {@code Metrics.globalRegistry}，
+ * 可以通过 {@code mybatis.mapper.metrics.micrometer=false} 关闭
+ *
+ * @author liuzh
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+    @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+})
+public class MapperMetricsInterceptor implements Interceptor {
+  public static final String ENABLED    = "mybatis.mapper.metrics.enabled";
+  public static final String MICROMETER = "mybatis.mapper.metrics.micrometer";
+
+  private static final boolean MICROMETER_PRESENT = isPresent("io.micrometer.core.instrument.MeterRegistry");
+
+  private volatile boolean       enabled;
+  private volatile MapperMetrics metrics;
+
+  public MapperMetricsInterceptor() {
+    this(MapperMetrics.getDefault());
+  }
+
+  public MapperMetricsInterceptor(MapperMetrics metrics) {
+    this.metrics = metrics;
+    this.enabled = ConfigHelper.getBoolean(ENABLED, true);
+    if (MICROMETER_PRESENT && ConfigHelper.getBoolean(MICROMETER, true)) {
+      MicrometerMetricsReporter.registerGlobal(metrics);
+    }
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    if (!enabled) {
+      return invocation.proceed();
+    }
+    MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+    Optional<StatementMetrics> statement = metrics.statement(ms);
+    if (!statement.isPresent()) {
+      return invocation.proceed();
+    }
+    long start = System.nanoTime();
+    Object result = null;
+    Throwable error = null;
+    try {
+      result = invocation.proceed();
+      return result;
+    } catch (Throwable t) {
+      error = t;
+      throw t;
+    } finally {
+      metrics.record(statement.get(), System.nanoTime() - start, rows(result), error);
+    }
+  }
+
+  private static boolean isPresent(String className) {
+    try {
+      Resources.classForName(className);
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * 计算返回或影响的行数
+   *
+   * @param result 执行结果
+   * @return 行数，未知时返回 -1
+   */
+  protected long rows(Object result) {
+    if (result instanceof Collection) {
+      return ((Collection<?>) result).size();
+    } else if (result instanceof Integer) {
+      //BatchExecutor 返回负数
+      return Math.max((Integer) result, -1);
+    }
+    return -1;
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+    String enabled = properties.getProperty("enabled");
+    if (enabled != null) {
+      this.enabled = Boolean.parseBoolean(enabled);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public MapperMetrics getMetrics() {
+    return metrics;
+  }
+
+  public void setMetrics(MapperMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+}
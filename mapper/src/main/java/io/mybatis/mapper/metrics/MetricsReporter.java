@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.metrics;
+
+/**
+ * 统计信息输出接口，每次调用结束后执行，实现需要保证线程安全并尽可能轻量
+ *
+ * @author liuzh
+ */
+public interface MetricsReporter {
+
+  /**
+   * 记录一次调用
+   *
+   * @param statement 方法的统计信息
+   * @param nanos     耗时（纳秒）
+   * @param rows      返回或影响的行数，小于 0 时表示未知
+   * @param error     执行时的异常，执行成功时为 null
+   */
+  void report(StatementMetrics statement, long nanos, long rows, Throwable error);
+
+}
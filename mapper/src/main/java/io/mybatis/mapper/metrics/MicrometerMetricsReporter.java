@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.metrics;
+
+import io.micrometer.core.instrument.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将统计信息输出到 Micrometer
+ * <p>
+ * 指标：
+ * <ul>
+ *   <li>mybatis.mapper.calls - 调用耗时（Timer，包含 p50, p99）</li>
+ *   <li>mybatis.mapper.rows - 返回或影响的行数（DistributionSummary）</li>
+ * </ul>
+ * 标签：entity（实体类）, method（方法名）, statement（MappedStatement id）, outcome（success 或 error）
+ *
+ * @author liuzh
+ */
+public class MicrometerMetricsReporter implements MetricsReporter {
+  public static final String CALLS = "mybatis.mapper.calls";
+  public static final String ROWS  = "mybatis.mapper.rows";
+
+  private final MeterRegistry       registry;
+  private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+  public MicrometerMetricsReporter(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * 向 {@link MapperMetrics} 注册输出到 {@link Metrics#globalRegistry} 的实例，重复调用只注册一次
+   *
+   * @param metrics 统计信息注册中心
+   */
+  static void registerGlobal(MapperMetrics metrics) {
+    synchronized (metrics) {
+      if (!metrics.hasReporter(MicrometerMetricsReporter.class)) {
+        metrics.addReporter(new MicrometerMetricsReporter(Metrics.globalRegistry));
+      }
+    }
+  }
+
+  @Override
+  public void report(StatementMetrics statement, long nanos, long rows, Throwable error) {
+    Meters meters = this.meters.computeIfAbsent(statement.statementId(), id -> new Meters(registry, statement));
+    (error == null ? meters.success : meters.error).record(nanos, TimeUnit.NANOSECONDS);
+    if (rows >= 0) {
+      meters.rows.record(rows);
+    }
+  }
+
+  /**
+   * 单个方法对应的指标
+   */
+  private static class Meters {
+    private final Timer               success;
+    private final Timer               error;
+    private final DistributionSummary rows;
+
+    Meters(MeterRegistry registry, StatementMetrics statement) {
+      Tags tags = Tags.of(
+          "entity", statement.entityClass().getName(),
+          "method", statement.method(),
+          "statement", statement.statementId());
+      this.success = timer(registry, tags.and("outcome", "success"));
+      this.error = timer(registry, tags.and("outcome", "error"));
+      this.rows = DistributionSummary.builder(ROWS)
+          .description("Rows returned or affected by mapper method")
+          .tags(tags)
+          .register(registry);
+    }
+
+    private static Timer timer(MeterRegistry registry, Tags tags) {
+      return Timer.builder(CALLS)
+          .description("Mapper method calls")
+          .tags(tags)
+          .publishPercentiles(0.5, 0.99)
+          .register(registry);
+    }
+  }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个 Mapper 方法（MappedStatement）的统计信息
+ *
+ * @author liuzh
+ */
+public class StatementMetrics {
+  private final String           statementId;
+  private final Class<?>         entityClass;
+  private final String           method;
+  private final LongAdder        count     = new LongAdder();
+  private final LongAdder        errors    = new LongAdder();
+  private final LongAdder        rows      = new LongAdder();
+  private final LongAdder        totalTime = new LongAdder();
+  private final AtomicLong       maxTime   = new AtomicLong();
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  public StatementMetrics(String statementId, Class<?> entityClass, String method) {
+    this.statementId = statementId;
+    this.entityClass = entityClass;
+    this.method = method;
+  }
+
+  /**
+   * 记录一次调用
+   *
+   * @param nanos   耗时（纳秒）
+   * @param rows    返回或影响的行数，小于 0 时表示未知（如游标查询）
+   * @param success 是否执行成功
+   */
+  public void record(long nanos, long rows, boolean success) {
+    count.increment();
+    if (!success) {
+      errors.increment();
+    }
+    if (rows > 0) {
+      this.rows.add(rows);
+    }
+    totalTime.add(nanos);
+    maxTime.accumulateAndGet(nanos, Math::max);
+    histogram.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+  }
+
+  /**
+   * @return MappedStatement 的 id
+   */
+  public String statementId() {
+    return statementId;
+  }
+
+  /**
+   * @return 实体类
+   */
+  public Class<?> entityClass() {
+    return entityClass;
+  }
+
+  /**
+   * @return 方法名
+   */
+  public String method() {
+    return method;
+  }
+
+  /**
+   * @return 调用次数
+   */
+  public long count() {
+    return count.sum();
+  }
+
+  /**
+   * @return 执行出错的次数
+   */
+  public long errors() {
+    return errors.sum();
+  }
+
+  /**
+   * @return 累计返回或影响的行数
+   */
+  public long rows() {
+    return rows.sum();
+  }
+
+  /**
+   * 累计耗时
+   *
+   * @param unit 时间单位
+   * @return 累计耗时
+   */
+  public long totalTime(TimeUnit unit) {
+    return unit.convert(totalTime.sum(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * 最大耗时
+   *
+   * @param unit 时间单位
+   * @return 最大耗时
+   */
+  public long maxTime(TimeUnit unit) {
+    return unit.convert(maxTime.get(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * 平均耗时
+   *
+   * @param unit 时间单位
+   * @return 平均耗时
+   */
+  public long meanTime(TimeUnit unit) {
+    long count = count();
+    return count == 0 ? 0 : totalTime(unit) / count;
+  }
+
+  /**
+   * 耗时分位值（近似值，误差不超过 25%）
+   *
+   * @param percentile 分位，例如 0.5, 0.99
+   * @param unit       时间单位
+   * @return 耗时分位值
+   */
+  public long percentile(double percentile, TimeUnit unit) {
+    return unit.convert(histogram.percentile(percentile), TimeUnit.MICROSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return statementId
+        + " [entity=" + (entityClass != null ? entityClass.getName() : "")
+        + ", count=" + count()
+        + ", errors=" + errors()
+        + ", rows=" + rows()
+        + ", mean=" + meanTime(TimeUnit.MICROSECONDS) + "us"
+        + ", p50=" + percentile(0.5, TimeUnit.MICROSECONDS) + "us"
+        + ", p99=" + percentile(0.99, TimeUnit.MICROSECONDS) + "us"
+        + ", max=" + maxTime(TimeUnit.MICROSECONDS) + "us]";
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.metrics;
+
+import io.mybatis.provider.Caching;
+import io.mybatis.provider.EntityClassFinder;
+import org.apache.ibatis.annotations.Lang;
+import org.apache.ibatis.io.Resources;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * 根据 MappedStatement 的 id 解析通用方法对应的实体类
+ *
+ * @author liuzh
+ */
+public class StatementResolver {
+
+  /**
+   * 获取方法名
+   *
+   * @param statementId MappedStatement 的 id
+   * @return 方法名
+   */
+  public static String methodName(String statementId) {
+    return statementId.substring(statementId.lastIndexOf('.') + 1);
+  }
+
+  /**
+   * 根据 MappedStatement 的 id 解析接口、方法和实体类，只解析 {@code @Lang(Caching.class)} 生成的方法
+   *
+   * @param statementId MappedStatement 的 id
+   * @return 不是通用方法时返回 {@link Optional#empty()}
+   */
+  public static Optional<Class<?>> entityClass(String statementId) {
+    int index = statementId.lastIndexOf('.');
+    if (index <= 0) {
+      return Optional.empty();
+    }
+    String methodName = statementId.substring(index + 1);
+    Class<?> mapperType;
+    try {
+      mapperType = Resources.classForName(statementId.substring(0, index));
+    } catch (ClassNotFoundException e) {
+      return Optional.empty();
+    }
+    for (Method method : mapperType.getMethods()) {
+      if (method.getName().equals(methodName)
+          && method.isAnnotationPresent(Lang.class)
+          && method.getAnnotation(Lang.class).value() == Caching.class) {
+        return EntityClassFinder.find(mapperType, method);
+      }
+    }
+    return Optional.empty();
+  }
+
+}
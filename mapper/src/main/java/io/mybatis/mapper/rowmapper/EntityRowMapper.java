@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.rowmapper;
+
+import io.mybatis.mapper.accessor.AccessorEntityField;
+import io.mybatis.mapper.accessor.FieldAccessor;
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityFactory;
+import io.mybatis.provider.EntityTable;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * 自动生成的 resultMap（{@code autoResultMap = true}）对应的快速行映射
+ * <p>
+ * 每个 resultMap 只解析一次列名对应的 TypeHandler 和字段读写器，每次查询根据结果集的列顺序生成按下标读取的映射数组，
+ * 每一行直接按下标读取列值并调用 setter，不再经过 MetaObject、ObjectFactory 和按列名查找 TypeHandler 的过程
+ *
+ * @author liuzh
+ */
+public class EntityRowMapper {
+  /**
+   * 自动生成的 resultMap id 后缀
+   */
+  public static final String RESULT_MAP_SUFFIX = ".BaseProviderResultMap";
+
+  protected final Configuration         configuration;
+  protected final Class<?>              type;
+  protected final Supplier<Object>      instantiator;
+  protected final Map<String, Property> properties;
+  protected final boolean               callSettersOnNulls;
+  protected final boolean               returnInstanceForEmptyRow;
+
+  protected EntityRowMapper(Configuration configuration, ResultMap resultMap) {
+    this.configuration = configuration;
+    this.type = resultMap.getType();
+    this.instantiator = instantiator(configuration.getObjectFactory(), type);
+    this.callSettersOnNulls = configuration.isCallSettersOnNulls();
+    this.returnInstanceForEmptyRow = configuration.isReturnInstanceForEmptyRow();
+    this.properties = new HashMap<>();
+    EntityTable entityTable = EntityFactory.create(type);
+    for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+      for (EntityColumn column : entityTable.columns()) {
+        if (column.property().equals(mapping.getProperty())) {
+          FieldAccessor accessor = column.field() instanceof AccessorEntityField
+              ? ((AccessorEntityField) column.field()).getAccessor()
+              : FieldAccessor.of(type, column.field().getField());
+          properties.put(mapping.getColumn().toUpperCase(Locale.ENGLISH),
+              new Property(mapping.getTypeHandler(), accessor, column.field().getType().isPrimitive()));
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * 判断 resultMap 能否使用快速映射，不能使用时返回 null
+   *
+   * @param configuration 配置
+   * @param resultMap     resultMap
+   * @return 快速映射
+   */
+  public static EntityRowMapper of(Configuration configuration, ResultMap resultMap) {
+    if (!resultMap.getId().endsWith(RESULT_MAP_SUFFIX)
+        || resultMap.hasNestedResultMaps()
+        || resultMap.hasNestedQueries()
+        || resultMap.getDiscriminator() != null
+        || !resultMap.getConstructorResultMappings().isEmpty()) {
+      return null;
+    }
+    for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+      if (mapping.getTypeHandler() == null || mapping.getColumn() == null
+          || mapping.isCompositeResult() || mapping.getResultSet() != null) {
+        return null;
+      }
+    }
+    EntityRowMapper rowMapper = new EntityRowMapper(configuration, resultMap);
+    return rowMapper.properties.size() == resultMap.getPropertyResultMappings().size() ? rowMapper : null;
+  }
+
+  /**
+   * 使用默认 ObjectFactory 时直接调用无参构造方法
+   */
+  protected static Supplier<Object> instantiator(ObjectFactory objectFactory, Class<?> type) {
+    if (objectFactory.getClass() == DefaultObjectFactory.class && Modifier.isPublic(type.getModifiers())) {
+      try {
+        Constructor<?> constructor = type.getConstructor();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        if (Class.forName(type.getName(), false, EntityRowMapper.class.getClassLoader()) == type) {
+          CallSite callSite = LambdaMetafactory.metafactory(lookup, "get",
+              MethodType.methodType(Supplier.class),
+              MethodType.methodType(Object.class),
+              lookup.unreflectConstructor(constructor),
+              MethodType.methodType(type));
+          @SuppressWarnings("unchecked")
+          Supplier<Object> supplier = (Supplier<Object>) callSite.getTarget().invokeExact();
+          return supplier;
+        }
+      } catch (Throwable ignore) {
+        //使用 ObjectFactory
+      }
+    }
+    return () -> objectFactory.create(type);
+  }
+
+  /**
+   * 根据结果集的列生成按下标读取的映射，存在无法映射的列时返回 null，由 MyBatis 默认方式处理
+   *
+   * @param rs 结果集
+   * @return 按列下标排列的属性，下标从 1 开始
+   */
+  public Property[] plan(ResultSet rs) throws SQLException {
+    ResultSetMetaData metaData = rs.getMetaData();
+    int count = metaData.getColumnCount();
+    Property[] plan = new Property[count + 1];
+    for (int i = 1; i <= count; i++) {
+      String label = configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i);
+      Property property = properties.get(label.toUpperCase(Locale.ENGLISH));
+      if (property == null) {
+        return null;
+      }
+      plan[i] = property;
+    }
+    return plan;
+  }
+
+  /**
+   * 映射当前行
+   *
+   * @param rs   结果集
+   * @param plan 按列下标排列的属性
+   * @return 实体对象，所有列都为空时和 MyBatis 一样根据 returnInstanceForEmptyRow 返回 null
+   */
+  public Object map(ResultSet rs, Property[] plan) throws SQLException {
+    Object row = instantiator.get();
+    boolean foundValues = false;
+    for (int i = 1; i < plan.length; i++) {
+      Property property = plan[i];
+      Object value = property.typeHandler.getResult(rs, i);
+      if (value != null) {
+        foundValues = true;
+      }
+      if (value != null || (callSettersOnNulls && !property.primitive)) {
+        property.accessor.set(row, value);
+      }
+    }
+    return foundValues || returnInstanceForEmptyRow ? row : null;
+  }
+
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * 列对应的属性
+   */
+  public static class Property {
+    protected final TypeHandler<?> typeHandler;
+    protected final FieldAccessor  accessor;
+    protected final boolean        primitive;
+
+    public Property(TypeHandler<?> typeHandler, FieldAccessor accessor, boolean primitive) {
+      this.typeHandler = typeHandler;
+      this.accessor = accessor;
+      this.primitive = primitive;
+    }
+  }
+
+}
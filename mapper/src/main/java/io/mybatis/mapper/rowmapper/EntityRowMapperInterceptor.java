@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.rowmapper;
+
+import io.mybatis.config.ConfigHelper;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.plugin.*;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 通用方法返回实体类（使用自动生成的 resultMap）时，使用 {@link EntityRowMapper} 映射结果
+ * <p>
+ * 使用方式：
+ * <pre>
+ * &lt;plugins&gt;
+ *   &lt;plugin interceptor="io.mybatis.mapper.rowmapper.EntityRowMapperInterceptor"/&gt;
+ * &lt;/plugins&gt;
+ * </pre>
+ * 只处理单个结果集、没有 ResultHandler、没有分页 RowBounds 的查询，结果集中存在 resultMap 之外的列时也交给 MyBatis 处理。
+ * 可以通过 {@code mybatis.mapper.rowMapper.enabled=false} 关闭
+ *
+ * @author liuzh
+ */
+@Intercepts({
+    @Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class}),
+})
+public class EntityRowMapperInterceptor implements Interceptor {
+  public static final String ENABLED = "mybatis.mapper.rowMapper.enabled";
+
+  private static final Field MAPPED_STATEMENT = field("mappedStatement");
+  private static final Field ROW_BOUNDS       = field("rowBounds");
+  private static final Field RESULT_HANDLER   = field("resultHandler");
+
+  private final Map<ResultMap, Optional<EntityRowMapper>> rowMappers = new ConcurrentHashMap<>();
+
+  private volatile boolean enabled = ConfigHelper.getBoolean(ENABLED, true);
+
+  private static Field field(String name) {
+    try {
+      Field field = DefaultResultSetHandler.class.getDeclaredField(name);
+      field.setAccessible(true);
+      return field;
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    if (!enabled || MAPPED_STATEMENT == null || !(invocation.getTarget() instanceof DefaultResultSetHandler)) {
+      return invocation.proceed();
+    }
+    Object handler = invocation.getTarget();
+    MappedStatement ms = (MappedStatement) MAPPED_STATEMENT.get(handler);
+    if (ms.getResultMaps().size() != 1 || ms.getResultSets() != null
+        || RESULT_HANDLER.get(handler) != null || ROW_BOUNDS.get(handler) != RowBounds.DEFAULT) {
+      return invocation.proceed();
+    }
+    ResultMap resultMap = ms.getResultMaps().get(0);
+    Optional<EntityRowMapper> rowMapper = rowMappers.computeIfAbsent(resultMap,
+        rm -> Optional.ofNullable(EntityRowMapper.of(ms.getConfiguration(), rm)));
+    if (!rowMapper.isPresent()) {
+      return invocation.proceed();
+    }
+    Statement stmt = (Statement) invocation.getArgs()[0];
+    ResultSet rs = stmt.getResultSet();
+    if (rs == null) {
+      return invocation.proceed();
+    }
+    EntityRowMapper.Property[] plan = rowMapper.get().plan(rs);
+    if (plan == null) {
+      return invocation.proceed();
+    }
+    List<Object> list = new ArrayList<>();
+    try {
+      while (!rs.isClosed() && rs.next()) {
+        list.add(rowMapper.get().map(rs, plan));
+      }
+    } finally {
+      closeResultSet(rs);
+    }
+    return list;
+  }
+
+  private void closeResultSet(ResultSet rs) {
+    try {
+      rs.close();
+    } catch (SQLException ignore) {
+      //和 MyBatis 一样忽略
+    }
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+    String enabled = properties.getProperty("enabled");
+    if (enabled != null) {
+      this.enabled = Boolean.parseBoolean(enabled);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+}
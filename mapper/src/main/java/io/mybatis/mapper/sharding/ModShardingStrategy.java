@@ -0,0 +1,31 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.sharding;
+
+/**
+ * 默认的分片策略，整数取模，其他类型使用 hashCode 取模
+ *
+ * @author liuzh
+ */
+public class ModShardingStrategy implements ShardingStrategy {
+
+  @Override
+  public int shard(Object value, int shards) {
+    long key = value instanceof Number ? ((Number) value).longValue() : value.hashCode();
+    return (int) Math.floorMod(key, (long) shards);
+  }
+
+}
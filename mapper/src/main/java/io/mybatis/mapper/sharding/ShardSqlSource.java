@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.sharding;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * 将逻辑表名替换为物理表名的 SqlSource，通用方法生成的 SQL 仍然按逻辑表缓存，每次执行时只替换表名
+ *
+ * @author liuzh
+ */
+public class ShardSqlSource implements SqlSource {
+  private final Configuration configuration;
+  private final SqlSource     delegate;
+  private final ShardingTable shardingTable;
+  private final String        table;
+
+  public ShardSqlSource(Configuration configuration, SqlSource delegate, ShardingTable shardingTable, String table) {
+    this.configuration = configuration;
+    this.delegate = delegate;
+    this.shardingTable = shardingTable;
+    this.table = table;
+  }
+
+  /**
+   * 替换 BoundSql 中的表名
+   *
+   * @param configuration 配置
+   * @param boundSql      逻辑表的 BoundSql
+   * @param shardingTable 分表信息
+   * @param table         物理表名
+   * @return 物理表的 BoundSql
+   */
+  public static BoundSql rewrite(Configuration configuration, BoundSql boundSql, ShardingTable shardingTable, String table) {
+    BoundSql shardBoundSql = new BoundSql(configuration, shardingTable.rewrite(boundSql.getSql(), table),
+        boundSql.getParameterMappings(), boundSql.getParameterObject());
+    boundSql.getAdditionalParameters().forEach(shardBoundSql::setAdditionalParameter);
+    return shardBoundSql;
+  }
+
+  @Override
+  public BoundSql getBoundSql(Object parameterObject) {
+    return rewrite(configuration, delegate.getBoundSql(parameterObject), shardingTable, table);
+  }
+
+  /**
+   * 物理表名
+   */
+  public String getTable() {
+    return table;
+  }
+
+}
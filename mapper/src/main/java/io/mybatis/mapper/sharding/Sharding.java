@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.sharding;
+
+import java.lang.annotation.*;
+
+/**
+ * 分表配置，按照分片键的值将数据分散到多张结构相同的物理表中，例如按 userId 分为 order_00 ~ order_63：
+ * <pre>{@code
+ * @Sharding(property = "userId", shards = 64)
+ * @Entity.Table("order")
+ * public class Order {}
+ * }</pre>
+ * 也可以通过表属性 {@code sharding.property}、{@code sharding.shards}、{@code sharding.format}、{@code sharding.strategy} 配置，
+ * 需要注册 {@link ShardingInterceptor}
+ *
+ * @author liuzh
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface Sharding {
+
+  /**
+   * 分片键对应的字段名
+   */
+  String property();
+
+  /**
+   * 分片数量
+   */
+  int shards();
+
+  /**
+   * 物理表名格式，参数依次为逻辑表名和分片序号
+   */
+  String format() default "%s_%02d";
+
+  /**
+   * 根据分片键计算分片序号的策略
+   */
+  Class<? extends ShardingStrategy> strategy() default ModShardingStrategy.class;
+
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.sharding;
+
+import io.mybatis.mapper.example.Example;
+import io.mybatis.mapper.metrics.StatementResolver;
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityFactory;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.*;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 分表拦截器，根据 {@link ShardingTable} 将通用方法路由到物理表执行
+ * <p>
+ * 通用方法生成的 SQL 仍然使用逻辑表名缓存（{@code SqlScript.caching} 不受影响），执行时为每张物理表创建一个
+ * {@link ShardSqlSource} 的 MappedStatement 副本（id 不变），一级和二级缓存的 CacheKey 包含替换后的 SQL，因此不同物理表的结果不会混淆。
+ * <p>
+ * 批量方法（{@code entityList}）中的实体按照分片键拆分，每张物理表只写入自己的实体。无法确定分片键时：
+ * <ul>
+ *   <li>insert 抛出异常</li>
+ *   <li>update 和 delete 在所有物理表中执行，返回影响行数之和</li>
+ *   <li>查询在所有物理表中执行（scatter-gather），合并结果后按照 SQL 的 ORDER BY 重新排序（null 在前），
+ *   计数方法返回各表之和，exists 方法任意一张表存在即为 true，RowBounds 在合并后生效，详见 {@link #merge}</li>
+ *   <li>无法合并各表结果的查询（聚合查询 selectAggregateByExample、estimateCount、distinct 计数）以及游标查询抛出异常，
+ *   这些查询需要包含分片键，只访问一张物理表</li>
+ * </ul>
+ * 默认在当前 SqlSession 中依次查询各个物理表，通过 {@link #ShardingInterceptor(java.util.concurrent.Executor)}
+ * 指定线程池时并行查询，此时每个物理表使用独立的自动提交连接，不在当前事务中。
+ * 不支持 LIMIT 等在各表中分别生效的条件（如 Example 的 endSql）。
+ *
+ * @author liuzh
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+    @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+})
+public class ShardingInterceptor implements Interceptor {
+  private static final Pattern ORDER_BY  = Pattern.compile("\\sORDER\\s+BY\\s", Pattern.CASE_INSENSITIVE);
+  private static final Pattern ORDER_END = Pattern.compile("\\s(LIMIT|OFFSET|FETCH)\\s", Pattern.CASE_INSENSITIVE);
+
+  private final java.util.concurrent.Executor                      parallelExecutor;
+  private final Map<String, Optional<ShardingTable>>               shardingTables = new ConcurrentHashMap<>();
+  private final Map<MappedStatement, Map<String, MappedStatement>> statements     = new ConcurrentHashMap<>();
+
+  public ShardingInterceptor() {
+    this(null);
+  }
+
+  /**
+   * @param parallelExecutor 并行查询各个物理表的线程池
+   */
+  public ShardingInterceptor(java.util.concurrent.Executor parallelExecutor) {
+    this.parallelExecutor = parallelExecutor;
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    Object[] args = invocation.getArgs();
+    MappedStatement ms = (MappedStatement) args[0];
+    if (ms.getSqlSource() instanceof ShardSqlSource) {
+      return invocation.proceed();
+    }
+    Optional<ShardingTable> optional = shardingTables.computeIfAbsent(ms.getId(),
+        id -> StatementResolver.entityClass(id).map(EntityFactory::create).flatMap(ShardingTable::of));
+    if (!optional.isPresent()) {
+      return invocation.proceed();
+    }
+    ShardingTable shardingTable = optional.get();
+    Object parameter = args[1];
+    Executor executor = (Executor) invocation.getTarget();
+    if (ms.getSqlCommandType() == SqlCommandType.INSERT && shardingTable.values(parameter) == null) {
+      throw new IllegalArgumentException("Sharding property " + shardingTable.getColumn().property()
+          + " of " + shardingTable.getEntity().entityClass().getName() + " cannot be null when inserting");
+    }
+    if (invocation.getMethod().getName().equals("queryCursor")) {
+      Set<String> tables = shardingTable.route(parameter);
+      if (tables.size() != 1) {
+        throw new IllegalStateException("Cursor query " + ms.getId() + " must be routed to a single table by "
+            + shardingTable.getColumn().property() + ", but was routed to " + tables);
+      }
+      return executor.queryCursor(statement(ms, shardingTable, tables.iterator().next(), parameter), parameter, (RowBounds) args[2]);
+    }
+    if (args.length == 2) {
+      int rows = 0;
+      for (Map.Entry<String, Object> partition : shardingTable.partition(parameter).entrySet()) {
+        rows += executor.update(statement(ms, shardingTable, partition.getKey(), partition.getValue()), partition.getValue());
+      }
+      return rows;
+    }
+    Set<String> tables = shardingTable.route(parameter);
+    RowBounds rowBounds = (RowBounds) args[2];
+    ResultHandler<?> resultHandler = (ResultHandler<?>) args[3];
+    BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : null;
+    if (tables.size() == 1) {
+      return query(executor, shardingTable, tables.iterator().next(), ms, parameter, rowBounds, resultHandler, boundSql);
+    }
+    checkMergeable(ms, shardingTable, parameter, tables);
+    //分别查询各个物理表时需要包含 offset 之前的数据，合并排序后再跳过
+    RowBounds shardRowBounds = rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET && rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT
+        ? rowBounds : new RowBounds(0, (int) Math.min((long) rowBounds.getOffset() + rowBounds.getLimit(), Integer.MAX_VALUE));
+    List<List<Object>> results = new ArrayList<>(tables.size());
+    if (parallelExecutor != null && resultHandler == null && boundSql == null) {
+      List<CompletableFuture<List<Object>>> futures = tables.stream().map(table -> CompletableFuture.supplyAsync(() ->
+          parallelQuery(statement(ms, shardingTable, table, parameter), parameter, shardRowBounds), parallelExecutor)
+      ).collect(Collectors.toList());
+      try {
+        for (CompletableFuture<List<Object>> future : futures) {
+          results.add(future.join());
+        }
+      } catch (CompletionException e) {
+        throw e.getCause() != null ? e.getCause() : e;
+      }
+    } else {
+      for (String table : tables) {
+        results.add(query(executor, shardingTable, table, ms, parameter, shardRowBounds, resultHandler, boundSql));
+      }
+    }
+    String sql = boundSql != null ? boundSql.getSql() : ms.getBoundSql(parameter).getSql();
+    return merge(ms, shardingTable, results, sql, rowBounds);
+  }
+
+  /**
+   * 获取物理表对应的 MappedStatement
+   */
+  protected MappedStatement statement(MappedStatement ms, ShardingTable shardingTable, String table, Object parameter) {
+    return statements.computeIfAbsent(ms, key -> new ConcurrentHashMap<>()).computeIfAbsent(table, key -> {
+      //通用方法第一次生成 SQL 时才会配置主键生成等信息，复制之前先生成一次
+      ms.getBoundSql(parameter);
+      Configuration configuration = ms.getConfiguration();
+      MappedStatement.Builder builder = new MappedStatement.Builder(configuration, ms.getId(),
+          new ShardSqlSource(configuration, ms.getSqlSource(), shardingTable, table), ms.getSqlCommandType())
+          .resource(ms.getResource())
+          .fetchSize(ms.getFetchSize())
+          .timeout(ms.getTimeout())
+          .statementType(ms.getStatementType())
+          .keyGenerator(ms.getKeyGenerator())
+          .databaseId(ms.getDatabaseId())
+          .lang(ms.getLang())
+          .resultOrdered(ms.isResultOrdered())
+          .resultSetType(ms.getResultSetType())
+          .parameterMap(ms.getParameterMap())
+          .resultMaps(ms.getResultMaps())
+          .flushCacheRequired(ms.isFlushCacheRequired())
+          .useCache(ms.isUseCache())
+          .cache(ms.getCache());
+      if (ms.getKeyProperties() != null) {
+        builder.keyProperty(String.join(",", ms.getKeyProperties()));
+      }
+      if (ms.getKeyColumns() != null) {
+        builder.keyColumn(String.join(",", ms.getKeyColumns()));
+      }
+      if (ms.getResultSets() != null) {
+        builder.resultSets(String.join(",", ms.getResultSets()));
+      }
+      return builder.build();
+    });
+  }
+
+  /**
+   * 在当前 SqlSession 中查询物理表，CacheKey 根据替换表名后的 SQL 生成
+   */
+  protected List<Object> query(Executor executor, ShardingTable shardingTable, String table, MappedStatement ms, Object parameter,
+                               RowBounds rowBounds, ResultHandler<?> resultHandler, BoundSql boundSql) throws SQLException {
+    MappedStatement shardMs = statement(ms, shardingTable, table, parameter);
+    BoundSql shardBoundSql = boundSql != null
+        ? ShardSqlSource.rewrite(ms.getConfiguration(), boundSql, shardingTable, table) : shardMs.getBoundSql(parameter);
+    CacheKey cacheKey = executor.createCacheKey(shardMs, parameter, rowBounds, shardBoundSql);
+    return executor.query(shardMs, parameter, rowBounds, resultHandler, cacheKey, shardBoundSql);
+  }
+
+  /**
+   * 使用独立的连接查询物理表
+   */
+  protected List<Object> parallelQuery(MappedStatement shardMs, Object parameter, RowBounds rowBounds) {
+    Configuration configuration = shardMs.getConfiguration();
+    Environment environment = configuration.getEnvironment();
+    Executor executor = configuration.newExecutor(
+        environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, true), ExecutorType.SIMPLE);
+    try {
+      return executor.query(shardMs, parameter, rowBounds, Executor.NO_RESULT_HANDLER);
+    } catch (SQLException e) {
+      throw new CompletionException(e);
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  /**
+   * 检查查询各个物理表的结果能否合并，聚合查询（分组、sum、avg 等需要重新聚合）、基于统计信息的估算行数
+   * 和 distinct 计数（同一个值可能出现在多张表中）的结果不能直接合并，抛出异常
+   *
+   * @param ms            查询方法
+   * @param shardingTable 分表信息
+   * @param parameter     参数
+   * @param tables        路由到的物理表
+   */
+  protected void checkMergeable(MappedStatement ms, ShardingTable shardingTable, Object parameter, Set<String> tables) {
+    String methodName = StatementResolver.methodName(ms.getId());
+    String reason = null;
+    if (methodName.equals("selectAggregateByExample")) {
+      reason = "aggregate results cannot be merged";
+    } else if (methodName.equals("estimateCount")) {
+      reason = "table statistics cannot be merged";
+    } else if (methodName.startsWith("count")) {
+      Object example = parameter instanceof Map && ((Map<?, ?>) parameter).containsKey("example")
+          ? ((Map<?, ?>) parameter).get("example") : parameter;
+      if (example instanceof Example && ((Example<?>) example).isDistinct()) {
+        reason = "distinct counts cannot be summed";
+      }
+    }
+    if (reason != null) {
+      throw new IllegalStateException(ms.getId() + " is routed to " + tables + ", but " + reason
+          + ", add a " + shardingTable.getColumn().property() + " condition to query a single table");
+    }
+  }
+
+  /**
+   * 合并各个物理表的查询结果
+   * <p>
+   * 计数方法（count 开头的方法和 selectCount）返回各表之和，exists 开头的方法任意一张表存在即返回 true，
+   * 其他查询合并所有结果，无法按照 ORDER BY 对合并后的结果排序时抛出异常，不会返回顺序错误的数据
+   *
+   * @param ms            查询方法
+   * @param shardingTable 分表信息
+   * @param results       各个物理表的结果
+   * @param sql           逻辑表的 SQL，用于获取排序规则
+   * @param rowBounds     分页
+   * @return 合并后的结果
+   */
+  protected List<Object> merge(MappedStatement ms, ShardingTable shardingTable, List<List<Object>> results, String sql, RowBounds rowBounds) {
+    String methodName = StatementResolver.methodName(ms.getId());
+    List<Object> merged = results.stream().flatMap(List::stream).collect(Collectors.toCollection(ArrayList::new));
+    if (methodName.startsWith("count") || methodName.equals("selectCount")) {
+      long sum = merged.stream().filter(Objects::nonNull).mapToLong(value -> ((Number) value).longValue()).sum();
+      Class<?> resultType = ms.getResultMaps().isEmpty() ? null : ms.getResultMaps().get(0).getType();
+      Object total = resultType == Integer.class || resultType == int.class ? (Object) Math.toIntExact(sum) : (Object) sum;
+      return new ArrayList<>(Collections.singletonList(total));
+    }
+    if (methodName.startsWith("exists")) {
+      boolean exists = merged.stream().anyMatch(value -> value instanceof Boolean ? (Boolean) value
+          : value instanceof Number && ((Number) value).longValue() > 0);
+      return new ArrayList<>(Collections.singletonList(exists));
+    }
+    Comparator<Object> comparator = comparator(ms, shardingTable, sql);
+    if (comparator != null) {
+      Class<?> entityClass = shardingTable.getEntity().entityClass();
+      if (!merged.stream().allMatch(entityClass::isInstance)) {
+        throw new IllegalStateException("Unable to sort merged results of " + ms.getId()
+            + ", only " + entityClass.getName() + " results can be sorted across shards");
+      }
+      merged.sort(comparator);
+    }
+    int from = Math.min(rowBounds.getOffset(), merged.size());
+    int to = (int) Math.min((long) from + rowBounds.getLimit(), merged.size());
+    return from == 0 && to == merged.size() ? merged : new ArrayList<>(merged.subList(from, to));
+  }
+
+  /**
+   * 根据 SQL 最后的 ORDER BY 生成排序规则，只支持实体类中的列，存在其他排序项时抛出异常
+   *
+   * @return 没有排序时返回 null
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  protected Comparator<Object> comparator(MappedStatement ms, ShardingTable shardingTable, String sql) {
+    Matcher matcher = ORDER_BY.matcher(sql);
+    int start = -1;
+    while (matcher.find()) {
+      start = matcher.end();
+    }
+    if (start < 0) {
+      return null;
+    }
+    String orderBy = sql.substring(start);
+    Matcher end = ORDER_END.matcher(orderBy);
+    if (end.find()) {
+      orderBy = orderBy.substring(0, end.start());
+    }
+    Comparator<Object> comparator = null;
+    for (String item : orderBy.split(",")) {
+      String[] parts = item.trim().split("\\s+");
+      String name = parts[0].substring(parts[0].lastIndexOf('.') + 1);
+      EntityColumn entityColumn = shardingTable.getEntity().columns().stream()
+          .filter(c -> c.column().equalsIgnoreCase(name) || c.property().equalsIgnoreCase(name)).findFirst()
+          .orElseThrow(() -> new IllegalStateException("Unable to sort merged results of " + ms.getId()
+              + ", ORDER BY " + item.trim() + " is not a column of " + shardingTable.getEntity().entityClass().getName()));
+      Comparator<Object> next = Comparator.comparing(entity -> (Comparable) entityColumn.field().get(entity),
+          Comparator.nullsFirst(Comparator.naturalOrder()));
+      if (parts.length > 1 && parts[1].equalsIgnoreCase("DESC")) {
+        next = next.reversed();
+      }
+      comparator = comparator == null ? next : comparator.thenComparing(next);
+    }
+    return comparator;
+  }
+
+  @Override
+  public Object plugin(Object target) {
+    return Plugin.wrap(target, this);
+  }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.sharding;
+
+/**
+ * 分片策略，根据分片键的值计算分片序号，实现类需要有无参构造方法
+ *
+ * @author liuzh
+ */
+public interface ShardingStrategy {
+
+  /**
+   * 计算分片序号
+   *
+   * @param value  分片键的值，不为 null
+   * @param shards 分片数量
+   * @return 分片序号，范围为 [0, shards)
+   */
+  int shard(Object value, int shards);
+
+}
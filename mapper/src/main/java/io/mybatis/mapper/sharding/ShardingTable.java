@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.sharding;
+
+import io.mybatis.mapper.example.Example;
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityTable;
+import org.apache.ibatis.binding.MapperMethod;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 实体类的分表信息，根据参数中分片键的值选择物理表
+ * <p>
+ * 分片键的值可以来自实体（包括 {@code @Param("entity")} 和 {@code @Param("entityList")}），
+ * 或者 Example 中分片键的 {@code =} 和 {@code IN} 条件，无法确定分片键时访问所有的物理表。
+ * 参数中有 {@code example} 时（如 updateByExample）只根据 Example 路由，{@code entity} 是要更新的值，不参与路由
+ *
+ * @author liuzh
+ */
+public class ShardingTable {
+  public static final String PROPERTY = "sharding.property";
+  public static final String SHARDS   = "sharding.shards";
+  public static final String FORMAT   = "sharding.format";
+  public static final String STRATEGY = "sharding.strategy";
+
+  private static final Map<Class<?>, Optional<ShardingTable>> TABLES = new ConcurrentHashMap<>();
+
+  private final EntityTable      entity;
+  private final EntityColumn     column;
+  private final int              shards;
+  private final String           format;
+  private final ShardingStrategy strategy;
+  private final List<String>     tables;
+  private final Pattern          tablePattern;
+
+  public ShardingTable(EntityTable entity, String property, int shards, String format, ShardingStrategy strategy) {
+    if (shards < 1) {
+      throw new IllegalArgumentException("shards of " + entity.entityClass().getName() + " must be greater than 0");
+    }
+    this.entity = entity;
+    this.column = entity.columns().stream().filter(c -> c.property().equals(property)).findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Sharding property " + property
+            + " does not exist in " + entity.entityClass().getName()));
+    this.shards = shards;
+    this.format = format;
+    this.strategy = strategy;
+    List<String> tables = new ArrayList<>(shards);
+    for (int i = 0; i < shards; i++) {
+      tables.add(String.format(format, entity.tableName(), i));
+    }
+    this.tables = Collections.unmodifiableList(tables);
+    this.tablePattern = Pattern.compile("(\\b(?:FROM|INTO|UPDATE|JOIN)\\s+)" + Pattern.quote(entity.tableName()) + "(?![\\w.])",
+        Pattern.CASE_INSENSITIVE);
+  }
+
+  /**
+   * 获取实体类的分表信息，优先使用表属性，其次使用 {@link Sharding} 注解
+   *
+   * @param entity 实体类信息
+   * @return 没有分表时返回空
+   */
+  public static Optional<ShardingTable> of(EntityTable entity) {
+    return TABLES.computeIfAbsent(entity.entityClass(), entityClass -> {
+      String property = entity.getProp(PROPERTY);
+      if (property != null && !property.isEmpty()) {
+        return Optional.of(new ShardingTable(entity, property, entity.getPropInt(SHARDS),
+            entity.getProp(FORMAT, "%s_%02d"), newStrategy(entity.getProp(STRATEGY, ModShardingStrategy.class.getName()))));
+      }
+      Sharding sharding = entityClass.getAnnotation(Sharding.class);
+      if (sharding != null) {
+        return Optional.of(new ShardingTable(entity, sharding.property(), sharding.shards(),
+            sharding.format(), newStrategy(sharding.strategy().getName())));
+      }
+      return Optional.empty();
+    });
+  }
+
+  private static ShardingStrategy newStrategy(String className) {
+    try {
+      return (ShardingStrategy) Class.forName(className).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException("Unable to instantiate sharding strategy " + className, e);
+    }
+  }
+
+  /**
+   * 根据分片键的值获取物理表名
+   *
+   * @param value 分片键的值
+   * @return 物理表名
+   */
+  public String table(Object value) {
+    return tables.get(strategy.shard(value, shards));
+  }
+
+  /**
+   * 获取参数对应的物理表
+   *
+   * @param parameter 参数
+   * @return 物理表，无法确定分片键时返回所有物理表
+   */
+  public Set<String> route(Object parameter) {
+    Collection<Object> values = values(parameter);
+    if (values == null) {
+      return new LinkedHashSet<>(tables);
+    }
+    Set<String> routed = new TreeSet<>();
+    for (Object value : values) {
+      routed.add(table(value));
+    }
+    return routed;
+  }
+
+  /**
+   * 按照物理表拆分参数，批量方法（{@code @Param("entityList")}）中的实体只会出现在所属物理表的参数中，
+   * 其他情况下路由到的物理表都使用原参数
+   *
+   * @param parameter 参数
+   * @return 物理表和对应的参数
+   */
+  public Map<String, Object> partition(Object parameter) {
+    Map<String, Object> partitions = new TreeMap<>();
+    Map<String, List<Object>> groups = entityListGroups(parameter);
+    if (groups != null) {
+      Map<?, ?> params = (Map<?, ?>) parameter;
+      Object entityList = params.get("entityList");
+      groups.forEach((table, items) -> {
+        MapperMethod.ParamMap<Object> shardParams = new MapperMethod.ParamMap<>();
+        //param1 等别名和 entityList 是同一个集合，需要一起替换
+        params.forEach((key, value) -> shardParams.put(String.valueOf(key), value == entityList ? items : value));
+        partitions.put(table, shardParams);
+      });
+      return partitions;
+    }
+    for (String table : route(parameter)) {
+      partitions.put(table, parameter);
+    }
+    return partitions;
+  }
+
+  /**
+   * 按照物理表对 entityList 分组
+   *
+   * @return 不是批量方法或者存在分片键为空的实体时返回 null
+   */
+  private Map<String, List<Object>> entityListGroups(Object parameter) {
+    if (!(parameter instanceof Map) || !((Map<?, ?>) parameter).containsKey("entityList")
+        || !(((Map<?, ?>) parameter).get("entityList") instanceof Collection)) {
+      return null;
+    }
+    Map<String, List<Object>> groups = new TreeMap<>();
+    for (Object item : (Collection<?>) ((Map<?, ?>) parameter).get("entityList")) {
+      Object value = entity.entityClass().isInstance(item) ? column.field().get(item) : null;
+      if (value == null) {
+        return null;
+      }
+      groups.computeIfAbsent(table(value), table -> new ArrayList<>()).add(item);
+    }
+    return groups;
+  }
+
+  /**
+   * 将 SQL 中 FROM、INTO、UPDATE 和 JOIN 之后的逻辑表名替换为物理表名，同名的列或别名不受影响
+   *
+   * @param sql   SQL
+   * @param table 物理表名
+   * @return 替换后的 SQL
+   */
+  public String rewrite(String sql, String table) {
+    return tablePattern.matcher(sql).replaceAll("$1" + Matcher.quoteReplacement(table));
+  }
+
+  /**
+   * 获取分片键的值
+   *
+   * @param parameter 参数
+   * @return 无法确定时返回 null
+   */
+  protected Collection<Object> values(Object parameter) {
+    if (parameter instanceof Example) {
+      return values((Example<?>) parameter);
+    }
+    if (entity.entityClass().isInstance(parameter)) {
+      Object value = column.field().get(parameter);
+      return value != null ? Collections.singletonList(value) : null;
+    }
+    if (parameter instanceof Map) {
+      Map<?, ?> params = (Map<?, ?>) parameter;
+      if (params.containsKey("example")) {
+        Object example = params.get("example");
+        return example instanceof Example ? values((Example<?>) example) : null;
+      }
+      if (params.containsKey("entity")) {
+        return values(params.get("entity"));
+      }
+      if (params.containsKey("entityList") && params.get("entityList") instanceof Collection) {
+        List<Object> values = new ArrayList<>();
+        for (Object item : (Collection<?>) params.get("entityList")) {
+          Object value = entity.entityClass().isInstance(item) ? column.field().get(item) : null;
+          if (value == null) {
+            return null;
+          }
+          values.add(value);
+        }
+        return values;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 从 Example 中获取分片键的值，每组 or 条件都需要包含分片键的 {@code =} 或 {@code IN} 条件
+   */
+  protected Collection<Object> values(Example<?> example) {
+    if (example.getOredCriteria().isEmpty()) {
+      return null;
+    }
+    List<Object> values = new ArrayList<>();
+    for (Example.Criteria<?> criteria : example.getOredCriteria()) {
+      Collection<Object> criteriaValues = null;
+      for (Example.Criterion criterion : criteria.getCriteria()) {
+        String condition = criterion.getCondition() != null ? criterion.getCondition().trim() : "";
+        if (condition.equalsIgnoreCase(column.column() + " =") && criterion.getValue() != null) {
+          criteriaValues = Collections.singletonList(criterion.getValue());
+          break;
+        } else if (condition.equalsIgnoreCase(column.column() + " IN") && criterion.isListValue()) {
+          criteriaValues = new ArrayList<>((Collection<?>) criterion.getValue());
+          break;
+        }
+      }
+      if (criteriaValues == null) {
+        return null;
+      }
+      values.addAll(criteriaValues);
+    }
+    return values;
+  }
+
+  public EntityTable getEntity() {
+    return entity;
+  }
+
+  public EntityColumn getColumn() {
+    return column;
+  }
+
+  /**
+   * 所有的物理表
+   */
+  public List<String> getTables() {
+    return tables;
+  }
+
+}
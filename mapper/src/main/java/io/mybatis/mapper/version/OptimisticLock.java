@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.version;
+
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityTable;
+import org.apache.ibatis.builder.annotation.ProviderContext;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 乐观锁支持，通过列属性 {@code version=true} 标记版本列（JPA 中使用 {@code @Version}）：
+ * <pre>{@code
+ * @Entity.Column(props = @Entity.Prop(name = "version", value = "true"))
+ * private Integer version;
+ * }</pre>
+ * 根据主键更新（updateByPrimaryKey、updateByPrimaryKeySelective、FnMapper 中的更新方法）和 updateList 时，
+ * 会在条件中增加 {@code AND version = #{version}}，并且更新为 {@code version = version + 1}。
+ * 实体中的版本号为空时直接抛出异常（{@code version = NULL} 永远不会匹配），数据库中的版本列同样不能为 NULL，新增时需要设置初始版本号。
+ * <p>
+ * <b>使用乐观锁时必须注册 {@link OptimisticLockInterceptor}</b>，注册后更新行数少于实体数量时抛出 {@link OptimisticLockException}，
+ * 更新成功时将实体中的版本号加 1。未注册时版本冲突只表现为更新行数为 0，不会抛出异常，
+ * 实体中的版本号也不会增加，使用同一个实体再次更新时一定会冲突，需要调用方自己检查返回值
+ *
+ * @author liuzh
+ */
+public class OptimisticLock {
+  /**
+   * 标记版本列的属性名
+   */
+  public static final String VERSION = "version";
+
+  /**
+   * 使用了乐观锁的方法
+   */
+  private static final Set<String> STATEMENTS = ConcurrentHashMap.newKeySet();
+
+  /**
+   * 是否为版本列
+   *
+   * @param column 列
+   */
+  public static boolean isVersion(EntityColumn column) {
+    return column.getPropBoolean(VERSION, false);
+  }
+
+  /**
+   * 获取版本列
+   *
+   * @param entity 实体类信息
+   * @return 版本列，没有时返回空
+   */
+  public static Optional<EntityColumn> versionColumn(EntityTable entity) {
+    return entity.columns().stream().filter(OptimisticLock::isVersion).findFirst();
+  }
+
+  /**
+   * 版本号加 1
+   *
+   * @param column 版本列
+   * @return {@code version = version + 1}
+   */
+  public static String increase(EntityColumn column) {
+    return column.column() + " = " + column.column() + " + 1";
+  }
+
+  /**
+   * 版本条件
+   *
+   * @param entity 实体类信息
+   * @param prefix 参数前缀，如 "entity."
+   * @return {@code AND version = #{version}}，没有版本列时返回空字符串
+   */
+  public static String condition(EntityTable entity, String prefix) {
+    return versionColumn(entity).map(column -> requireVersion(column, prefix) + " AND " + column.columnEqualsProperty(prefix)).orElse("");
+  }
+
+  /**
+   * 执行时检查实体中的版本号不能为空
+   *
+   * @param column 版本列
+   * @param prefix 参数前缀，如 "entity."
+   * @return {@code <bind>} 标签，不输出任何 SQL
+   */
+  public static String requireVersion(EntityColumn column, String prefix) {
+    return "<bind name=\"_versionRequired\" value=\"@" + OptimisticLock.class.getName() + "@requireVersion("
+        + column.property(prefix) + ", &quot;" + column.property() + "&quot;)\"/>";
+  }
+
+  /**
+   * 检查实体中的版本号不能为空，由 {@link #requireVersion(EntityColumn, String)} 生成的 {@code <bind>} 调用
+   *
+   * @param version  版本号
+   * @param property 版本属性名
+   * @return 版本号
+   */
+  public static Object requireVersion(Object version, String property) {
+    if (version == null) {
+      throw new IllegalArgumentException("The version property '" + property + "' cannot be null when updating with optimistic lock");
+    }
+    return version;
+  }
+
+  /**
+   * 生成 SQL 时记录使用了乐观锁的方法，由 {@link OptimisticLockInterceptor} 检查这些方法的更新行数
+   *
+   * @param providerContext 上下文
+   * @param entity          实体类信息
+   */
+  public static void register(ProviderContext providerContext, EntityTable entity) {
+    if (versionColumn(entity).isPresent()) {
+      STATEMENTS.add(providerContext.getMapperType().getName() + "." + providerContext.getMapperMethod().getName());
+    }
+  }
+
+  /**
+   * 是否为使用了乐观锁的方法
+   *
+   * @param statementId MappedStatement 的 id
+   */
+  public static boolean isVersioned(String statementId) {
+    return STATEMENTS.contains(statementId);
+  }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.version;
+
+/**
+ * 乐观锁冲突，数据已经被其他人修改（或已被删除）时抛出
+ *
+ * @author liuzh
+ */
+public class OptimisticLockException extends RuntimeException {
+  private final String statementId;
+  private final int    expected;
+  private final int    actual;
+
+  public OptimisticLockException(String statementId, int expected, int actual) {
+    super("Optimistic lock conflict in " + statementId + ": expected " + expected + " rows updated, but was " + actual);
+    this.statementId = statementId;
+    this.expected = expected;
+    this.actual = actual;
+  }
+
+  /**
+   * @return 执行的方法
+   */
+  public String getStatementId() {
+    return statementId;
+  }
+
+  /**
+   * @return 应该更新的行数
+   */
+  public int getExpected() {
+    return expected;
+  }
+
+  /**
+   * @return 实际更新的行数
+   */
+  public int getActual() {
+    return actual;
+  }
+}
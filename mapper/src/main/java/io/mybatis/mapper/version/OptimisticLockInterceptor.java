@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.version;
+
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityFactory;
+import io.mybatis.provider.EntityTable;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 检查使用了乐观锁的方法（参考 {@link OptimisticLock}）的更新行数
+ * <p>
+ * 更新行数少于实体数量时说明数据已经被其他人修改，抛出 {@link OptimisticLockException}，
+ * 更新成功时将实体中的版本号加 1，和数据库保持一致，可以继续使用该实体进行更新。
+ * 通过 SqlSession 调用时异常会被包装为 {@code PersistenceException}，可以通过 {@code getCause()} 获取。
+ * <p>
+ * 该拦截器不会自动注册，使用乐观锁时需要通过 {@code Configuration#addInterceptor} 或 Spring 中的拦截器配置注册，
+ * 否则版本冲突时只会返回更新行数 0
+ * <p>
+ * 批量执行（{@link BatchExecutor}）时无法获取更新行数，不进行检查
+ *
+ * @author liuzh
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+})
+public class OptimisticLockInterceptor implements Interceptor {
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    Object result = invocation.proceed();
+    MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+    if (!OptimisticLock.isVersioned(ms.getId()) || !(result instanceof Integer) || (Integer) result < 0) {
+      return result;
+    }
+    List<Object> entities = entities(invocation.getArgs()[1]);
+    int rows = (Integer) result;
+    if (rows < entities.size()) {
+      throw new OptimisticLockException(ms.getId(), entities.size(), rows);
+    }
+    for (Object entity : entities) {
+      increase(entity);
+    }
+    return result;
+  }
+
+  /**
+   * 获取参数中的实体，支持实体本身、{@code @Param("entity")} 和 {@code @Param("entityList")}
+   *
+   * @param parameter 参数
+   * @return 实体
+   */
+  protected List<Object> entities(Object parameter) {
+    if (parameter instanceof Map) {
+      Map<?, ?> params = (Map<?, ?>) parameter;
+      if (params.containsKey("entityList")) {
+        Object entityList = params.get("entityList");
+        return entityList instanceof Collection ? new ArrayList<>((Collection<?>) entityList) : Collections.emptyList();
+      }
+      if (params.containsKey("entity")) {
+        return params.get("entity") != null ? Collections.singletonList(params.get("entity")) : Collections.emptyList();
+      }
+      return Collections.emptyList();
+    }
+    return parameter != null ? Collections.singletonList(parameter) : Collections.emptyList();
+  }
+
+  /**
+   * 实体中的版本号加 1
+   *
+   * @param entity 实体
+   */
+  protected void increase(Object entity) {
+    if (entity == null) {
+      return;
+    }
+    EntityTable entityTable = EntityFactory.create(entity.getClass());
+    Optional<EntityColumn> versionColumn = OptimisticLock.versionColumn(entityTable);
+    if (!versionColumn.isPresent()) {
+      return;
+    }
+    EntityColumn column = versionColumn.get();
+    Object version = column.field().get(entity);
+    if (version instanceof Integer) {
+      column.field().set(entity, (Integer) version + 1);
+    } else if (version instanceof Long) {
+      column.field().set(entity, (Long) version + 1);
+    } else if (version instanceof Short) {
+      column.field().set(entity, (short) ((Short) version + 1));
+    }
+  }
+
+  @Override
+  public Object plugin(Object target) {
+    return Plugin.wrap(target, this);
+  }
+
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.warmup;
+
+import io.mybatis.config.ConfigHelper;
+import io.mybatis.provider.Caching;
+import io.mybatis.provider.EntityClassFinder;
+import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.builder.annotation.ProviderContext;
+import org.apache.ibatis.builder.annotation.ProviderSqlSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动时预先生成并解析所有通用方法（{@code @Lang(Caching.class)}）的 SqlSource，避免第一次调用时生成 SQL 和解析 XML 的开销
+ * <p>
+ * 按实体类分组并行处理，同一个实体类的方法在同一个线程中按顺序处理。
+ * 每个实体类的第一个方法（会向 Configuration 注册 resultMap）和 INSERT 方法（可能注册主键生成器）在 Configuration 锁内执行，
+ * 其余方法并行执行。
+ * <p>
+ * 预热时无法得到实际参数，参数类型按照 MyBatis 运行时的规则推断：多个参数时为 ParamMap，单个泛型参数时为实体类。
+ * <p>
+ * 可以通过 {@code mybatis.mapper.warmup.enabled=true} 开启（由 MapperProvider 等集成方调用），
+ * 通过 {@code mybatis.mapper.warmup.parallelism} 指定并行数，默认为 CPU 核数
+ *
+ * @author liuzh
+ */
+public class MapperWarmUp {
+  public static final  Log    log         = LogFactory.getLog(MapperWarmUp.class);
+  public static final  String ENABLED     = "mybatis.mapper.warmup.enabled";
+  public static final  String PARALLELISM = "mybatis.mapper.warmup.parallelism";
+  private static final List<Class<? extends Annotation>> PROVIDER_ANNOTATIONS = Arrays.asList(
+      SelectProvider.class, InsertProvider.class, UpdateProvider.class, DeleteProvider.class);
+
+  private static volatile Constructor<ProviderContext> providerContextConstructor;
+
+  /**
+   * 是否开启了启动预热
+   *
+   * @return 开启时返回 true
+   */
+  public static boolean isEnabled() {
+    return ConfigHelper.getBoolean(ENABLED, false);
+  }
+
+  /**
+   * 使用配置的并行数预热
+   *
+   * @param configuration MyBatis 配置
+   * @return 预热结果
+   */
+  public static Report warmUp(Configuration configuration) {
+    return warmUp(configuration, ConfigHelper.getInt(PARALLELISM, Runtime.getRuntime().availableProcessors()));
+  }
+
+  /**
+   * 预热 Configuration 中所有 Mapper 接口的通用方法
+   *
+   * @param configuration MyBatis 配置
+   * @param parallelism   并行数，小于等于 1 时在当前线程执行
+   * @return 预热结果，等待过程中线程被中断时保留中断状态，返回的结果为未完成（{@link Report#isComplete()} 为 false）
+   */
+  public static Report warmUp(Configuration configuration, int parallelism) {
+    long start = System.nanoTime();
+    Map<Class<?>, List<Statement>> entityStatements = collect(configuration);
+    Report report = new Report();
+    if (parallelism <= 1 || entityStatements.size() <= 1) {
+      entityStatements.forEach((entityClass, statements) -> report.add(warmUp(configuration, entityClass, statements)));
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, entityStatements.size()), new WarmUpThreadFactory());
+      try {
+        List<Future<EntityReport>> futures = new ArrayList<>(entityStatements.size());
+        entityStatements.forEach((entityClass, statements) ->
+            futures.add(executor.submit(() -> warmUp(configuration, entityClass, statements))));
+        for (Future<EntityReport> future : futures) {
+          report.add(future.get());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        report.interrupted = true;
+        log.warn("Warm up interrupted, " + report.entities.size() + " of " + entityStatements.size() + " entities completed");
+      } catch (ExecutionException e) {
+        throw new RuntimeException(e.getCause());
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    report.nanos = System.nanoTime() - start;
+    if (log.isDebugEnabled()) {
+      log.debug(report.toString());
+    }
+    return report;
+  }
+
+  /**
+   * 预热一个实体类的所有方法
+   */
+  private static EntityReport warmUp(Configuration configuration, Class<?> entityClass, List<Statement> statements) {
+    EntityReport report = new EntityReport(entityClass);
+    long start = System.nanoTime();
+    boolean first = true;
+    for (Statement statement : statements) {
+      try {
+        if (first || statement.ms.getSqlCommandType() == SqlCommandType.INSERT) {
+          synchronized (configuration) {
+            statement.warmUp(configuration);
+          }
+        } else {
+          statement.warmUp(configuration);
+        }
+        report.statements++;
+      } catch (Throwable t) {
+        Throwable cause = t.getCause() != null ? t.getCause() : t;
+        report.failures.put(statement.ms.getId(), cause.getMessage());
+        log.warn("Warm up " + statement.ms.getId() + " failed: " + cause.getMessage());
+      }
+      first = false;
+    }
+    report.nanos = System.nanoTime() - start;
+    return report;
+  }
+
+  /**
+   * 收集所有需要预热的方法，按实体类分组
+   */
+  private static Map<Class<?>, List<Statement>> collect(Configuration configuration) {
+    Map<Class<?>, List<Statement>> entityStatements = new LinkedHashMap<>();
+    for (Class<?> mapperType : configuration.getMapperRegistry().getMappers()) {
+      for (Method method : mapperType.getMethods()) {
+        if (method.isBridge() || method.isDefault() || !isCachingMethod(method)) {
+          continue;
+        }
+        String id = mapperType.getName() + "." + method.getName();
+        if (!configuration.hasStatement(id, false)) {
+          continue;
+        }
+        MappedStatement ms = configuration.getMappedStatement(id, false);
+        if (!(ms.getSqlSource() instanceof ProviderSqlSource)) {
+          continue;
+        }
+        Method providerMethod = providerMethod(method);
+        if (providerMethod == null) {
+          continue;
+        }
+        EntityClassFinder.find(mapperType, method).ifPresent(entityClass ->
+            entityStatements.computeIfAbsent(entityClass, k -> new ArrayList<>())
+                .add(new Statement(ms, mapperType, method, providerMethod, parameterType(method, entityClass))));
+      }
+    }
+    return entityStatements;
+  }
+
+  private static boolean isCachingMethod(Method method) {
+    Lang lang = method.getAnnotation(Lang.class);
+    return lang != null && Caching.class.isAssignableFrom(lang.value());
+  }
+
+  /**
+   * 获取 Provider 方法，只支持 {@code public static String method(ProviderContext)} 形式的方法
+   */
+  private static Method providerMethod(Method method) {
+    for (Class<? extends Annotation> annotationType : PROVIDER_ANNOTATIONS) {
+      Annotation annotation = method.getAnnotation(annotationType);
+      if (annotation == null) {
+        continue;
+      }
+      Class<?> providerType;
+      String providerMethodName;
+      if (annotation instanceof SelectProvider) {
+        SelectProvider provider = (SelectProvider) annotation;
+        providerType = provider.type() != void.class ? provider.type() : provider.value();
+        providerMethodName = provider.method();
+      } else if (annotation instanceof InsertProvider) {
+        InsertProvider provider = (InsertProvider) annotation;
+        providerType = provider.type() != void.class ? provider.type() : provider.value();
+        providerMethodName = provider.method();
+      } else if (annotation instanceof UpdateProvider) {
+        UpdateProvider provider = (UpdateProvider) annotation;
+        providerType = provider.type() != void.class ? provider.type() : provider.value();
+        providerMethodName = provider.method();
+      } else {
+        DeleteProvider provider = (DeleteProvider) annotation;
+        providerType = provider.type() != void.class ? provider.type() : provider.value();
+        providerMethodName = provider.method();
+      }
+      for (Method providerMethod : providerType.getMethods()) {
+        if (providerMethod.getName().equals(providerMethodName)
+            && Modifier.isStatic(providerMethod.getModifiers())
+            && providerMethod.getReturnType() == String.class
+            && providerMethod.getParameterCount() == 1
+            && providerMethod.getParameterTypes()[0] == ProviderContext.class) {
+          return providerMethod;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 按照 MyBatis 运行时的规则推断参数类型（运行时为 parameterObject.getClass()）
+   */
+  private static Class<?> parameterType(Method method, Class<?> entityClass) {
+    List<Class<?>> types = new ArrayList<>();
+    boolean hasParamAnnotation = false;
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (RowBounds.class.isAssignableFrom(parameterTypes[i]) || ResultHandler.class.isAssignableFrom(parameterTypes[i])) {
+        continue;
+      }
+      types.add(parameterTypes[i]);
+      for (Annotation annotation : method.getParameterAnnotations()[i]) {
+        hasParamAnnotation |= annotation instanceof Param;
+      }
+    }
+    if (types.isEmpty()) {
+      return Object.class;
+    }
+    Class<?> type = types.get(0);
+    if (types.size() > 1 || hasParamAnnotation || Collection.class.isAssignableFrom(type) || type.isArray()) {
+      return MapperMethod.ParamMap.class;
+    }
+    return type == Object.class ? entityClass : type;
+  }
+
+  private static ProviderContext newProviderContext(Class<?> mapperType, Method mapperMethod, String databaseId) throws Exception {
+    if (providerContextConstructor == null) {
+      Constructor<ProviderContext> constructor = ProviderContext.class.getDeclaredConstructor(Class.class, Method.class, String.class);
+      constructor.setAccessible(true);
+      providerContextConstructor = constructor;
+    }
+    return providerContextConstructor.newInstance(mapperType, mapperMethod, databaseId);
+  }
+
+  /**
+   * 需要预热的方法
+   */
+  private static class Statement {
+    private final MappedStatement ms;
+    private final Class<?>        mapperType;
+    private final Method          mapperMethod;
+    private final Method          providerMethod;
+    private final Class<?>        parameterType;
+
+    Statement(MappedStatement ms, Class<?> mapperType, Method mapperMethod, Method providerMethod, Class<?> parameterType) {
+      this.ms = ms;
+      this.mapperType = mapperType;
+      this.mapperMethod = mapperMethod;
+      this.providerMethod = providerMethod;
+      this.parameterType = parameterType;
+    }
+
+    /**
+     * 和 ProviderSqlSource 的执行过程一致：调用 Provider 方法得到 cacheKey，再由 Caching 生成 SqlSource 并缓存
+     */
+    void warmUp(Configuration configuration) throws Exception {
+      ProviderContext context = newProviderContext(mapperType, mapperMethod, configuration.getDatabaseId());
+      String script = (String) providerMethod.invoke(null, context);
+      ms.getLang().createSqlSource(configuration, script, parameterType);
+    }
+  }
+
+  /**
+   * 预热结果
+   */
+  public static class Report {
+    private final Map<Class<?>, EntityReport> entities = new LinkedHashMap<>();
+    private       long                        nanos;
+    private       boolean                     interrupted;
+
+    void add(EntityReport report) {
+      entities.put(report.entityClass, report);
+    }
+
+    /**
+     * @return 每个实体类的预热结果
+     */
+    public Map<Class<?>, EntityReport> getEntities() {
+      return Collections.unmodifiableMap(entities);
+    }
+
+    /**
+     * @return 预热的方法总数
+     */
+    public int getStatements() {
+      return entities.values().stream().mapToInt(EntityReport::getStatements).sum();
+    }
+
+    /**
+     * @return 失败的方法总数
+     */
+    public int getFailures() {
+      return entities.values().stream().mapToInt(e -> e.getFailures().size()).sum();
+    }
+
+    /**
+     * @return 总耗时（毫秒）
+     */
+    public long getMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * @return 是否预热了所有实体类，被中断时返回 false，此时只包含已经完成的实体类
+     */
+    public boolean isComplete() {
+      return !interrupted;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("Warm up " + getStatements() + " statements of "
+          + entities.size() + " entities in " + getMillis() + " ms");
+      if (interrupted) {
+        sb.append(", interrupted");
+      }
+      if (getFailures() > 0) {
+        sb.append(", ").append(getFailures()).append(" failed");
+      }
+      entities.values().stream()
+          .sorted(Comparator.comparingLong((EntityReport e) -> e.nanos).reversed())
+          .forEach(e -> sb.append("\n  ").append(e));
+      return sb.toString();
+    }
+  }
+
+  /**
+   * 单个实体类的预热结果
+   */
+  public static class EntityReport {
+    private final Class<?>            entityClass;
+    private final Map<String, String> failures = new LinkedHashMap<>();
+    private       int                 statements;
+    private       long                nanos;
+
+    EntityReport(Class<?> entityClass) {
+      this.entityClass = entityClass;
+    }
+
+    public Class<?> getEntityClass() {
+      return entityClass;
+    }
+
+    /**
+     * @return 预热成功的方法数
+     */
+    public int getStatements() {
+      return statements;
+    }
+
+    /**
+     * @return 预热失败的方法和原因
+     */
+    public Map<String, String> getFailures() {
+      return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return 耗时（毫秒）
+     */
+    public long getMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public String toString() {
+      return entityClass.getName() + ": " + statements + " statements, " + getMillis() + " ms"
+          + (failures.isEmpty() ? "" : ", failed: " + failures.keySet());
+    }
+  }
+
+  private static class WarmUpThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "mapper-warmup-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
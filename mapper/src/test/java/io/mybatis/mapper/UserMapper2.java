@@ -16,8 +16,9 @@
 
 package io.mybatis.mapper;
 
+import io.mybatis.mapper.example.EstimateCountMapper;
 import io.mybatis.mapper.model.User;
 
-public interface UserMapper2 extends Mapper<User, Long> {
+public interface UserMapper2 extends Mapper<User, Long>, EstimateCountMapper<User> {
 
 }
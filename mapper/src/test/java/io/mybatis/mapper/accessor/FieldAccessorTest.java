@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.accessor;
+
+import io.mybatis.mapper.model.User;
+import io.mybatis.mapper.model.UserIs;
+import io.mybatis.provider.EntityFactory;
+import io.mybatis.provider.EntityTable;
+import org.apache.ibatis.ognl.Ognl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class FieldAccessorTest {
+
+  static class Hidden {
+    private int count;
+  }
+
+  @Test
+  public void testGetterSetter() throws Exception {
+    FieldAccessor accessor = FieldAccessor.of(User.class, User.class.getDeclaredField("userName"));
+    Assert.assertTrue(accessor.isDirect());
+    User user = new User();
+    accessor.set(user, "admin");
+    Assert.assertEquals("admin", user.getUserName());
+    Assert.assertEquals("admin", accessor.get(user));
+
+    FieldAccessor admin = FieldAccessor.of(UserIs.class, UserIs.class.getDeclaredField("admin"));
+    Assert.assertTrue(admin.isDirect());
+    UserIs userIs = new UserIs();
+    admin.set(userIs, true);
+    Assert.assertEquals(Boolean.TRUE, admin.get(userIs));
+  }
+
+  @Test
+  public void testFieldHandle() throws Exception {
+    FieldAccessor accessor = FieldAccessor.of(Hidden.class, Hidden.class.getDeclaredField("count"));
+    Assert.assertFalse(accessor.isDirect());
+    Hidden hidden = new Hidden();
+    accessor.set(hidden, 3);
+    Assert.assertEquals(3, hidden.count);
+    Assert.assertEquals(3, accessor.get(hidden));
+  }
+
+  @Test
+  public void testEntityColumnUseAccessor() throws Exception {
+    //默认不启用，字段读写和 OGNL 保持原有行为
+    Assert.assertFalse(AccessorEntityColumnFactory.isEnabled());
+    EntityTable entityTable = EntityFactory.create(User.class);
+    Assert.assertFalse(entityTable.idColumns().get(0).field() instanceof AccessorEntityField);
+
+    AccessorEntityField id = new AccessorEntityField(User.class, User.class.getDeclaredField("id"));
+    new AccessorEntityField(User.class, User.class.getDeclaredField("userName"));
+    User user = new User();
+    Assert.assertNull(id.get(user));
+    id.set(user, 10L);
+    Assert.assertEquals(Long.valueOf(10L), user.getId());
+    Assert.assertEquals(10L, id.get(user));
+
+    //批量方法中的 OGNL 判断
+    Map<String, Object> context = new HashMap<>();
+    context.put("entity", user);
+    Assert.assertEquals(Boolean.FALSE, Ognl.getValue("entity.userName != null", context));
+    user.setUserName("admin");
+    Assert.assertEquals(Boolean.TRUE, Ognl.getValue("entity.userName != null", context));
+    Assert.assertEquals("admin", Ognl.getValue("entity.userName", context));
+    Assert.assertEquals(User.class.getName(), Ognl.getValue("entity.class.name", context));
+  }
+
+}
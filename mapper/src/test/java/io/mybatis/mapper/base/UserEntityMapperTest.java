@@ -182,6 +182,19 @@ public class UserEntityMapperTest extends BaseMapperTest {
     }
   }
 
+  @Test
+  public void testExists() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      EntityMapper<User, Long> entityMapper = sqlSession.getMapper(UserMapper.class);
+      User user = new User();
+      user.setSex("女");
+      Assert.assertTrue(entityMapper.exists(user));
+      user.setSex("无");
+      Assert.assertFalse(entityMapper.exists(user));
+      Assert.assertTrue(entityMapper.exists(null));
+    }
+  }
+
   @Test
   public void testSelectCount() {
     SqlSession sqlSession = getSqlSession();
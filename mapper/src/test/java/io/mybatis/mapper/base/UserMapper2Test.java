@@ -18,17 +18,20 @@ package io.mybatis.mapper.base;
 
 import io.mybatis.mapper.BaseMapperTest;
 import io.mybatis.mapper.UserMapper2;
+import io.mybatis.mapper.example.EstimatedCount;
 import io.mybatis.mapper.example.Example;
 import io.mybatis.mapper.example.ExampleWrapper;
+import io.mybatis.mapper.example.LimitDialect;
+import io.mybatis.mapper.example.TableStatistics;
+import io.mybatis.mapper.fn.FieldListChunks;
 import io.mybatis.mapper.fn.Fn;
 import io.mybatis.mapper.model.User;
 import org.apache.ibatis.session.SqlSession;
 import org.junit.Assert;
 import org.junit.Test;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Collectors;
 
 public class UserMapper2Test extends BaseMapperTest {
 
@@ -108,6 +111,36 @@ public class UserMapper2Test extends BaseMapperTest {
     }
   }
 
+  @Test
+  public void testSelectByFieldListChunked() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserMapper2 mapper = sqlSession.getMapper(UserMapper2.class);
+      //每批 2 个，按批次顺序合并
+      List<User> users = mapper.selectByFieldList(User::getId, Arrays.asList(3L, 2L, 1L, 99L, 4L), 2);
+      Assert.assertEquals(4, users.size());
+      Assert.assertEquals(1L, users.get(2).getId().longValue());
+      Assert.assertEquals(4L, users.get(3).getId().longValue());
+      List<Long> ids = new ArrayList<>(Arrays.asList(4L, 1L, 3L, 2L));
+      users = FieldListChunks.sortByValues(mapper.selectByFieldList(User::getId, ids), ids, User::getId);
+      Assert.assertEquals(ids, users.stream().map(User::getId).collect(Collectors.toList()));
+      //重复的值去重后再拆分，不会在两个批次中重复返回
+      users = mapper.selectByFieldList(User::getId, Arrays.asList(1L, 2L, 1L, 3L, 2L), 2);
+      Assert.assertEquals(3, users.size());
+      Assert.assertEquals(Arrays.asList(Arrays.asList(1L, 2L), Collections.singletonList(3L)),
+          FieldListChunks.split(Arrays.asList(1L, 2L, 1L, 3L, 2L), 2));
+    }
+  }
+
+  @Test
+  public void testDeleteByFieldListChunked() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserMapper2 mapper = sqlSession.getMapper(UserMapper2.class);
+      Assert.assertEquals(3, mapper.deleteByFieldList(User::getId, Arrays.asList(1L, 2L, 3L), 2));
+      Assert.assertFalse(mapper.selectByPrimaryKey(3L).isPresent());
+      sqlSession.rollback();
+    }
+  }
+
   @Test
   public void testDeleteByFieldList() {
     SqlSession sqlSession = getSqlSession();
@@ -124,6 +157,110 @@ public class UserMapper2Test extends BaseMapperTest {
     }
   }
 
+  @Test
+  public void testExists() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserMapper2 mapper = sqlSession.getMapper(UserMapper2.class);
+      Assert.assertTrue(mapper.wrapper().startsWith(User::getUserName, "张").exists());
+      Assert.assertFalse(mapper.wrapper().eq(User::getUserName, "不存在").exists());
+      Example<User> example = mapper.example();
+      example.createCriteria().andEqualTo(User::getId, 1L);
+      Assert.assertTrue(mapper.existsByExample(example));
+      Assert.assertTrue(mapper.existsByExample(null));
+    }
+  }
+
+  @Test
+  public void testCountCapped() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserMapper2 mapper = sqlSession.getMapper(UserMapper2.class);
+      Assert.assertEquals(10, mapper.wrapper().count(10));
+      Assert.assertEquals(37, mapper.wrapper().eq(User::getSex, "男").count(37));
+      Assert.assertEquals(37, mapper.wrapper().eq(User::getSex, "男").count(1000));
+      Assert.assertEquals(0, mapper.wrapper().eq(User::getUserName, "不存在").count(10));
+      Example<User> example = mapper.example();
+      example.createCriteria().andEqualTo(User::getSex, "男");
+      Assert.assertEquals(37, mapper.countByExampleCapped(example, 37));
+      Assert.assertEquals(37, mapper.countByExampleCapped(example, 36));
+      Assert.assertEquals(37, mapper.countByExampleCapped(example, 100));
+
+      //distinct 和查询列的处理和 countByExample 一致
+      Example<User> distinct = mapper.example();
+      distinct.setDistinct(true);
+      distinct.selectColumns(User::getSex);
+      long sexes = mapper.countByExample(distinct);
+      Assert.assertEquals(sexes, mapper.countByExampleCapped(distinct, 100));
+      Assert.assertEquals(sexes, mapper.wrapper().distinct().select(User::getSex).count(100));
+      Assert.assertEquals(2, mapper.countByExampleCapped(distinct, 1));
+      distinct.createCriteria().andEqualTo(User::getSex, "男");
+      distinct.or().andEqualTo(User::getSex, "女");
+      Assert.assertEquals(mapper.countByExample(distinct), mapper.countByExampleCapped(distinct, 100));
+    }
+  }
+
+  @Test
+  public void testCountEstimate() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserMapper2 mapper = sqlSession.getMapper(UserMapper2.class);
+      long total = mapper.wrapper().count();
+      //未配置统计信息时执行有上限的计数
+      EstimatedCount count = mapper.wrapper().countEstimate(10);
+      Assert.assertEquals(10, count.getValue());
+      Assert.assertTrue(count.isEstimate());
+      count = mapper.wrapper().eq(User::getSex, "男").countEstimate(100);
+      Assert.assertEquals(37, count.getValue());
+      Assert.assertFalse(count.isEstimate());
+      //正好等于上限时仍然是精确值
+      count = mapper.wrapper().eq(User::getSex, "男").countEstimate(37);
+      Assert.assertEquals(37, count.getValue());
+      Assert.assertFalse(count.isEstimate());
+      //超过上限时多数一条
+      Assert.assertEquals(6, mapper.countByExampleCapped(null, 5));
+      //上限必须大于 0
+      try {
+        mapper.wrapper().countEstimate(0);
+        Assert.fail();
+      } catch (RuntimeException e) {
+        Assert.assertTrue(e.getMessage().contains("cap"));
+      }
+
+      System.setProperty(TableStatistics.STATISTICS, "hsqldb");
+      try {
+        Long estimate = mapper.estimateCount();
+        Assert.assertNotNull(estimate);
+        count = mapper.wrapper().countEstimate(10);
+        Assert.assertEquals(estimate.longValue(), count.getValue());
+        Assert.assertTrue(count.isEstimate());
+        //统计值小于上限时执行精确计数
+        count = mapper.wrapper().countEstimate(1000);
+        Assert.assertEquals(total, count.getValue());
+        Assert.assertFalse(count.isEstimate());
+        //有查询条件时不使用统计信息
+        count = mapper.wrapper().eq(User::getSex, "男").countEstimate(10);
+        Assert.assertEquals(10, count.getValue());
+      } finally {
+        System.clearProperty(TableStatistics.STATISTICS);
+      }
+    }
+  }
+
+  @Test
+  public void testLimitDialect() {
+    Assert.assertEquals("SELECT TOP (1) 1 AS one FROM user WHERE id > 1 ORDER BY id",
+        LimitDialect.TOP.limit("SELECT 1 AS one FROM user WHERE id > 1 ORDER BY id", "1"));
+    Assert.assertEquals("SELECT DISTINCT TOP (#{cap}) name FROM user",
+        LimitDialect.TOP.limit("SELECT DISTINCT name FROM user", "#{cap}"));
+    Locale locale = Locale.getDefault();
+    Locale.setDefault(new Locale("tr", "TR"));
+    System.setProperty(LimitDialect.DIALECT, "limit");
+    try {
+      Assert.assertEquals(LimitDialect.LIMIT, LimitDialect.current());
+    } finally {
+      System.clearProperty(LimitDialect.DIALECT);
+      Locale.setDefault(locale);
+    }
+  }
+
   @Test
   public void testOrCondition() {
     try (SqlSession sqlSession = getSqlSession()) {
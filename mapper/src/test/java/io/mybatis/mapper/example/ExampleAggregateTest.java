@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.example;
+
+import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.UserMapper2;
+import io.mybatis.mapper.model.User;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class ExampleAggregateTest extends BaseMapperTest {
+
+  @Test
+  public void testScalar() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserMapper2 mapper = sqlSession.getMapper(UserMapper2.class);
+      Assert.assertEquals(0, new BigDecimal(6).compareTo(mapper.wrapper().le(User::getId, 3L).sum(User::getId)));
+      Assert.assertEquals(0, new BigDecimal(2).compareTo(mapper.wrapper().le(User::getId, 3L).avg(User::getId)));
+      Long max = mapper.wrapper().le(User::getId, 3L).max(User::getId);
+      Assert.assertEquals(3L, max.longValue());
+      Long min = mapper.wrapper().le(User::getId, 3L).min(User::getId);
+      Assert.assertEquals(1L, min.longValue());
+      Assert.assertEquals(2, mapper.wrapper().le(User::getId, 3L).countDistinct(User::getSex));
+      //没有数据时
+      Assert.assertNull(mapper.wrapper().lt(User::getId, 0L).sum(User::getId));
+      Assert.assertEquals(0, mapper.wrapper().lt(User::getId, 0L).countDistinct(User::getSex));
+    }
+  }
+
+  @Test
+  public void testGroupBy() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserMapper2 mapper = sqlSession.getMapper(UserMapper2.class);
+      List<Map<String, Object>> rows = mapper.wrapper()
+          .groupBy(User::getSex)
+          .orderBy(User::getSex, Example.Order.ASC)
+          .aggregate(Aggregate.count(), Aggregate.max(User::getId).as("maxId"));
+      Assert.assertFalse(rows.isEmpty());
+      long total = 0;
+      for (Map<String, Object> row : rows) {
+        Assert.assertEquals(Arrays.asList("sex", "count", "maxId"), Arrays.asList(row.keySet().toArray()));
+        long count = ((Number) row.get("count")).longValue();
+        Assert.assertEquals(mapper.wrapper().eq(User::getSex, row.get("sex")).count(), count);
+        total += count;
+      }
+      Assert.assertEquals(mapper.wrapper().count(), total);
+
+      //having，只保留男性
+      long male = mapper.wrapper().eq(User::getSex, "男").count();
+      rows = mapper.wrapper()
+          .groupBy(User::getSex)
+          .having(Aggregate.count(), "<=", male)
+          .aggregate(Aggregate.count());
+      Assert.assertTrue(rows.stream().anyMatch(row -> "男".equals(row.get("sex"))));
+      Assert.assertTrue(rows.stream().allMatch(row -> ((Number) row.get("count")).longValue() <= male));
+
+      //比较符只能使用白名单中的值
+      try {
+        mapper.wrapper().groupBy(User::getSex).having(Aggregate.count(), "> 0 OR 1 =", 1);
+        Assert.fail();
+      } catch (RuntimeException e) {
+        Assert.assertTrue(e.getMessage().contains("比较符"));
+      }
+
+      //分组时不能使用单值方法
+      try {
+        mapper.wrapper().groupBy(User::getSex).sum(User::getId);
+        Assert.fail();
+      } catch (RuntimeException e) {
+        Assert.assertTrue(e.getMessage().contains("aggregate"));
+      }
+    }
+  }
+
+}
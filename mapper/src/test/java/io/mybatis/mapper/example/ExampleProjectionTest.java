@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.example;
+
+import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.UserMapper2;
+import io.mybatis.mapper.fn.Fn;
+import io.mybatis.mapper.model.User;
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityTable;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ExampleProjectionTest extends BaseMapperTest {
+
+  public static class UserName {
+    private Long   id;
+    private String userName;
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(Long id) {
+      this.id = id;
+    }
+
+    public String getUserName() {
+      return userName;
+    }
+
+    public void setUserName(String userName) {
+      this.userName = userName;
+    }
+  }
+
+  public static class UserSex {
+    private final String userName;
+    private final String sex;
+
+    public UserSex(String userName, String sex) {
+      this.userName = userName;
+      this.sex = sex;
+    }
+
+    public String getUserName() {
+      return userName;
+    }
+
+    public String getSex() {
+      return sex;
+    }
+  }
+
+  public interface UserView {
+    Long getId();
+
+    String getSex();
+  }
+
+  @Test
+  public void testSelectProjection() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserMapper2 mapper = sqlSession.getMapper(UserMapper2.class);
+      //DTO，按同名属性查询
+      List<UserName> names = mapper.wrapper().le(User::getId, 3L).orderByAsc(User::getId).select(UserName.class);
+      Assert.assertEquals(3, names.size());
+      Assert.assertEquals(1L, names.get(0).getId().longValue());
+      Assert.assertEquals("张无忌", names.get(0).getUserName());
+
+      //没有无参构造方法时，按顺序映射到构造方法参数
+      List<UserSex> sexes = mapper.wrapper().eq(User::getId, 1L).select(UserSex.class, User::getUserName, User::getSex);
+      Assert.assertEquals(1, sexes.size());
+      Assert.assertEquals("张无忌", sexes.get(0).getUserName());
+      Assert.assertEquals("男", sexes.get(0).getSex());
+
+      //接口
+      List<UserView> views = mapper.wrapper().eq(User::getId, 1L).select(UserView.class);
+      Assert.assertEquals(1, views.size());
+      Assert.assertEquals(1L, views.get(0).getId().longValue());
+      Assert.assertEquals("男", views.get(0).getSex());
+      Assert.assertEquals(views.get(0), views.get(0));
+
+      //不会在 Configuration 中注册新的 MappedStatement
+      Assert.assertEquals(3, mapper.wrapper().le(User::getId, 3L).select(UserName.class).size());
+      Assert.assertTrue(sqlSession.getConfiguration().getMappedStatementNames().stream()
+          .noneMatch(name -> name.contains("ExampleProjectionTest")));
+
+      //不修改调用方的 Example
+      ExampleWrapper<User, Long> wrapper = mapper.wrapper().select(User::getId).eq(User::getId, 1L);
+      String selectColumns = wrapper.example().getSelectColumns();
+      Assert.assertEquals(1, wrapper.select(UserView.class).size());
+      Assert.assertEquals(selectColumns, wrapper.example().getSelectColumns());
+      Assert.assertEquals(1, wrapper.list().size());
+    }
+  }
+
+  @Test
+  public void testProjector() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserMapper2 mapper = sqlSession.getMapper(UserMapper2.class);
+      EntityTable entityTable = mapper.entityTable();
+      EntityColumn id = Fn.field(User.class, "id").toEntityColumn();
+      EntityColumn userName = Fn.field(User.class, "userName").toEntityColumn();
+      //相同的投影和查询列复用生成的转换方法
+      Assert.assertSame(
+          ExampleProjection.projector(entityTable, UserName.class, Arrays.asList(id, userName)),
+          ExampleProjection.projector(entityTable, UserName.class, Arrays.asList(id, userName)));
+      Assert.assertNotSame(
+          ExampleProjection.projector(entityTable, UserName.class, Arrays.asList(id, userName)),
+          ExampleProjection.projector(entityTable, UserName.class, Collections.singletonList(id)));
+    }
+  }
+
+  @Test
+  public void testConstructorMismatch() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserMapper2 mapper = sqlSession.getMapper(UserMapper2.class);
+      try {
+        mapper.wrapper().eq(User::getId, 1L).select(UserSex.class, User::getUserName);
+        Assert.fail();
+      } catch (IllegalArgumentException e) {
+        Assert.assertTrue(e.getMessage().contains("has no constructor with 1 parameters"));
+      }
+      try {
+        mapper.wrapper().eq(User::getId, 1L).select(UserSex.class, User::getUserName, User::getId);
+        Assert.fail();
+      } catch (IllegalArgumentException e) {
+        Assert.assertTrue(e.getMessage().contains("cannot accept"));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.keygen;
+
+import io.mybatis.mapper.BaseMapper;
+import io.mybatis.mapper.H2BaseMapperTest;
+import io.mybatis.mapper.list.ListMapper;
+import io.mybatis.provider.Entity;
+import io.mybatis.provider.EntityColumn;
+import io.mybatis.provider.EntityFactory;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PooledIdTest extends H2BaseMapperTest {
+
+  @Entity.Table("pooled_user")
+  public static class PooledUser {
+    @Entity.Column(id = true, props = {
+        @Entity.Prop(name = PooledIdAllocator.SEQUENCE, value = "pooled_user_seq"),
+        @Entity.Prop(name = PooledIdAllocator.ALLOCATION_SIZE, value = "10")})
+    private Long   id;
+    @Entity.Column
+    private String name;
+
+    public PooledUser() {
+    }
+
+    public PooledUser(String name) {
+      this.name = name;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(Long id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  public interface PooledUserMapper extends BaseMapper<PooledUser, Long>, ListMapper<PooledUser> {
+  }
+
+  @Entity.Table("pooled_user")
+  public static class PrimitivePooledUser {
+    @Entity.Column(id = true, props = {
+        @Entity.Prop(name = PooledIdAllocator.SEQUENCE, value = "pooled_user_seq"),
+        @Entity.Prop(name = PooledIdAllocator.ALLOCATION_SIZE, value = "10")})
+    private long   id;
+    @Entity.Column
+    private String name;
+
+    public long getId() {
+      return id;
+    }
+
+    public void setId(long id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  public interface PrimitivePooledUserMapper extends BaseMapper<PrimitivePooledUser, Long> {
+  }
+
+  @Entity.Table("pooled_user")
+  public static class ConflictPooledUser {
+    @Entity.Column(id = true, props = {
+        @Entity.Prop(name = PooledIdAllocator.SEQUENCE, value = "pooled_user_seq"),
+        @Entity.Prop(name = PooledIdAllocator.ALLOCATION_SIZE, value = "20")})
+    private Long id;
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(Long id) {
+      this.id = id;
+    }
+  }
+
+  private SqlSessionFactory factory;
+
+  @Before
+  public void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("mybatis-config-h2.xml")) {
+      factory = new SqlSessionFactoryBuilder().build(reader);
+      factory.getConfiguration().addInterceptor(new PooledIdInterceptor());
+    }
+    execute("create sequence pooled_user_seq start with 1 increment by 10",
+        "create table pooled_user (id BIGINT PRIMARY KEY, name VARCHAR(32))");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    execute("drop table pooled_user", "drop sequence pooled_user_seq");
+  }
+
+  @Test
+  public void testInsert() throws Exception {
+    try (SqlSession sqlSession = factory.openSession()) {
+      PooledUserMapper mapper = sqlSession.getMapper(PooledUserMapper.class);
+      PooledUser user = new PooledUser("pooled");
+      Assert.assertEquals(1, mapper.insert(user));
+      Long first = user.getId();
+      Assert.assertNotNull(first);
+
+      List<PooledUser> users = new ArrayList<>();
+      for (int i = 0; i < 12; i++) {
+        users.add(new PooledUser("pooled" + i));
+      }
+      Assert.assertEquals(12, mapper.insertList(users));
+      for (int i = 0; i < users.size(); i++) {
+        Assert.assertEquals(Long.valueOf(first + i + 1), users.get(i).getId());
+      }
+      //已经有主键的实体不会重新分配
+      PooledUser manual = new PooledUser("manual");
+      manual.setId(-1L);
+      mapper.insertSelective(manual);
+      Assert.assertEquals(Long.valueOf(-1), manual.getId());
+      Assert.assertEquals(14, mapper.selectList(null).size());
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  public void testPrimitiveId() {
+    try (SqlSession sqlSession = factory.openSession()) {
+      PrimitivePooledUserMapper mapper = sqlSession.getMapper(PrimitivePooledUserMapper.class);
+      PrimitivePooledUser user = new PrimitivePooledUser();
+      user.setName("primitive");
+      Assert.assertEquals(1, mapper.insert(user));
+      Assert.assertNotEquals(0L, user.getId());
+      Assert.assertTrue(mapper.selectByPrimaryKey(user.getId()).isPresent());
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  public void testAllocatorPerDatabase() {
+    EntityColumn column = EntityFactory.create(PooledUser.class).idColumns().get(0);
+    Object database1 = new Object();
+    Object database2 = new Object();
+    PooledIdAllocator allocator = PooledIdAllocator.of(database1, column).get();
+    Assert.assertSame(allocator, PooledIdAllocator.of(database1, column).get());
+    Assert.assertNotSame(allocator, PooledIdAllocator.of(database2, column).get());
+    try {
+      PooledIdAllocator.of(database1, EntityFactory.create(ConflictPooledUser.class).idColumns().get(0));
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertTrue(e.getMessage().contains("10 and 20"));
+    }
+  }
+
+  @Test
+  public void testConcurrentAllocate() throws Exception {
+    AtomicLong sequence = new AtomicLong(1);
+    AtomicInteger fetches = new AtomicInteger();
+    PooledIdAllocator allocator = new PooledIdAllocator("test_seq", 100) {
+      @Override
+      protected long nextValue(Connection connection) {
+        fetches.incrementAndGet();
+        return sequence.getAndAdd(100);
+      }
+    };
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 8; i++) {
+      executor.execute(() -> {
+        for (int j = 0; j < 1000; j++) {
+          try {
+            ids.add(allocator.next(null));
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertEquals(8000, ids.size());
+    Assert.assertEquals(80, fetches.get());
+  }
+
+  private void execute(String... sqls) throws Exception {
+    try (SqlSession sqlSession = factory.openSession(true);
+         Statement statement = sqlSession.getConnection().createStatement()) {
+      for (String sql : sqls) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.keygen;
+
+import io.mybatis.mapper.BaseMapper;
+import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.list.ListMapper;
+import io.mybatis.provider.Entity;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class SnowflakeTest extends BaseMapperTest {
+
+  @Entity.Table("snowflake_user")
+  public static class SnowflakeUser {
+    @Entity.Column(id = true, genId = SnowflakeGenId.class, genIdExecuteBefore = true)
+    private Long   id;
+    @Entity.Column
+    private String name;
+
+    public SnowflakeUser() {
+    }
+
+    public SnowflakeUser(String name) {
+      this.name = name;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(Long id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  public interface SnowflakeUserMapper extends BaseMapper<SnowflakeUser, Long>, ListMapper<SnowflakeUser> {
+  }
+
+  static class ManualClock extends Snowflake {
+    volatile long now = Snowflake.DEFAULT_EPOCH + 1000;
+
+    ManualClock(long workerId) {
+      super(workerId, Snowflake.DEFAULT_EPOCH, 5);
+    }
+
+    @Override
+    protected long currentTimeMillis() {
+      return now;
+    }
+  }
+
+  @Test
+  public void testNextId() throws Exception {
+    Snowflake snowflake = new Snowflake(7);
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 8; i++) {
+      executor.execute(() -> {
+        long last = 0;
+        for (int j = 0; j < 10000; j++) {
+          long id = snowflake.nextId();
+          //同一个线程中单调递增
+          Assert.assertTrue(id > last);
+          last = id;
+          ids.add(id);
+        }
+      });
+    }
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertEquals(80000, ids.size());
+    long id = ids.iterator().next();
+    Assert.assertEquals(7, snowflake.workerId(id));
+    Assert.assertTrue(Math.abs(System.currentTimeMillis() - snowflake.timestamp(id)) < 60000);
+  }
+
+  @Test
+  public void testClockBackwards() {
+    ManualClock snowflake = new ManualClock(1);
+    long first = snowflake.nextId();
+    //回拨在允许范围内时继续递增
+    snowflake.now -= 5;
+    long second = snowflake.nextId();
+    Assert.assertTrue(second > first);
+    Assert.assertEquals(snowflake.timestamp(first), snowflake.timestamp(second));
+    snowflake.now -= 1;
+    try {
+      snowflake.nextId();
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertTrue(e.getMessage().startsWith("Clock moved backwards"));
+    }
+    //时钟恢复后使用新的时间戳
+    snowflake.now += 10;
+    long third = snowflake.nextId();
+    Assert.assertEquals(snowflake.now, snowflake.timestamp(third));
+  }
+
+  @Test
+  public void testSequenceExhausted() throws Exception {
+    ManualClock snowflake = new ManualClock(1);
+    long first = snowflake.nextId();
+    for (int i = 0; i < 4095; i++) {
+      snowflake.nextId();
+    }
+    //同一毫秒内序号用完后等待下一毫秒，不会借用后续的时间
+    long[] next = new long[1];
+    Thread thread = new Thread(() -> next[0] = snowflake.nextId());
+    thread.start();
+    thread.join(100);
+    Assert.assertTrue(thread.isAlive());
+    snowflake.now += 1;
+    thread.join(10000);
+    Assert.assertFalse(thread.isAlive());
+    Assert.assertEquals(snowflake.timestamp(first) + 1, snowflake.timestamp(next[0]));
+
+    //单线程连续大量生成不会抛出异常
+    Snowflake real = new Snowflake(2);
+    long last = 0;
+    for (int i = 0; i < 100000; i++) {
+      long id = real.nextId();
+      Assert.assertTrue(id > last);
+      last = id;
+    }
+  }
+
+  @Test
+  public void testInsert() throws Exception {
+    System.clearProperty(Snowflake.WORKER_ID);
+    //没有配置节点 ID 时不使用默认值
+    try {
+      Snowflake.getDefault();
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertTrue(e.getMessage().contains(Snowflake.WORKER_ID));
+    }
+    System.setProperty(Snowflake.WORKER_ID, "3");
+    Assert.assertEquals(3, Snowflake.getDefault().getWorkerId());
+    try (SqlSession sqlSession = getSqlSession()) {
+      try (Statement statement = sqlSession.getConnection().createStatement()) {
+        statement.execute("create table snowflake_user (id BIGINT PRIMARY KEY, name VARCHAR(32))");
+      }
+      SnowflakeUserMapper mapper = sqlSession.getMapper(SnowflakeUserMapper.class);
+      SnowflakeUser user = new SnowflakeUser("snowflake");
+      Assert.assertEquals(1, mapper.insert(user));
+      Assert.assertNotNull(user.getId());
+
+      List<SnowflakeUser> users = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        users.add(new SnowflakeUser("snowflake" + i));
+      }
+      Assert.assertEquals(5, mapper.insertList(users));
+      for (SnowflakeUser u : users) {
+        Assert.assertTrue(u.getId() > user.getId());
+        Assert.assertEquals("snowflake", mapper.selectByPrimaryKey(u.getId()).get().getName().substring(0, 9));
+      }
+      try (Statement statement = sqlSession.getConnection().createStatement()) {
+        statement.execute("drop table snowflake_user");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.list;
+
+import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.UserMapper;
+import io.mybatis.mapper.model.User;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchInsertListInterceptorTest extends BaseMapperTest {
+
+  /**
+   * 统计 StatementHandler 的 batch 调用次数，用于确认使用了批处理并且经过了插件
+   */
+  @Intercepts(@Signature(type = StatementHandler.class, method = "batch", args = {Statement.class}))
+  public static class BatchCounter implements Interceptor {
+    private final AtomicInteger batches = new AtomicInteger();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      batches.incrementAndGet();
+      return invocation.proceed();
+    }
+  }
+
+  private SqlSessionFactory factory;
+  private BatchCounter      counter;
+
+  @Before
+  public void setUp() throws IOException {
+    try (Reader reader = Resources.getResourceAsReader("mybatis-config.xml")) {
+      factory = new SqlSessionFactoryBuilder().build(reader);
+      counter = new BatchCounter();
+      factory.getConfiguration().addInterceptor(new BatchInsertListInterceptor());
+      factory.getConfiguration().addInterceptor(counter);
+    }
+  }
+
+  @Test
+  public void testInsertList() {
+    try (SqlSession sqlSession = factory.openSession()) {
+      UserMapper mapper = sqlSession.getMapper(UserMapper.class);
+      List<User> users = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        User user = new User();
+        user.setUserName("batch" + i);
+        users.add(user);
+      }
+      Assert.assertEquals(5, mapper.insertList(users));
+      //每个实体都通过 StatementHandler 加入批处理
+      Assert.assertEquals(5, counter.batches.get());
+      for (int i = 0; i < users.size(); i++) {
+        User user = users.get(i);
+        Assert.assertNotNull(user.getId());
+        if (i > 0) {
+          Assert.assertEquals(users.get(i - 1).getId() + 1, user.getId().longValue());
+        }
+        Assert.assertEquals("batch" + i, mapper.selectByPrimaryKey(user.getId()).get().getUserName());
+      }
+      sqlSession.rollback();
+    }
+  }
+
+}
@@ -40,7 +40,7 @@ public class UserListMapperTest extends BaseMapperTest {
         users.add(user);
       }
       Assert.assertEquals(10, insertListMapper.insertList(users));
-      users.stream().map(User::getId).forEach(System.out::println);
+      users.stream().map(User::getId).forEach(Assert::assertNotNull);
       sqlSession.rollback();
     } finally {
       //不要忘记关闭sqlSession
@@ -0,0 +1,44 @@
+package io.mybatis.mapper.logical;
+
+import io.mybatis.mapper.model.User;
+import io.mybatis.mapper.model.UserActive;
+import io.mybatis.provider.Entity;
+import io.mybatis.provider.EntityFactory;
+import io.mybatis.provider.EntityTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LogicalColumnFactoryTest {
+
+  @Entity.Table("user")
+  public static class TwoLogicalColumns {
+    @Entity.Column(id = true)
+    private Long    id;
+    @LogicalColumn(delete = "0")
+    @Entity.Column
+    private Integer status;
+    @LogicalColumn(delete = "1")
+    @Entity.Column
+    private Integer deleted;
+  }
+
+  @Test
+  public void testResolve() {
+    EntityTable entityTable = EntityFactory.create(User.class);
+    Assert.assertEquals("status", entityTable.getProp(LogicalColumnFactory.LOGICAL_COLUMN));
+    Assert.assertEquals("0", entityTable.getProp(LogicalColumnFactory.LOGICAL_DELETE));
+    Assert.assertNull(entityTable.getProp(LogicalColumnFactory.LOGICAL_ACTIVE));
+    Assert.assertEquals("1", EntityFactory.create(UserActive.class).getProp(LogicalColumnFactory.LOGICAL_ACTIVE));
+  }
+
+  @Test
+  public void testMultipleLogicalColumns() {
+    try {
+      EntityFactory.create(TwoLogicalColumns.class);
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertTrue(e.getMessage().contains("status, deleted"));
+    }
+  }
+
+}
@@ -1,11 +1,13 @@
 package io.mybatis.mapper.logical;
 
 import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.UserActiveMapper;
 import io.mybatis.mapper.UserMapper;
 import io.mybatis.mapper.example.Example;
 import io.mybatis.mapper.example.ExampleWrapper;
 import io.mybatis.mapper.fn.Fn;
 import io.mybatis.mapper.model.User;
+import io.mybatis.mapper.model.UserActive;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.session.SqlSession;
 import org.junit.Assert;
@@ -45,6 +47,9 @@ public class LogicalMapperTest extends BaseMapperTest {
 
       // logical delete ---
       Assert.assertEquals(53 - deleteCount, userMapper.wrapper().count());
+      //OR 条件整体放在括号中，不会查出已删除的数据
+      Assert.assertEquals(1, userMapper.wrapper().eq(User::getUserName, "张翠山").or().eq(User::getUserName, "张无忌").count());
+      Assert.assertEquals(1, userMapper.wrapper().eq(User::getUserName, "张无忌").or().eq(User::getUserName, "张翠山").delete());
       sqlSession.rollback();
     } finally {
       //不要忘记关闭sqlSession
@@ -124,10 +129,18 @@ public class LogicalMapperTest extends BaseMapperTest {
 
       // logical delete+++
 
+      Assert.assertTrue(userMapper.exists(user5));
+      Assert.assertTrue(userMapper.existsByExample(e1));
+      Assert.assertEquals(1, userMapper.countByExampleCapped(e1, 10));
       int deleteCount = 0;
       Assert.assertEquals(1, userMapper.delete(user5));
       deleteCount++;
       Assert.assertEquals(0, userMapper.delete(user5));
+      //逻辑删除的数据不存在
+      Assert.assertFalse(userMapper.exists(user5));
+      Assert.assertFalse(userMapper.existsByExample(e1));
+      Assert.assertFalse(userMapper.wrapper().eq(User::getUserName, "张翠山").exists());
+      Assert.assertEquals(0, userMapper.countByExampleCapped(e1, 10));
 
 
       Assert.assertEquals(1, userMapper.deleteByExample(e2));
@@ -192,4 +205,31 @@ public class LogicalMapperTest extends BaseMapperTest {
     }
   }
 
+  @Test
+  public void testActiveValue() {
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserActiveMapper activeMapper = sqlSession.getMapper(UserActiveMapper.class);
+      UserMapper userMapper = sqlSession.getMapper(UserMapper.class);
+      //配置 active 时使用等值条件，默认使用 col != delete
+      Assert.assertTrue(sql(sqlSession, UserActiveMapper.class, "selectByPrimaryKey").contains("status = 1"));
+      Assert.assertTrue(sql(sqlSession, UserMapper.class, "selectByPrimaryKey").contains("status != 0"));
+
+      Assert.assertEquals(53, activeMapper.wrapper().count());
+      Assert.assertEquals(2, activeMapper.wrapper().eq(UserActive::getUserName, "张翠山").or().eq(UserActive::getUserName, "张无忌").delete());
+      Assert.assertEquals(0, activeMapper.wrapper().eq(UserActive::getUserName, "张翠山").or().eq(UserActive::getUserName, "张无忌").count());
+      Assert.assertEquals(51, activeMapper.wrapper().count());
+      Assert.assertEquals(51, userMapper.wrapper().count());
+      Assert.assertFalse(activeMapper.selectByPrimaryKey(1L).isPresent());
+      Assert.assertEquals(0, activeMapper.deleteByPrimaryKey(1L));
+      sqlSession.rollback();
+    }
+  }
+
+  private String sql(SqlSession sqlSession, Class<?> mapperInterface, String method) {
+    User user = new User();
+    user.setId(1L);
+    return sqlSession.getConfiguration().getMappedStatement(mapperInterface.getName() + "." + method)
+        .getBoundSql(user).getSql().replaceAll("\\s+", " ");
+  }
+
 }
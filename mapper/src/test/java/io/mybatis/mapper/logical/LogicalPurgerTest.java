@@ -0,0 +1,144 @@
+package io.mybatis.mapper.logical;
+
+import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.model.User;
+import io.mybatis.provider.Entity;
+import io.mybatis.provider.EntityFactory;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class LogicalPurgerTest extends BaseMapperTest {
+
+  @Entity.Table("purge_user")
+  public static class PurgeUser {
+    @Entity.Column(id = true)
+    private Long    id;
+    @Entity.Column
+    private String  name;
+    @LogicalColumn(delete = "0", active = "1")
+    @Entity.Column
+    private Integer status;
+  }
+
+  private SqlSessionFactory factory;
+
+  @Before
+  public void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("mybatis-config.xml")) {
+      factory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    execute("create table purge_user (id BIGINT PRIMARY KEY, name VARCHAR(32), status INTEGER)",
+        "create table purge_user_archive (id BIGINT PRIMARY KEY, name VARCHAR(32), status INTEGER)");
+    List<String> inserts = new ArrayList<>();
+    for (int i = 1; i <= 25; i++) {
+      //偶数行为已删除数据
+      inserts.add("insert into purge_user values (" + i + ", 'user" + i + "', " + (i % 2) + ")");
+    }
+    execute(inserts.toArray(new String[0]));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    execute("drop table purge_user", "drop table purge_user_archive");
+  }
+
+  @Test
+  public void testPurgeWithArchive() throws Exception {
+    List<Long> lastIds = new ArrayList<>();
+    LogicalPurger purger = new LogicalPurger(factory)
+        .chunkSize(5)
+        .archiveTable(entity -> entity.tableName() + "_archive")
+        .listener(progress -> lastIds.add((Long) progress.getLastId()));
+    LogicalPurger.Progress progress = purger.purge(PurgeUser.class);
+    Assert.assertEquals(12, progress.getDeleted());
+    Assert.assertEquals(12, progress.getArchived());
+    Assert.assertEquals(3, progress.getChunks());
+    Assert.assertEquals(3, lastIds.size());
+    Assert.assertEquals(Long.valueOf(10), lastIds.get(0));
+    Assert.assertEquals(Long.valueOf(24), lastIds.get(2));
+    Assert.assertEquals(13, count("select count(*) from purge_user where status = 1"));
+    Assert.assertEquals(0, count("select count(*) from purge_user where status = 0"));
+    Assert.assertEquals(12, count("select count(*) from purge_user_archive where status = 0"));
+    //没有需要清理的数据
+    Assert.assertEquals(0, purger.purge(PurgeUser.class).getDeleted());
+  }
+
+  @Test
+  public void testArchiveRechecksLogicalColumn() throws Exception {
+    LogicalPurger purger = new LogicalPurger(factory).chunkSize(5).archiveTable(entity -> entity.tableName() + "_archive");
+    purger.purge(PurgeUser.class);
+    //查询主键之后被恢复的数据（1 为正常数据）不会被归档
+    MappedStatement archive = purger.statements(EntityFactory.create(PurgeUser.class)).archive;
+    Assert.assertFalse(factory.getConfiguration().hasStatement(archive.getId(), false));
+    try (SqlSession sqlSession = factory.openSession(true)) {
+      Executor executor = factory.getConfiguration().newExecutor(new JdbcTransaction(sqlSession.getConnection()));
+      Assert.assertEquals(0, executor.update(archive, Collections.singletonMap("ids", Arrays.asList(1L, 3L))));
+    }
+    Assert.assertEquals(12, count("select count(*) from purge_user_archive"));
+  }
+
+  @Test
+  public void testPurgeWithoutArchive() throws Exception {
+    LogicalPurger purger = new LogicalPurger(factory).chunkSize(100).rowsPerSecond(1000);
+    Assert.assertEquals(12, purger.purge(PurgeUser.class).getDeleted());
+    Assert.assertEquals(0, count("select count(*) from purge_user_archive"));
+    Assert.assertEquals(13, count("select count(*) from purge_user"));
+  }
+
+  @Test
+  public void testPurgeAsync() throws Exception {
+    //测试环境中 LogicalMapper 对应的实体类为 User，没有逻辑删除的数据
+    Assert.assertTrue(LogicalPurger.logicalEntityClasses(factory.getConfiguration()).contains(User.class));
+    LogicalPurger.Report report = new LogicalPurger(factory).purgeAsync(ForkJoinPool.commonPool()).get();
+    Assert.assertEquals(0, report.getDeleted());
+    Assert.assertTrue(report.getEntities().containsKey(User.class));
+  }
+
+  @Test
+  public void testStop() {
+    LogicalPurger purger = new LogicalPurger(factory).chunkSize(5);
+    purger.listener(progress -> purger.stop());
+    LogicalPurger.Progress progress = purger.purge(PurgeUser.class);
+    Assert.assertEquals(1, progress.getChunks());
+    Assert.assertEquals(5, progress.getDeleted());
+  }
+
+  private void execute(String... sqls) throws Exception {
+    try (SqlSession sqlSession = factory.openSession(true);
+         Statement statement = sqlSession.getConnection().createStatement()) {
+      for (String sql : sqls) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+  private long count(String sql) throws Exception {
+    try (SqlSession sqlSession = factory.openSession(true);
+         Connection connection = sqlSession.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet rs = statement.executeQuery(sql)) {
+      rs.next();
+      return rs.getLong(1);
+    }
+  }
+
+}
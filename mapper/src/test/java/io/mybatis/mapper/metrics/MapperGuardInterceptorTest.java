@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.metrics;
+
+import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.UserIdsMapper;
+import io.mybatis.mapper.UserMapper;
+import io.mybatis.mapper.example.Example;
+import io.mybatis.mapper.model.UserIds;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MapperGuardInterceptorTest extends BaseMapperTest {
+  private static final String PREFIX = UserIds.class.getName() + ".";
+
+  private SqlSessionFactory factory;
+
+  @Before
+  public void setUp() throws IOException {
+    System.setProperty(PREFIX + MapperGuardInterceptor.MAX_ROWS, "2");
+    System.setProperty(PREFIX + MapperGuardInterceptor.FAIL, "true");
+    try (Reader reader = Resources.getResourceAsReader("mybatis-config.xml")) {
+      factory = new SqlSessionFactoryBuilder().build(reader);
+      factory.getConfiguration().addInterceptor(new MapperGuardInterceptor());
+    }
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty(PREFIX + MapperGuardInterceptor.MAX_ROWS);
+    System.clearProperty(PREFIX + MapperGuardInterceptor.FAIL);
+  }
+
+  @Test
+  public void testLog() {
+    try (SqlSession sqlSession = factory.openSession()) {
+      UserMapper userMapper = sqlSession.getMapper(UserMapper.class);
+      //默认只输出日志
+      Assert.assertEquals(53, userMapper.selectByExample(new Example<>()).size());
+    }
+  }
+
+  @Test
+  public void testFail() {
+    try (SqlSession sqlSession = factory.openSession()) {
+      UserIdsMapper mapper = sqlSession.getMapper(UserIdsMapper.class);
+      try {
+        mapper.selectList(null);
+        Assert.fail();
+      } catch (PersistenceException e) {
+        Assert.assertTrue(e.getCause() instanceof MapperGuardException);
+        Assert.assertTrue(e.getCause().getMessage().contains("exceeds 2"));
+        Assert.assertTrue(e.getCause().getMessage().contains(UserIds.class.getName()));
+      }
+      try {
+        mapper.deleteByExample(new Example<>());
+        Assert.fail();
+      } catch (PersistenceException e) {
+        Assert.assertTrue(e.getCause().getMessage().startsWith("Example criteria is empty"));
+      }
+      //计数和判断存在不检查空 Example
+      Assert.assertTrue(mapper.existsByExample(new Example<>()));
+      Assert.assertEquals(3, mapper.countByExampleCapped(new Example<>(), 2));
+      Example<UserIds> example = new Example<>();
+      example.createCriteria().andEqualTo(UserIds::getId1, 1).andEqualTo(UserIds::getId2, 1);
+      Assert.assertEquals(1, mapper.selectByExample(example).size());
+      //分页查询只限制 limit，保留 offset
+      Example<UserIds> ordered = new Example<>();
+      ordered.createCriteria().andIsNotNull(UserIds::getId1);
+      ordered.orderByAsc(UserIds::getId1, UserIds::getId2);
+      List<UserIds> first = mapper.selectByExample(ordered, new RowBounds(0, 2));
+      List<UserIds> second = mapper.selectByExample(ordered, new RowBounds(1, 2));
+      Assert.assertEquals(2, second.size());
+      Assert.assertEquals(first.get(1).getId1(), second.get(0).getId1());
+      Assert.assertEquals(first.get(1).getId2(), second.get(0).getId2());
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  public void testLimit() {
+    Assert.assertSame(RowBounds.DEFAULT, MapperGuardInterceptor.limit(RowBounds.DEFAULT, Integer.MAX_VALUE));
+    RowBounds rowBounds = MapperGuardInterceptor.limit(new RowBounds(20, 100), 11);
+    Assert.assertEquals(20, rowBounds.getOffset());
+    Assert.assertEquals(11, rowBounds.getLimit());
+    RowBounds page = new RowBounds(20, 10);
+    Assert.assertSame(page, MapperGuardInterceptor.limit(page, 11));
+  }
+
+  @Test
+  public void testSqlShape() {
+    Configuration configuration = new Configuration();
+    Assert.assertEquals("SELECT id FROM user WHERE id IN (?, ...) AND name = ?",
+        MapperGuardInterceptor.sqlShape(new BoundSql(configuration,
+            "SELECT id\n  FROM user\n WHERE id IN (?,?, ?)\n AND name = ?", new ArrayList<>(), null)));
+    Assert.assertEquals("INSERT INTO user (id, name) VALUES (?, ...), ...",
+        MapperGuardInterceptor.sqlShape(new BoundSql(configuration,
+            "INSERT INTO user (id, name) VALUES (?,?), (?,?),\n(?,?)", new ArrayList<>(), null)));
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.UserMapper;
+import io.mybatis.mapper.model.User;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+
+public class MapperMetricsInterceptorTest extends BaseMapperTest {
+
+  private SqlSessionFactory build(MapperMetricsInterceptor interceptor) throws IOException {
+    try (Reader reader = Resources.getResourceAsReader("mybatis-config.xml")) {
+      SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(reader);
+      factory.getConfiguration().addInterceptor(interceptor);
+      return factory;
+    }
+  }
+
+  @Test
+  public void testMetrics() throws IOException {
+    MapperMetrics metrics = new MapperMetrics();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    metrics.addReporter(new MicrometerMetricsReporter(registry));
+    SqlSessionFactory factory = build(new MapperMetricsInterceptor(metrics));
+    try (SqlSession sqlSession = factory.openSession()) {
+      UserMapper userMapper = sqlSession.getMapper(UserMapper.class);
+      Assert.assertEquals(53, userMapper.selectList(null).size());
+      Assert.assertEquals(53, userMapper.selectList(null).size());
+      User user = new User();
+      user.setUserName("metrics");
+      Assert.assertEquals(1, userMapper.insert(user));
+      sqlSession.rollback();
+    }
+    Assert.assertEquals(2, metrics.snapshot().size());
+    StatementMetrics selectList = metrics.snapshot().stream()
+        .filter(s -> s.method().equals("selectList")).findFirst().get();
+    Assert.assertEquals(UserMapper.class.getName() + ".selectList", selectList.statementId());
+    Assert.assertEquals(User.class, selectList.entityClass());
+    Assert.assertEquals(2, selectList.count());
+    Assert.assertEquals(106, selectList.rows());
+    Assert.assertEquals(0, selectList.errors());
+    Assert.assertTrue(selectList.percentile(0.99, TimeUnit.NANOSECONDS) >= selectList.percentile(0.5, TimeUnit.NANOSECONDS));
+
+    Timer timer = registry.get(MicrometerMetricsReporter.CALLS)
+        .tag("entity", User.class.getName())
+        .tag("method", "insert")
+        .tag("outcome", "success").timer();
+    Assert.assertEquals(1, timer.count());
+    Assert.assertEquals(1, (long) registry.get(MicrometerMetricsReporter.ROWS).tag("method", "insert").summary().totalAmount());
+  }
+
+  @Test
+  public void testDisabled() throws IOException {
+    MapperMetrics metrics = new MapperMetrics();
+    MapperMetricsInterceptor interceptor = new MapperMetricsInterceptor(metrics);
+    interceptor.setEnabled(false);
+    SqlSessionFactory factory = build(interceptor);
+    try (SqlSession sqlSession = factory.openSession()) {
+      UserMapper userMapper = sqlSession.getMapper(UserMapper.class);
+      Assert.assertEquals(53, userMapper.selectCount(null));
+    }
+    Assert.assertTrue(metrics.snapshot().isEmpty());
+  }
+
+  @Test
+  public void testHistogram() {
+    for (long micros : new long[]{0, 1, 3, 4, 5, 7, 8, 100, 1000, 123456789L, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.index(micros);
+      Assert.assertTrue(LatencyHistogram.upperBound(index) >= micros);
+      if (index > 0) {
+        Assert.assertTrue(LatencyHistogram.upperBound(index - 1) < micros);
+      }
+    }
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i * 1000);
+    }
+    long p50 = histogram.percentile(0.5);
+    Assert.assertTrue(p50 >= 50000 && p50 <= 50000 * 1.25);
+    long p99 = histogram.percentile(0.99);
+    Assert.assertTrue(p99 >= 99000 && p99 <= 99000 * 1.25);
+  }
+
+}
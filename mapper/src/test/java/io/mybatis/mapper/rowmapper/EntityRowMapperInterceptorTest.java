@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.rowmapper;
+
+import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.UserAutoMapper;
+import io.mybatis.mapper.example.Example;
+import io.mybatis.mapper.model.UserAuto;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+public class EntityRowMapperInterceptorTest extends BaseMapperTest {
+
+  private SqlSessionFactory build() throws IOException {
+    try (Reader reader = Resources.getResourceAsReader("mybatis-config.xml")) {
+      SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(reader);
+      factory.getConfiguration().addInterceptor(new EntityRowMapperInterceptor());
+      return factory;
+    }
+  }
+
+  private void assertSame(List<UserAuto> expected, List<UserAuto> actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      UserAuto e = expected.get(i);
+      UserAuto a = actual.get(i);
+      Assert.assertEquals(e.getId(), a.getId());
+      Assert.assertEquals(e.getName(), a.getName());
+      if (e.getAddress() == null) {
+        Assert.assertNull(a.getAddress());
+      } else {
+        Assert.assertEquals(e.getAddress().getSheng(), a.getAddress().getSheng());
+        Assert.assertEquals(e.getAddress().getShi(), a.getAddress().getShi());
+      }
+    }
+  }
+
+  @Test
+  public void testRowMapper() throws IOException {
+    List<UserAuto> expected;
+    List<UserAuto> expectedColumns;
+    try (SqlSession sqlSession = getSqlSession()) {
+      UserAutoMapper mapper = sqlSession.getMapper(UserAutoMapper.class);
+      expected = mapper.selectList(null);
+      Example<UserAuto> example = new Example<>();
+      example.selectColumns(UserAuto::getId, UserAuto::getAddress);
+      expectedColumns = mapper.selectByExample(example);
+    }
+    Assert.assertFalse(expected.isEmpty());
+
+    SqlSessionFactory factory = build();
+    try (SqlSession sqlSession = factory.openSession()) {
+      UserAutoMapper mapper = sqlSession.getMapper(UserAutoMapper.class);
+      List<UserAuto> actual = mapper.selectList(null);
+      assertSame(expected, actual);
+      Example<UserAuto> example = new Example<>();
+      example.selectColumns(UserAuto::getId, UserAuto::getAddress);
+      assertSame(expectedColumns, mapper.selectByExample(example));
+      Assert.assertEquals(expected.get(0).getName(), mapper.selectByPrimaryKey(expected.get(0).getId()).get().getName());
+      //RowBounds 分页
+      Assert.assertEquals(1, mapper.selectByExample(new Example<>(), new RowBounds(1, 1)).size());
+
+      MappedStatement ms = factory.getConfiguration().getMappedStatement(UserAutoMapper.class.getName() + ".selectList");
+      EntityRowMapper rowMapper = EntityRowMapper.of(factory.getConfiguration(), ms.getResultMaps().get(0));
+      Assert.assertNotNull(rowMapper);
+      Assert.assertEquals(UserAuto.class, rowMapper.getType());
+    }
+  }
+
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.sharding;
+
+import io.mybatis.mapper.BaseMapper;
+import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.example.Aggregate;
+import io.mybatis.mapper.example.Example;
+import io.mybatis.mapper.list.ListMapper;
+import io.mybatis.provider.Caching;
+import io.mybatis.provider.Entity;
+import io.mybatis.provider.EntityFactory;
+import io.mybatis.provider.SqlScript;
+import org.apache.ibatis.annotations.Lang;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.builder.annotation.ProviderContext;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Reader;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+public class ShardingInterceptorTest extends BaseMapperTest {
+
+  @Sharding(property = "userId", shards = 4)
+  @Entity.Table("shard_order")
+  public static class ShardOrder {
+    @Entity.Column(id = true)
+    private Long   id;
+    @Entity.Column("user_id")
+    private Long   userId;
+    @Entity.Column
+    private String name;
+
+    public ShardOrder() {
+    }
+
+    public ShardOrder(Long id, Long userId, String name) {
+      this.id = id;
+      this.userId = userId;
+      this.name = name;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(Long id) {
+      this.id = id;
+    }
+
+    public Long getUserId() {
+      return userId;
+    }
+
+    public void setUserId(Long userId) {
+      this.userId = userId;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  public interface ShardOrderMapper extends BaseMapper<ShardOrder, Long>, ListMapper<ShardOrder> {
+    @Lang(Caching.class)
+    @SelectProvider(type = ShardOrderProvider.class, method = "selectIds")
+    List<Long> selectIds();
+  }
+
+  public static class ShardOrderProvider {
+    public static String selectIds(ProviderContext providerContext) {
+      return SqlScript.caching(providerContext, (SqlScript) entity -> "SELECT id FROM " + entity.tableName());
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    for (int i = 0; i < 4; i++) {
+      execute("create table shard_order_0" + i + " (id BIGINT PRIMARY KEY, user_id BIGINT, name VARCHAR(32))");
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    for (int i = 0; i < 4; i++) {
+      execute("drop table shard_order_0" + i);
+    }
+  }
+
+  @Test
+  public void testRoute() throws Exception {
+    try (SqlSession sqlSession = factory(new ShardingInterceptor()).openSession(true)) {
+      ShardOrderMapper mapper = sqlSession.getMapper(ShardOrderMapper.class);
+      for (long i = 1; i <= 8; i++) {
+        Assert.assertEquals(1, mapper.insert(new ShardOrder(i, i, "order" + i)));
+      }
+      for (int i = 0; i < 4; i++) {
+        Assert.assertEquals(2, count("shard_order_0" + i));
+      }
+      try {
+        mapper.insert(new ShardOrder(9L, null, "order9"));
+        Assert.fail();
+      } catch (PersistenceException e) {
+        Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+      }
+
+      //分片键路由到单个物理表
+      Assert.assertEquals("order5", mapper.wrapper().eq(ShardOrder::getUserId, 5L).one().get().getName());
+      Assert.assertEquals(Arrays.asList(6L, 3L, 2L), mapper.wrapper().in(ShardOrder::getUserId, Arrays.asList(2L, 6L, 3L))
+          .orderByDesc(ShardOrder::getName).list().stream().map(ShardOrder::getUserId).collect(Collectors.toList()));
+      //没有分片键时查询所有物理表，合并后重新排序
+      List<ShardOrder> orders = mapper.wrapper().orderByDesc(ShardOrder::getId).list();
+      Assert.assertEquals(Arrays.asList(8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L),
+          orders.stream().map(ShardOrder::getId).collect(Collectors.toList()));
+      Assert.assertEquals(8, mapper.wrapper().count());
+      Assert.assertEquals("order7", mapper.selectByPrimaryKey(7L).get().getName());
+
+      //没有分片键时更新所有物理表
+      Assert.assertEquals(8, mapper.wrapper().set(ShardOrder::getName, "updated").update());
+      Assert.assertEquals(1, mapper.delete(new ShardOrder(null, 4L, null)));
+      Assert.assertEquals(1, count("shard_order_00"));
+      Assert.assertEquals(7, mapper.selectByExample(new Example<>()).stream().filter(o -> o.getName().equals("updated")).count());
+    }
+  }
+
+  @Test
+  public void testInsertList() throws Exception {
+    try (SqlSession sqlSession = factory(new ShardingInterceptor()).openSession(true)) {
+      ShardOrderMapper mapper = sqlSession.getMapper(ShardOrderMapper.class);
+      List<ShardOrder> orders = new ArrayList<>();
+      for (long i = 1; i <= 8; i++) {
+        orders.add(new ShardOrder(i, i, "order" + i));
+      }
+      //每个实体只写入自己的物理表
+      Assert.assertEquals(8, mapper.insertList(orders));
+      for (int i = 0; i < 4; i++) {
+        Assert.assertEquals(2, count("shard_order_0" + i));
+      }
+      Assert.assertEquals(8, mapper.wrapper().count());
+      Assert.assertTrue(mapper.wrapper().eq(ShardOrder::getUserId, 5L).exists());
+      Assert.assertFalse(mapper.wrapper().eq(ShardOrder::getName, "none").exists());
+    }
+  }
+
+  @Test
+  public void testMerge() throws Exception {
+    try (SqlSession sqlSession = factory(new ShardingInterceptor()).openSession(true)) {
+      ShardOrderMapper mapper = sqlSession.getMapper(ShardOrderMapper.class);
+      for (long i = 1; i <= 4; i++) {
+        mapper.insert(new ShardOrder(i, i, "order" + i));
+      }
+      //每张表只有一条数据时，数值列也不会被当作计数相加
+      List<Long> ids = mapper.selectIds();
+      Collections.sort(ids);
+      Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L), ids);
+      //无法排序时不返回顺序错误的数据
+      Example<ShardOrder> example = new Example<>();
+      example.setOrderByClause("LOWER(name) DESC");
+      try {
+        mapper.selectByExample(example);
+        Assert.fail();
+      } catch (PersistenceException e) {
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+    }
+    ShardingTable shardingTable = ShardingTable.of(EntityFactory.create(ShardOrder.class)).get();
+    Assert.assertEquals("SELECT shard_order FROM shard_order_01 WHERE shard_order.id = ?",
+        shardingTable.rewrite("SELECT shard_order FROM shard_order WHERE shard_order.id = ?", "shard_order_01"));
+    Assert.assertEquals("UPDATE shard_order_01 SET shard_order = 1",
+        shardingTable.rewrite("UPDATE shard_order SET shard_order = 1", "shard_order_01"));
+  }
+
+  @Test
+  public void testUpdateByExample() throws Exception {
+    try (SqlSession sqlSession = factory(new ShardingInterceptor()).openSession(true)) {
+      ShardOrderMapper mapper = sqlSession.getMapper(ShardOrderMapper.class);
+      for (long i = 1; i <= 4; i++) {
+        mapper.insert(new ShardOrder(i, i, "order" + i));
+      }
+      //更新的实体中的分片键不参与路由，Example 没有分片键时更新所有物理表
+      Example<ShardOrder> example = new Example<>();
+      example.createCriteria().andIn(ShardOrder::getName, Arrays.asList("order1", "order2"));
+      Assert.assertEquals(2, mapper.updateByExampleSelective(new ShardOrder(null, 1L, "updated"), example));
+      Assert.assertEquals(2, mapper.wrapper().eq(ShardOrder::getName, "updated").count());
+      //Example 有分片键时只更新对应的物理表
+      example = new Example<>();
+      example.createCriteria().andEqualTo(ShardOrder::getUserId, 3L);
+      Assert.assertEquals(1, mapper.updateByExampleSelective(new ShardOrder(null, 1L, "order3-updated"), example));
+      Assert.assertEquals("order3-updated", mapper.selectByPrimaryKey(3L).get().getName());
+    }
+  }
+
+  @Test
+  public void testUnmergeable() throws Exception {
+    try (SqlSession sqlSession = factory(new ShardingInterceptor()).openSession(true)) {
+      ShardOrderMapper mapper = sqlSession.getMapper(ShardOrderMapper.class);
+      for (long i = 1; i <= 8; i++) {
+        mapper.insert(new ShardOrder(i, i, "order" + (i % 2)));
+      }
+      //聚合查询和 distinct 计数不能合并各表的结果
+      try {
+        mapper.wrapper().groupBy(ShardOrder::getName).aggregate(Aggregate.count());
+        Assert.fail();
+      } catch (PersistenceException e) {
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+      Example<ShardOrder> distinct = new Example<>();
+      distinct.setDistinct(true);
+      distinct.selectColumns(ShardOrder::getName);
+      try {
+        mapper.countByExample(distinct);
+        Assert.fail();
+      } catch (PersistenceException e) {
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+      //包含分片键时只查询一张表
+      Assert.assertEquals(1, mapper.wrapper().eq(ShardOrder::getUserId, 5L).aggregate(Aggregate.count()).size());
+
+      //游标查询只能路由到一张表
+      try (Cursor<ShardOrder> cursor = mapper.selectCursorByExample(mapper.wrapper().eq(ShardOrder::getUserId, 5L).example())) {
+        List<Long> ids = new ArrayList<>();
+        cursor.forEach(order -> ids.add(order.getId()));
+        Assert.assertEquals(Collections.singletonList(5L), ids);
+      }
+      try {
+        mapper.selectCursorByExample(new Example<>());
+        Assert.fail();
+      } catch (PersistenceException e) {
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+    }
+  }
+
+  @Test
+  public void testParallel() throws Exception {
+    try (SqlSession sqlSession = factory(new ShardingInterceptor(ForkJoinPool.commonPool())).openSession(true)) {
+      ShardOrderMapper mapper = sqlSession.getMapper(ShardOrderMapper.class);
+      for (long i = 1; i <= 20; i++) {
+        mapper.insert(new ShardOrder(i, i * 3, "order" + i));
+      }
+      Example<ShardOrder> example = new Example<>();
+      example.orderBy(ShardOrder::getUserId, Example.Order.DESC);
+      List<ShardOrder> orders = mapper.selectByExample(example);
+      Assert.assertEquals(20, orders.size());
+      for (int i = 0; i < orders.size(); i++) {
+        Assert.assertEquals(Long.valueOf((20 - i) * 3), orders.get(i).getUserId());
+      }
+      Assert.assertEquals(20, mapper.countByExample(new Example<>()));
+    }
+  }
+
+  private SqlSessionFactory factory(ShardingInterceptor interceptor) throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("mybatis-config.xml")) {
+      SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(reader);
+      factory.getConfiguration().addInterceptor(interceptor);
+      return factory;
+    }
+  }
+
+  private void execute(String sql) throws Exception {
+    try (SqlSession sqlSession = getSqlSession();
+         Statement statement = sqlSession.getConnection().createStatement()) {
+      statement.execute(sql);
+      sqlSession.commit(true);
+    }
+  }
+
+  private long count(String table) throws Exception {
+    try (SqlSession sqlSession = getSqlSession();
+         Statement statement = sqlSession.getConnection().createStatement();
+         ResultSet rs = statement.executeQuery("select count(*) from " + table)) {
+      rs.next();
+      return rs.getLong(1);
+    }
+  }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mybatis.mapper.version;
+
+import io.mybatis.mapper.BaseMapper;
+import io.mybatis.mapper.H2BaseMapperTest;
+import io.mybatis.mapper.fn.Fn;
+import io.mybatis.mapper.list.ListMapper;
+import io.mybatis.provider.Entity;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.Arrays;
+
+public class OptimisticLockTest extends H2BaseMapperTest {
+
+  @Entity.Table("version_user")
+  public static class VersionUser {
+    @Entity.Column(id = true)
+    private Long    id;
+    @Entity.Column
+    private String  name;
+    @Entity.Column(props = @Entity.Prop(name = OptimisticLock.VERSION, value = "true"))
+    private Integer version;
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(Long id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public Integer getVersion() {
+      return version;
+    }
+
+    public void setVersion(Integer version) {
+      this.version = version;
+    }
+  }
+
+  public interface VersionUserMapper extends BaseMapper<VersionUser, Long>, ListMapper<VersionUser> {
+  }
+
+  private SqlSessionFactory factory;
+
+  @Before
+  public void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("mybatis-config-h2.xml")) {
+      factory = new SqlSessionFactoryBuilder().build(reader);
+      factory.getConfiguration().addInterceptor(new OptimisticLockInterceptor());
+    }
+    execute("create table version_user (id BIGINT PRIMARY KEY, name VARCHAR(32), version INTEGER)",
+        "insert into version_user values (1, 'user1', 1)",
+        "insert into version_user values (2, 'user2', 1)");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    execute("drop table version_user");
+  }
+
+  @Test
+  public void testUpdateByPrimaryKey() {
+    try (SqlSession sqlSession = factory.openSession()) {
+      VersionUserMapper mapper = sqlSession.getMapper(VersionUserMapper.class);
+      VersionUser stale = mapper.selectByPrimaryKey(1L).get();
+      sqlSession.clearCache();
+      VersionUser user = mapper.selectByPrimaryKey(1L).get();
+      user.setName("first");
+      Assert.assertEquals(1, mapper.updateByPrimaryKey(user));
+      Assert.assertEquals(Integer.valueOf(2), user.getVersion());
+      //实体中的版本号已经更新，可以继续更新
+      user.setName("second");
+      Assert.assertEquals(1, mapper.updateByPrimaryKeySelective(user));
+      Assert.assertEquals(Integer.valueOf(3), mapper.selectByPrimaryKey(1L).get().getVersion());
+
+      stale.setName("stale");
+      try {
+        mapper.updateByPrimaryKeySelective(stale);
+        Assert.fail();
+      } catch (PersistenceException e) {
+        OptimisticLockException cause = (OptimisticLockException) e.getCause();
+        Assert.assertEquals(1, cause.getExpected());
+        Assert.assertEquals(0, cause.getActual());
+        Assert.assertTrue(cause.getStatementId().endsWith(".updateByPrimaryKeySelective"));
+      }
+      Assert.assertEquals(Integer.valueOf(1), stale.getVersion());
+      Assert.assertEquals("second", mapper.selectByPrimaryKey(1L).get().getName());
+
+      user.setName(null);
+      Assert.assertEquals(1, mapper.updateByPrimaryKeySelectiveWithForceFields(user, Fn.of(VersionUser::getName)));
+      Assert.assertEquals(Integer.valueOf(4), user.getVersion());
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  public void testUpdateList() {
+    try (SqlSession sqlSession = factory.openSession()) {
+      VersionUserMapper mapper = sqlSession.getMapper(VersionUserMapper.class);
+      VersionUser user1 = mapper.selectByPrimaryKey(1L).get();
+      VersionUser user2 = mapper.selectByPrimaryKey(2L).get();
+      user1.setName("list1");
+      user2.setName("list2");
+      Assert.assertEquals(2, mapper.updateList(Arrays.asList(user1, user2)));
+      Assert.assertEquals(Integer.valueOf(2), user1.getVersion());
+      Assert.assertEquals(Integer.valueOf(2), mapper.selectByPrimaryKey(2L).get().getVersion());
+
+      //其中一条数据版本号过期
+      user2.setVersion(1);
+      try {
+        mapper.updateListSelective(Arrays.asList(user1, user2));
+        Assert.fail();
+      } catch (PersistenceException e) {
+        OptimisticLockException cause = (OptimisticLockException) e.getCause();
+        Assert.assertEquals(2, cause.getExpected());
+        Assert.assertEquals(1, cause.getActual());
+      }
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  public void testNullVersion() {
+    try (SqlSession sqlSession = factory.openSession()) {
+      VersionUserMapper mapper = sqlSession.getMapper(VersionUserMapper.class);
+      VersionUser user = mapper.selectByPrimaryKey(1L).get();
+      user.setVersion(null);
+      try {
+        mapper.updateByPrimaryKeySelective(user);
+        Assert.fail();
+      } catch (PersistenceException e) {
+        Assert.assertTrue(e.getMessage().contains("The version property 'version' cannot be null"));
+      }
+      VersionUser user2 = mapper.selectByPrimaryKey(2L).get();
+      try {
+        mapper.updateList(Arrays.asList(user2, user));
+        Assert.fail();
+      } catch (PersistenceException e) {
+        Assert.assertTrue(e.getMessage().contains("The version property 'version' cannot be null"));
+      }
+      Assert.assertEquals(Integer.valueOf(1), user2.getVersion());
+      sqlSession.rollback();
+    }
+  }
+
+  private void execute(String... sqls) throws Exception {
+    try (SqlSession sqlSession = factory.openSession(true);
+         Statement statement = sqlSession.getConnection().createStatement()) {
+      for (String sql : sqls) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.mapper.warmup;
+
+import io.mybatis.mapper.BaseMapperTest;
+import io.mybatis.mapper.UserMapper;
+import io.mybatis.mapper.model.User;
+import io.mybatis.mapper.model.UserIds;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public class MapperWarmUpTest extends BaseMapperTest {
+
+  @Test
+  public void testWarmUp() throws IOException {
+    SqlSessionFactory factory;
+    try (Reader reader = Resources.getResourceAsReader("mybatis-config.xml")) {
+      factory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    MapperWarmUp.Report report = MapperWarmUp.warmUp(factory.getConfiguration(), 4);
+    Assert.assertTrue(report.isComplete());
+    Assert.assertEquals(0, report.getFailures());
+    Assert.assertTrue(report.getStatements() > 0);
+    Assert.assertTrue(report.getEntities().containsKey(User.class));
+    Assert.assertTrue(report.getEntities().containsKey(UserIds.class));
+    Assert.assertTrue(report.getEntities().get(User.class).getStatements() > 20);
+
+    try (SqlSession sqlSession = factory.openSession()) {
+      UserMapper userMapper = sqlSession.getMapper(UserMapper.class);
+      Assert.assertEquals(53, userMapper.selectList(null).size());
+      Assert.assertEquals("张无忌", userMapper.selectByPrimaryKey(1L).get().getUserName());
+      User user = new User();
+      user.setUserName("warmup");
+      Assert.assertEquals(1, userMapper.insertSelective(user));
+      Assert.assertNotNull(user.getId());
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  public void testInterrupted() throws IOException {
+    SqlSessionFactory factory;
+    try (Reader reader = Resources.getResourceAsReader("mybatis-config.xml")) {
+      factory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    Thread.currentThread().interrupt();
+    MapperWarmUp.Report report = MapperWarmUp.warmUp(factory.getConfiguration(), 4);
+    //保留中断状态，并且结果标记为未完成
+    Assert.assertTrue(Thread.interrupted());
+    Assert.assertFalse(report.isComplete());
+    Assert.assertTrue(report.toString().contains("interrupted"));
+  }
+
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * 编译期为 {@code @Entity.Table} 实体类生成元数据 {@code io.mybatis.mapper.meta.EntityTableMeta}，
+ * 生成的类和实体类在同一个包下，类名为实体类名加上 {@code _EntityMeta} 后缀。
+ * <p>
+ * 生成的代码按照运行时 {@code EntityFactory} 扫描字段的顺序和默认工厂的规则创建实体类和所有列，
+ * 运行时由 {@code StaticEntityTableFactory} 加载，不再需要扫描字段和读取注解。
+ * 未指定的表名、列名仍然在运行时通过 {@code Style} 计算，保证和反射方式的结果一致。
+ * <p>
+ * 使用时将 mybatis-processor 添加到编译器的 annotationProcessorPaths 中即可
+ *
+ * @author liuzh
+ */
+@SupportedAnnotationTypes(EntityMetaProcessor.TABLE)
+public class EntityMetaProcessor extends AbstractProcessor {
+  public static final String TABLE     = "io.mybatis.provider.Entity.Table";
+  public static final String COLUMN    = "io.mybatis.provider.Entity.Column";
+  public static final String TRANSIENT = "io.mybatis.provider.Entity.Transient";
+  public static final String SUFFIX    = "_EntityMeta";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (TypeElement annotation : annotations) {
+      for (TypeElement entity : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+        if (!accessible(entity)) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+              "Skip generating metadata for inaccessible entity " + entity.getQualifiedName(), entity);
+          continue;
+        }
+        try {
+          generate(entity);
+        } catch (IOException e) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+              "Unable to generate metadata for " + entity.getQualifiedName() + ": " + e.getMessage(), entity);
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 生成的类需要在同一个包中直接引用实体类
+   */
+  protected boolean accessible(TypeElement entity) {
+    Element element = entity;
+    while (element instanceof TypeElement) {
+      if (element.getModifiers().contains(Modifier.PRIVATE)) {
+        return false;
+      }
+      if (((TypeElement) element).getNestingKind() == NestingKind.LOCAL
+          || ((TypeElement) element).getNestingKind() == NestingKind.ANONYMOUS) {
+        return false;
+      }
+      element = element.getEnclosingElement();
+    }
+    return true;
+  }
+
+  protected void generate(TypeElement entity) throws IOException {
+    String packageName = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(entity).toString();
+    String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+    String entityClass = entity.getQualifiedName() + ".class";
+    Map<String, AnnotationValue> table = values(annotation(entity, TABLE));
+
+    JavaFileObject file = processingEnv.getFiler().createSourceFile(
+        packageName.isEmpty() ? simpleName : packageName + "." + simpleName, entity);
+    try (Writer writer = file.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+      if (!packageName.isEmpty()) {
+        out.println("package " + packageName + ";");
+        out.println();
+      }
+      out.println("/**");
+      out.println(" * Generated by " + EntityMetaProcessor.class.getName() + " from {@link " + entity.getQualifiedName() + "}, do not modify");
+      out.println(" */");
+      out.println("public final class " + simpleName + " implements io.mybatis.mapper.meta.EntityTableMeta {");
+      out.println();
+      out.println("  @Override");
+      out.println("  public io.mybatis.provider.EntityTable createEntityTable() {");
+      out.println("    String style = " + literal(string(table, "style")) + ";");
+      out.println("    io.mybatis.provider.EntityTable entityTable = io.mybatis.provider.EntityTable.of(" + entityClass + ")");
+      String tableName = string(table, "value");
+      out.println("        .table(" + (tableName.isEmpty()
+          ? "io.mybatis.provider.Style.getStyle(style).tableName(" + entityClass + ")" : literal(tableName)) + ")");
+      out.println("        .catalog(" + configOr(string(table, "catalog"), "mybatis.provider.catalog") + ")");
+      out.println("        .schema(" + configOr(string(table, "schema"), "mybatis.provider.schema") + ")");
+      out.println("        .style(style)");
+      out.println("        .resultMap(" + literal(string(table, "resultMap")) + ")");
+      out.println("        .autoResultMap(" + bool(table, "autoResultMap") + ")");
+      out.println("        .excludeSuperClasses(new Class<?>[]{" + classes(table, "excludeSuperClasses") + "})");
+      out.println("        .excludeFieldTypes(new Class<?>[]{" + classes(table, "excludeFieldTypes") + "})");
+      out.println("        .excludeFields(new String[]{" + strings(table, "excludeFields") + "});");
+      for (Map.Entry<String, String> prop : props(table).entrySet()) {
+        out.println("    entityTable.setProp(" + literal(prop.getKey()) + ", " + literal(prop.getValue()) + ");");
+      }
+      out.println("    io.mybatis.provider.EntityField field;");
+      generateColumns(out, entity, table);
+      out.println("    return entityTable.ready(true);");
+      out.println("  }");
+      out.println();
+      out.println("}");
+    }
+  }
+
+  /**
+   * 和 EntityFactory 保持一致：先处理实体类自身的字段，再依次处理父类（父类字段倒序，添加时会插入到最前面）
+   */
+  protected void generateColumns(PrintWriter out, TypeElement entity, Map<String, AnnotationValue> table) {
+    List<TypeMirror> excludeSuperClasses = classMirrors(table, "excludeSuperClasses");
+    List<TypeMirror> excludeFieldTypes = classMirrors(table, "excludeFieldTypes");
+    Set<String> excludeFields = new HashSet<>();
+    for (AnnotationValue value : list(table, "excludeFields")) {
+      excludeFields.add((String) value.getValue());
+    }
+    TypeElement current = entity;
+    int superLevel = 0;
+    boolean superClass = false;
+    while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+      List<VariableElement> fields = ElementFilter.fieldsIn(current.getEnclosedElements());
+      if (superClass) {
+        fields = new ArrayList<>(fields);
+        Collections.reverse(fields);
+      }
+      for (VariableElement field : fields) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)
+            || excludeFields.contains(field.getSimpleName().toString())
+            || contains(excludeFieldTypes, field.asType())
+            || annotation(field, TRANSIENT) != null) {
+          continue;
+        }
+        generateColumn(out, entity, superLevel, field);
+      }
+      //跳过排除的父类
+      do {
+        current = superclass(current);
+        superLevel++;
+      } while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")
+          && contains(excludeSuperClasses, current.asType()));
+      superClass = true;
+    }
+  }
+
+  /**
+   * 和 DefaultEntityColumnFactory 的规则保持一致
+   */
+  protected void generateColumn(PrintWriter out, TypeElement entity, int superLevel, VariableElement field) {
+    out.println("    field = io.mybatis.mapper.meta.StaticEntityTableFactory.field("
+        + entity.getQualifiedName() + ".class, " + superLevel + ", " + literal(field.getSimpleName().toString()) + ");");
+    AnnotationMirror annotation = annotation(field, COLUMN);
+    if (annotation == null) {
+      out.println("    entityTable.addColumn(io.mybatis.provider.EntityColumn.of(field)");
+      out.println("        .column(io.mybatis.provider.Style.getStyle(entityTable.style()).columnName(entityTable, field))");
+      out.println("        .numericScale(\"\")");
+      out.println("        .jdbcType(org.apache.ibatis.type.JdbcType.UNDEFINED));");
+      return;
+    }
+    Map<String, AnnotationValue> column = values(annotation);
+    String columnName = string(column, "value");
+    out.println("    entityTable.addColumn(io.mybatis.provider.EntityColumn.of(field)");
+    out.println("        .column(" + (columnName.isEmpty()
+        ? "io.mybatis.provider.Style.getStyle(entityTable.style()).columnName(entityTable, field)" : literal(columnName)) + ")");
+    out.println("        .id(" + bool(column, "id") + ")");
+    out.println("        .nullable(" + bool(column, "nullable") + ")");
+    out.println("        .useGeneratedKeys(" + bool(column, "useGeneratedKeys") + ")");
+    out.println("        .afterSql(" + literal(string(column, "afterSql")) + ")");
+    out.println("        .genId(" + classLiteral((TypeMirror) column.get("genId").getValue()) + ")");
+    out.println("        .genIdExecuteBefore(" + bool(column, "genIdExecuteBefore") + ")");
+    out.println("        .orderBy(" + literal(string(column, "orderBy")) + ")");
+    out.println("        .orderByPriority(" + column.get("orderByPriority").getValue() + ")");
+    out.println("        .selectable(" + bool(column, "selectable") + ")");
+    out.println("        .insertable(" + bool(column, "insertable") + ")");
+    out.println("        .updatable(" + bool(column, "updatable") + ")");
+    out.println("        .jdbcType(org.apache.ibatis.type.JdbcType."
+        + ((VariableElement) column.get("jdbcType").getValue()).getSimpleName() + ")");
+    out.println("        .typeHandler(" + classLiteral((TypeMirror) column.get("typeHandler").getValue()) + ")");
+    StringBuilder builder = new StringBuilder("        .numericScale(" + literal(string(column, "numericScale")) + ")");
+    for (Map.Entry<String, String> prop : props(column).entrySet()) {
+      builder.append("\n        .setProp(").append(literal(prop.getKey())).append(", ").append(literal(prop.getValue())).append(")");
+    }
+    out.println(builder.append(");"));
+  }
+
+  protected TypeElement superclass(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    return (TypeElement) ((DeclaredType) superclass).asElement();
+  }
+
+  protected boolean contains(List<TypeMirror> types, TypeMirror type) {
+    TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+    for (TypeMirror mirror : types) {
+      if (processingEnv.getTypeUtils().isSameType(processingEnv.getTypeUtils().erasure(mirror), erasure)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected AnnotationMirror annotation(Element element, String annotationName) {
+    for (AnnotationMirror mirror : processingEnv.getElementUtils().getAllAnnotationMirrors(element)) {
+      TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+      if (type.getQualifiedName().contentEquals(annotationName)) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  protected Map<String, AnnotationValue> values(AnnotationMirror mirror) {
+    Map<String, AnnotationValue> values = new HashMap<>();
+    processingEnv.getElementUtils().getElementValuesWithDefaults(mirror)
+        .forEach((method, value) -> values.put(method.getSimpleName().toString(), value));
+    return values;
+  }
+
+  protected String string(Map<String, AnnotationValue> values, String name) {
+    return (String) values.get(name).getValue();
+  }
+
+  protected boolean bool(Map<String, AnnotationValue> values, String name) {
+    return (Boolean) values.get(name).getValue();
+  }
+
+  @SuppressWarnings("unchecked")
+  protected List<? extends AnnotationValue> list(Map<String, AnnotationValue> values, String name) {
+    return (List<? extends AnnotationValue>) values.get(name).getValue();
+  }
+
+  protected List<TypeMirror> classMirrors(Map<String, AnnotationValue> values, String name) {
+    List<TypeMirror> mirrors = new ArrayList<>();
+    for (AnnotationValue value : list(values, name)) {
+      mirrors.add((TypeMirror) value.getValue());
+    }
+    return mirrors;
+  }
+
+  protected String classes(Map<String, AnnotationValue> values, String name) {
+    StringJoiner joiner = new StringJoiner(", ");
+    for (TypeMirror mirror : classMirrors(values, name)) {
+      joiner.add(classLiteral(mirror));
+    }
+    return joiner.toString();
+  }
+
+  protected String strings(Map<String, AnnotationValue> values, String name) {
+    StringJoiner joiner = new StringJoiner(", ");
+    for (AnnotationValue value : list(values, name)) {
+      joiner.add(literal((String) value.getValue()));
+    }
+    return joiner.toString();
+  }
+
+  protected Map<String, String> props(Map<String, AnnotationValue> values) {
+    Map<String, String> props = new LinkedHashMap<>();
+    for (AnnotationValue value : list(values, "props")) {
+      Map<String, AnnotationValue> prop = values((AnnotationMirror) value.getValue());
+      props.put(string(prop, "name"), string(prop, "value"));
+    }
+    return props;
+  }
+
+  protected String classLiteral(TypeMirror mirror) {
+    return processingEnv.getTypeUtils().erasure(mirror).toString() + ".class";
+  }
+
+  protected String configOr(String value, String key) {
+    return value.isEmpty() ? "io.mybatis.config.ConfigHelper.getStr(" + literal(key) + ")" : literal(value);
+  }
+
+  protected static String literal(String value) {
+    StringBuilder builder = new StringBuilder("\"");
+    for (char c : value.toCharArray()) {
+      switch (c) {
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          builder.append("\\r");
+          break;
+        case '\t':
+          builder.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            builder.append(String.format("\\u%04x", (int) c));
+          } else {
+            builder.append(c);
+          }
+      }
+    }
+    return builder.append('"').toString();
+  }
+
+}
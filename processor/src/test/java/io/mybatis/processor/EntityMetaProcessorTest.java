@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.processor;
+
+import io.mybatis.mapper.meta.EntityTableMeta;
+import io.mybatis.mapper.meta.StaticEntityTableFactory;
+import io.mybatis.processor.model.MetaUser;
+import io.mybatis.provider.*;
+import io.mybatis.provider.defaults.DefaultEntityColumnFactory;
+import io.mybatis.provider.defaults.DefaultEntityTableFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+public class EntityMetaProcessorTest {
+
+  /**
+   * 按照 EntityFactory 的方式通过反射创建实体类信息，用于和生成的元数据对比
+   */
+  private EntityTable reflect(Class<?> entityClass) {
+    EntityTable entityTable = new DefaultEntityTableFactory().createEntityTable(entityClass, null);
+    EntityColumnFactory columnFactory = new DefaultEntityColumnFactory();
+    Class<?> declaredClass = entityClass;
+    boolean isSuperClass = false;
+    while (declaredClass != null && declaredClass != Object.class) {
+      Field[] declaredFields = declaredClass.getDeclaredFields();
+      if (isSuperClass) {
+        Collections.reverse(Arrays.asList(declaredFields));
+      }
+      for (Field field : declaredFields) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+          continue;
+        }
+        EntityField entityField = new EntityField(entityClass, field);
+        if (entityTable.isExcludeField(entityField)) {
+          continue;
+        }
+        Optional<List<EntityColumn>> columns = columnFactory.createEntityColumn(entityTable, entityField, null);
+        columns.ifPresent(list -> list.forEach(entityTable::addColumn));
+      }
+      declaredClass = declaredClass.getSuperclass();
+      while (entityTable.isExcludeSuperClass(declaredClass) && declaredClass != Object.class) {
+        declaredClass = declaredClass.getSuperclass();
+      }
+      isSuperClass = true;
+    }
+    return entityTable;
+  }
+
+  private void assertSame(EntityTable expected, EntityTable actual) {
+    Assert.assertEquals(expected.table(), actual.table());
+    Assert.assertEquals(expected.catalog(), actual.catalog());
+    Assert.assertEquals(expected.schema(), actual.schema());
+    Assert.assertEquals(expected.style(), actual.style());
+    Assert.assertEquals(expected.resultMap(), actual.resultMap());
+    Assert.assertEquals(expected.autoResultMap(), actual.autoResultMap());
+    Assert.assertEquals(expected.props(), actual.props());
+    Assert.assertEquals(expected.fieldNames(), actual.fieldNames());
+    Assert.assertEquals(expected.columnNames(), actual.columnNames());
+    for (int i = 0; i < expected.columns().size(); i++) {
+      EntityColumn e = expected.columns().get(i);
+      EntityColumn a = actual.columns().get(i);
+      Assert.assertEquals(e.field().getField(), a.field().getField());
+      Assert.assertEquals(e.javaType(), a.javaType());
+      Assert.assertSame(actual, a.entityTable());
+      Assert.assertEquals(e.id(), a.id());
+      Assert.assertEquals(e.nullable(), a.nullable());
+      Assert.assertEquals(e.useGeneratedKeys(), a.useGeneratedKeys());
+      Assert.assertEquals(e.afterSql(), a.afterSql());
+      Assert.assertEquals(e.genId(), a.genId());
+      Assert.assertEquals(e.genIdExecuteBefore(), a.genIdExecuteBefore());
+      Assert.assertEquals(e.orderBy(), a.orderBy());
+      Assert.assertEquals(e.orderByPriority(), a.orderByPriority());
+      Assert.assertEquals(e.selectable(), a.selectable());
+      Assert.assertEquals(e.insertable(), a.insertable());
+      Assert.assertEquals(e.updatable(), a.updatable());
+      Assert.assertEquals(e.jdbcType(), a.jdbcType());
+      Assert.assertEquals(e.typeHandler(), a.typeHandler());
+      Assert.assertEquals(e.numericScale(), a.numericScale());
+      Assert.assertEquals(e.props(), a.props());
+    }
+  }
+
+  @Test
+  public void testGeneratedMetaSameAsReflection() {
+    Optional<EntityTableMeta> meta = StaticEntityTableFactory.load(MetaUser.class);
+    Assert.assertTrue(meta.isPresent());
+    EntityTable entityTable = meta.get().createEntityTable();
+    Assert.assertTrue(entityTable.ready());
+    Assert.assertEquals(Arrays.asList("id", "createdBy", "deleted", "name", "userAge", "score"), entityTable.fieldNames());
+    Assert.assertEquals("user_name", entityTable.columns().get(3).column());
+    Assert.assertEquals("\"quoted\"", entityTable.columns().get(3).getProp("logic"));
+    assertSame(reflect(MetaUser.class), entityTable);
+  }
+
+  @Test
+  public void testNestedEntity() {
+    Optional<EntityTableMeta> meta = StaticEntityTableFactory.load(MetaUser.Role.class);
+    Assert.assertTrue(meta.isPresent());
+    EntityTable entityTable = meta.get().createEntityTable();
+    Assert.assertEquals("ROLE", entityTable.table());
+    Assert.assertEquals(Arrays.asList("ROLE_ID", "ROLE_NAME"), entityTable.columnNames());
+    assertSame(reflect(MetaUser.Role.class), entityTable);
+  }
+
+  @Test
+  public void testEntityFactoryUseGeneratedMeta() {
+    EntityTable entityTable = EntityFactory.create(MetaUser.class);
+    Assert.assertEquals("meta_user", entityTable.table());
+    assertSame(reflect(MetaUser.class), entityTable);
+    Assert.assertFalse(StaticEntityTableFactory.load(String.class).isPresent());
+  }
+
+}
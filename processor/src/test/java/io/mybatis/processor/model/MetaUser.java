@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mybatis.processor.model;
+
+import io.mybatis.provider.Entity;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.StringTypeHandler;
+
+@Entity.Table(value = "meta_user", remark = "用户", autoResultMap = true,
+    excludeFields = "ignored", excludeFieldTypes = Object.class,
+    props = @Entity.Prop(name = "deleteByExample.allowEmpty", value = "false"))
+public class MetaUser extends BaseEntity {
+  public static final String CONSTANT = "constant";
+
+  @Entity.Column(value = "user_name", jdbcType = JdbcType.VARCHAR, typeHandler = StringTypeHandler.class,
+      orderBy = "DESC", orderByPriority = 1, props = @Entity.Prop(name = "logic", value = "\"quoted\""))
+  private String  name;
+  private Integer userAge;
+  @Entity.Column(numericScale = "2", insertable = false, updatable = false, selectable = false)
+  private Double  score;
+  @Entity.Transient
+  private String  temp;
+  private String  ignored;
+  private Object  extra;
+  private transient String cache;
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Integer getUserAge() {
+    return userAge;
+  }
+
+  public void setUserAge(Integer userAge) {
+    this.userAge = userAge;
+  }
+
+  public Double getScore() {
+    return score;
+  }
+
+  public void setScore(Double score) {
+    this.score = score;
+  }
+
+  /**
+   * 嵌套的实体类
+   */
+  @Entity.Table(style = "upper_underscore")
+  public static class Role {
+    @Entity.Column(id = true)
+    private Long   roleId;
+    private String roleName;
+
+    public Long getRoleId() {
+      return roleId;
+    }
+
+    public void setRoleId(Long roleId) {
+      this.roleId = roleId;
+    }
+
+    public String getRoleName() {
+      return roleName;
+    }
+
+    public void setRoleName(String roleName) {
+      this.roleName = roleName;
+    }
+  }
+}
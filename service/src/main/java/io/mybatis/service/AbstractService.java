@@ -20,14 +20,20 @@ import io.mybatis.common.util.Assert;
 import io.mybatis.mapper.BaseMapper;
 import io.mybatis.mapper.example.Example;
 import io.mybatis.mapper.example.ExampleWrapper;
+import io.mybatis.mapper.fn.FieldListChunks;
 import io.mybatis.mapper.fn.Fn;
+import io.mybatis.mapper.list.ListMapper;
 import io.mybatis.provider.EntityColumn;
 import io.mybatis.provider.EntityTable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import static io.mybatis.common.core.Code.*;
 
@@ -54,6 +60,10 @@ import static io.mybatis.common.core.Code.*;
  */
 public abstract class AbstractService<T, I extends Serializable, M extends BaseMapper<T, I>>
     implements BaseService<T, I> {
+  /**
+   * 批量操作时每批的默认数量
+   */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
 
   protected M baseMapper;
 
@@ -129,6 +139,165 @@ public abstract class AbstractService<T, I extends Serializable, M extends BaseM
     }
   }
 
+  /**
+   * 批量保存（所有字段），所有批次在同一个事务中执行
+   * <p>
+   * 当 Mapper 实现了 {@link ListMapper} 时按批次使用 insertList 多行插入，否则逐条插入。
+   * 两种方式都会在数据库驱动返回生成的主键时回写到实体中（多行插入时是否返回全部主键取决于数据库驱动）
+   *
+   * @param entities  实体集合
+   * @param chunkSize 每批的数量
+   * @return 保存的总条数
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public int saveBatch(Collection<T> entities, int chunkSize) {
+    return batch(entities, chunkSize, chunk -> {
+      if (baseMapper instanceof ListMapper) {
+        return ((ListMapper<T>) baseMapper).insertList(chunk);
+      }
+      int count = 0;
+      for (T entity : chunk) {
+        count += baseMapper.insert(entity);
+      }
+      return count;
+    });
+  }
+
+  /**
+   * 批量保存（所有字段），每批 {@link #DEFAULT_BATCH_SIZE} 条
+   *
+   * @param entities 实体集合
+   * @return 保存的总条数
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public int saveBatch(Collection<T> entities) {
+    return saveBatch(entities, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * 批量根据主键更新（所有字段），所有批次在同一个事务中执行
+   * <p>
+   * 当 Mapper 实现了 {@link ListMapper} 时按批次使用 updateList 更新，否则逐条更新
+   *
+   * @param entities  实体集合
+   * @param chunkSize 每批的数量
+   * @return 更新的总条数
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public int updateBatch(Collection<T> entities, int chunkSize) {
+    return batch(entities, chunkSize, chunk -> {
+      if (baseMapper instanceof ListMapper) {
+        return ((ListMapper<T>) baseMapper).updateList(chunk);
+      }
+      int count = 0;
+      for (T entity : chunk) {
+        count += baseMapper.updateByPrimaryKey(entity);
+      }
+      return count;
+    });
+  }
+
+  /**
+   * 批量根据主键更新（所有字段），每批 {@link #DEFAULT_BATCH_SIZE} 条
+   *
+   * @param entities 实体集合
+   * @return 更新的总条数
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public int updateBatch(Collection<T> entities) {
+    return updateBatch(entities, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * 批量根据主键更新（非空字段），所有批次在同一个事务中执行
+   * <p>
+   * 当 Mapper 实现了 {@link ListMapper} 时按批次使用 updateListSelective 更新，否则逐条更新
+   *
+   * @param entities  实体集合
+   * @param chunkSize 每批的数量
+   * @return 更新的总条数
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public int updateSelectiveBatch(Collection<T> entities, int chunkSize) {
+    return batch(entities, chunkSize, chunk -> {
+      if (baseMapper instanceof ListMapper) {
+        return ((ListMapper<T>) baseMapper).updateListSelective(chunk);
+      }
+      int count = 0;
+      for (T entity : chunk) {
+        count += baseMapper.updateByPrimaryKeySelective(entity);
+      }
+      return count;
+    });
+  }
+
+  /**
+   * 批量根据主键更新（非空字段），每批 {@link #DEFAULT_BATCH_SIZE} 条
+   *
+   * @param entities 实体集合
+   * @return 更新的总条数
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public int updateSelectiveBatch(Collection<T> entities) {
+    return updateSelectiveBatch(entities, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * 批量保存或更新（所有字段），先按主键是否有值一次性分组，再分别批量插入和批量更新
+   *
+   * @param entities  实体集合
+   * @param chunkSize 每批的数量
+   * @return 保存和更新的总条数
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public int saveOrUpdateBatch(Collection<T> entities, int chunkSize) {
+    if (entities == null || entities.isEmpty()) {
+      return 0;
+    }
+    List<T> saveList = new ArrayList<>();
+    List<T> updateList = new ArrayList<>();
+    for (T entity : entities) {
+      if (pkHasValue(entity)) {
+        updateList.add(entity);
+      } else {
+        saveList.add(entity);
+      }
+    }
+    return saveBatch(saveList, chunkSize) + updateBatch(updateList, chunkSize);
+  }
+
+  /**
+   * 批量保存或更新（所有字段），每批 {@link #DEFAULT_BATCH_SIZE} 条
+   *
+   * @param entities 实体集合
+   * @return 保存和更新的总条数
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public int saveOrUpdateBatch(Collection<T> entities) {
+    return saveOrUpdateBatch(entities, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * 将实体集合按批次拆分后执行
+   *
+   * @param entities  实体集合
+   * @param chunkSize 每批的数量
+   * @param operation 每批执行的操作，返回影响的行数
+   * @return 影响的总行数
+   */
+  protected int batch(Collection<T> entities, int chunkSize, Function<List<T>, Integer> operation) {
+    Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+    if (entities == null || entities.isEmpty()) {
+      return 0;
+    }
+    List<T> list = entities instanceof List ? (List<T>) entities : new ArrayList<>(entities);
+    int count = 0;
+    for (int i = 0; i < list.size(); i += chunkSize) {
+      count += operation.apply(list.subList(i, Math.min(i + chunkSize, list.size())));
+    }
+    return count;
+  }
+
   @Override
   public int delete(T entity) {
     return baseMapper.delete(entity);
@@ -146,6 +315,20 @@ public abstract class AbstractService<T, I extends Serializable, M extends BaseM
     return baseMapper.deleteByFieldList(field, fieldValueList);
   }
 
+  /**
+   * 根据指定字段集合删除，值的数量超过 chunkSize 时在同一个事务中分批删除
+   *
+   * @param field          字段
+   * @param fieldValueList 字段值集合
+   * @param chunkSize      每批的数量
+   * @param <F>            字段值类型
+   * @return 删除的总条数
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public <F> int deleteByFieldList(Fn<T, F> field, Collection<F> fieldValueList, int chunkSize) {
+    return baseMapper.deleteByFieldList(field, fieldValueList, chunkSize);
+  }
+
   /**
    * 根据指定的主键查询
    *
@@ -192,6 +375,31 @@ public abstract class AbstractService<T, I extends Serializable, M extends BaseM
     return baseMapper.selectByFieldList(field, fieldValueList);
   }
 
+  /**
+   * 根据指定字段集合查询，值的数量超过 chunkSize 时分批查询后合并结果
+   * <p>
+   * 指定 executor 时各批次并行执行，每个线程通过 Mapper（SqlSessionTemplate）使用独立的 SqlSession，
+   * 因此并行查询不会参与当前线程的事务
+   *
+   * @param field          字段
+   * @param fieldValueList 字段值集合
+   * @param chunkSize      每批的数量
+   * @param executor       并行执行的线程池，为 null 时顺序执行
+   * @param keepOrder      是否按照字段值集合的顺序返回结果
+   * @param <F>            字段值类型
+   * @return 实体集合
+   */
+  public <F> List<T> findByFieldList(Fn<T, F> field, Collection<F> fieldValueList,
+                                     int chunkSize, Executor executor, boolean keepOrder) {
+    List<T> list = FieldListChunks.select(fieldValueList, chunkSize, executor,
+        chunk -> baseMapper.selectByFieldList(field, chunk, chunkSize));
+    if (keepOrder) {
+      EntityColumn column = field.in(baseMapper.entityClass()).toEntityColumn();
+      FieldListChunks.sortByValues(list, fieldValueList, entity -> column.field().get(entity));
+    }
+    return list;
+  }
+
   /**
    * 查询全部
    *
@@ -16,6 +16,7 @@
 package io.mybatis.service;
 
 import io.mybatis.mapper.example.Example;
+import io.mybatis.service.impl.UserServiceImpl;
 import io.mybatis.service.model.Role;
 import io.mybatis.service.model.User;
 import org.junit.AfterClass;
@@ -27,6 +28,8 @@ import org.springframework.context.support.ClassPathXmlApplicationContext;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 
@@ -182,6 +185,61 @@ public class ServiceTest {
     Assert.assertTrue(userService.findOne(user) != null);
   }
 
+  @Test
+  public void testBatch() {
+    UserServiceImpl userService = context.getBean(UserServiceImpl.class);
+    List<User> users = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      User user = new User();
+      user.setName("batch" + i);
+      users.add(user);
+    }
+    Assert.assertEquals(5, userService.saveBatch(users, 2));
+    users.forEach(user -> Assert.assertNotNull(user.getId()));
+
+    users.forEach(user -> user.setRoleId(8));
+    Assert.assertEquals(5, userService.updateBatch(users, 2));
+    users.forEach(user -> user.setName(null));
+    Assert.assertEquals(5, userService.updateSelectiveBatch(users));
+    User query = new User();
+    query.setRoleId(8);
+    List<User> list = userService.findList(query);
+    Assert.assertEquals(5, list.size());
+    list.forEach(user -> Assert.assertTrue(user.getName().startsWith("batch")));
+
+    //2个更新，1个新增
+    User user = new User();
+    user.setName("batch5");
+    user.setRoleId(8);
+    list = Arrays.asList(users.get(0), users.get(1), user);
+    list.forEach(u -> u.setRoleId(8));
+    Assert.assertEquals(3, userService.saveOrUpdateBatch(list, 2));
+    Assert.assertNotNull(user.getId());
+    Assert.assertEquals(6, userService.count(query));
+    Assert.assertEquals(6, userService.deleteByFieldList(User::getRoleId, Arrays.asList(8)));
+  }
+
+  @Test
+  public void testFindByFieldListChunked() {
+    UserServiceImpl userService = context.getBean(UserServiceImpl.class);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      ids.add(userService.save(new User("chunk" + i)).getId());
+    }
+    try {
+      List<Integer> expected = Arrays.asList(ids.get(2), ids.get(0), ids.get(1));
+      List<Integer> query = Arrays.asList(ids.get(2), -1, ids.get(0), ids.get(1));
+      List<User> users = userService.findByFieldList(User::getId, query, 1, executor, true);
+      Assert.assertEquals(expected, users.stream().map(User::getId).collect(Collectors.toList()));
+      users = userService.findByFieldList(User::getId, query, 2, null, true);
+      Assert.assertEquals(expected, users.stream().map(User::getId).collect(Collectors.toList()));
+    } finally {
+      executor.shutdown();
+      Assert.assertEquals(3, userService.deleteByFieldList(User::getId, ids, 2));
+    }
+  }
+
   @Test
   public void testUpdate() {
     // 元数据 (1, 'admin', 1)